@@ -0,0 +1,178 @@
+package org.companhiaaerea.benchmarks;
+
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.indices.ColunasVoos;
+import org.companhiaaerea.indices.EstatisticasDiarias;
+import org.companhiaaerea.indices.IndicePassageiros;
+import org.companhiaaerea.indices.IndiceRotas;
+import org.companhiaaerea.indices.LinhaTemporal;
+import org.companhiaaerea.indices.MaximosDiarios;
+import org.companhiaaerea.repositorio.RepositorioVoos;
+import org.companhiaaerea.repositorio.RepositorioVoosConcorrente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das pesquisas do menu sobre um intervalo de datas, feitas nos índices através do repositório, tal como
+ * em {@code Main} ({@code pesquisarVoosData}, {@code totalPassageiros}, {@code mediaPassageiros},
+ * {@code pesquisarVooMaisPassageirosData}, ...), sem a leitura das datas na consola.
+ * <p>
+ * O intervalo pesquisado tem {@link #dias} dias e fica no meio dos dias ocupados pelos voos do conjunto de dados.
+ *
+ * @author Ricardo Pereira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkConsultas {
+    /**
+     * Número de voos apresentados na pesquisa dos voos com mais passageiros.
+     */
+    private static final int NUM_VOOS_MAIS_PASSAGEIROS = 10;
+
+    /**
+     * Conjunto de dados ({@link ConjuntoDados}).
+     */
+    @Param({"1000x0", "1000x400", "100000x40", "100000x400", "1000000x40", "10000000x0"})
+    public String conjunto;
+
+    /**
+     * Número de dias do intervalo pesquisado.
+     */
+    @Param({"1", "30", "365"})
+    public int dias;
+
+    /**
+     * Índice temporal dos voos.
+     */
+    private LinhaTemporal linhaTemporal;
+
+    /**
+     * Índice das rotas.
+     */
+    private IndiceRotas indiceRotas;
+
+    /**
+     * Contagens diárias de voos e passageiros.
+     */
+    private EstatisticasDiarias estatisticasDiarias;
+
+    /**
+     * Voos com mais passageiros de cada dia.
+     */
+    private MaximosDiarios maximosDiarios;
+
+    /**
+     * Colunas dos voos para as estatísticas de ocupação.
+     */
+    private ColunasVoos colunasVoos;
+
+    /**
+     * Repositório com os voos do conjunto de dados.
+     */
+    private RepositorioVoos repositorio;
+
+    /**
+     * Primeiro dia do intervalo pesquisado.
+     */
+    private LocalDate dataInicio;
+
+    /**
+     * Último dia do intervalo pesquisado.
+     */
+    private LocalDate dataFim;
+
+    /**
+     * Gera os voos e coloca-os no repositório, com os mesmos índices usados pela aplicação.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        ConjuntoDados dados = ConjuntoDados.de(conjunto);
+
+        linhaTemporal = new LinhaTemporal();
+        indiceRotas = new IndiceRotas();
+        estatisticasDiarias = new EstatisticasDiarias(linhaTemporal);
+        maximosDiarios = new MaximosDiarios();
+        colunasVoos = new ColunasVoos();
+        repositorio = new RepositorioVoosConcorrente(List.of(linhaTemporal, indiceRotas, new IndicePassageiros(),
+                estatisticasDiarias, maximosDiarios, colunasVoos));
+        repositorio.substituir(dados.gerar());
+
+        dataInicio = ConjuntoDados.PRIMEIRO_DIA.plusDays(Math.max(0, (dados.numDias() - dias) / 2));
+        dataFim = dataInicio.plusDays(dias - 1);
+    }
+
+    /**
+     * Voos entre duas datas ({@code pesquisarVoosData}).
+     */
+    @Benchmark
+    public ArrayList<Voo> pesquisarVoosData() {
+        return repositorio.consultar(() -> linhaTemporal.voosEntre(dataInicio, dataFim));
+    }
+
+    /**
+     * Voos de uma rota que partem e chegam no primeiro dia do intervalo ({@code pesquisarVooDataRota}).
+     */
+    @Benchmark
+    public ArrayList<Voo> pesquisarVooDataRota() {
+        return repositorio.consultar(() -> indiceRotas.voosRota("LIS", "OPO", dataInicio, dataInicio));
+    }
+
+    /**
+     * Total de passageiros entre duas datas ({@code totalPassageiros}).
+     */
+    @Benchmark
+    public long totalPassageiros() {
+        return repositorio.consultar(() -> estatisticasDiarias.totalPassageiros(dataInicio, dataFim));
+    }
+
+    /**
+     * Média de passageiros entre duas datas ({@code mediaPassageiros}).
+     */
+    @Benchmark
+    public double mediaPassageiros() {
+        return repositorio.consultar(() -> estatisticasDiarias.mediaPassageiros(dataInicio, dataFim));
+    }
+
+    /**
+     * Voo com mais passageiros entre duas datas ({@code pesquisarVooMaisPassageirosData}).
+     */
+    @Benchmark
+    public Voo pesquisarVooMaisPassageirosData() {
+        return repositorio.consultar(() -> maximosDiarios.maisPassageiros(dataInicio, dataFim));
+    }
+
+    /**
+     * Voos com mais passageiros entre duas datas ({@code pesquisarVoosMaisPassageirosData}).
+     */
+    @Benchmark
+    public ArrayList<Voo> pesquisarVoosMaisPassageirosData() {
+        return repositorio.consultar(() -> maximosDiarios.maisPassageiros(dataInicio, dataFim, NUM_VOOS_MAIS_PASSAGEIROS));
+    }
+
+    /**
+     * Estatísticas de ocupação entre duas datas ({@code estatisticasOcupacao}).
+     */
+    @Benchmark
+    public ColunasVoos.Ocupacao estatisticasOcupacao() {
+        return repositorio.consultar(() -> colunasVoos.ocupacao(dataInicio, dataFim));
+    }
+}
@@ -0,0 +1,179 @@
+package org.companhiaaerea.benchmarks;
+
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.utils.CarregadorParalelo;
+import org.companhiaaerea.utils.FicheiroBinario;
+import org.companhiaaerea.utils.File;
+import org.companhiaaerea.utils.GravadorFicheiros;
+import org.companhiaaerea.utils.Validacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks da gravação e da leitura dos ficheiros de voos, nos formatos de texto e binário.
+ * <p>
+ * {@link File#readVooListFromFile(String)} e {@link File#guardarEmFicheiro} usam a pasta da aplicação e pedem dados ao
+ * utilizador, por isso são medidos os passos que executam, sobre ficheiros numa pasta temporária: a leitura (paralela
+ * ou sequencial) seguida da validação dos voos, e a gravação atómica feita em segundo plano. Os ficheiros lidos são
+ * criados uma vez por conjunto de dados.
+ *
+ * @author Ricardo Pereira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkPersistencia {
+    /**
+     * Conjunto de dados ({@link ConjuntoDados}).
+     */
+    @Param({"1000x0", "1000x400", "100000x40", "100000x400", "1000000x40", "10000000x0"})
+    public String conjunto;
+
+    /**
+     * Voos do conjunto de dados.
+     */
+    private ArrayList<Voo> voos;
+
+    /**
+     * Pasta temporária dos ficheiros.
+     */
+    private Path pasta;
+
+    /**
+     * Ficheiro de texto com os voos.
+     */
+    private Path ficheiroTexto;
+
+    /**
+     * Ficheiro binário com os voos.
+     */
+    private Path ficheiroBinario;
+
+    /**
+     * Ficheiro onde os benchmarks de gravação escrevem.
+     */
+    private Path destino;
+
+    /**
+     * Gera os voos e cria os ficheiros que vão ser lidos.
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        voos = ConjuntoDados.de(conjunto).gerar();
+
+        pasta = Files.createTempDirectory("benchmark_voos");
+        ficheiroTexto = pasta.resolve("voos_texto" + File.EXTENSAO);
+        ficheiroBinario = pasta.resolve("voos_binario" + File.EXTENSAO);
+        destino = pasta.resolve("destino" + File.EXTENSAO);
+
+        File.escreverTexto(voos, ficheiroTexto);
+        FicheiroBinario.escrever(voos, ficheiroBinario);
+    }
+
+    /**
+     * Apaga a pasta temporária.
+     */
+    @TearDown(Level.Trial)
+    public void terminar() throws IOException {
+        try (Stream<Path> ficheiros = Files.walk(pasta)) {
+            for (Path ficheiro : ficheiros.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(ficheiro);
+            }
+        }
+    }
+
+    /**
+     * Leitura de um ficheiro de texto como em {@link File#readVooListFromFile(String)}: em paralelo e com validação.
+     */
+    @Benchmark
+    public List<Voo> carregarTexto() throws IOException {
+        ArrayList<Voo> lidos = CarregadorParalelo.ler(ficheiroTexto);
+        Validacao.removerInvalidos(lidos);
+        return lidos;
+    }
+
+    /**
+     * Leitura de um ficheiro de texto por uma única thread, sem validação.
+     */
+    @Benchmark
+    public List<Voo> lerTextoSequencial() throws IOException {
+        return File.lerTexto(ficheiroTexto);
+    }
+
+    /**
+     * Leitura de um ficheiro binário como em {@link File#readVooListFromFile(String)}, com validação.
+     */
+    @Benchmark
+    public List<Voo> carregarBinario() throws IOException {
+        ArrayList<Voo> lidos = FicheiroBinario.ler(ficheiroBinario);
+        Validacao.removerInvalidos(lidos);
+        return lidos;
+    }
+
+    /**
+     * Validação dos voos lidos de um ficheiro.
+     */
+    @Benchmark
+    public int validar() {
+        int invalidos = 0;
+        for (Voo voo : voos) {
+            if (Validacao.motivo(voo) != null) invalidos++;
+        }
+        return invalidos;
+    }
+
+    /**
+     * Gravação no formato de texto.
+     */
+    @Benchmark
+    public void escreverTexto() throws IOException {
+        File.escreverTexto(voos, destino);
+    }
+
+    /**
+     * Gravação no formato binário.
+     */
+    @Benchmark
+    public void escreverBinario() throws IOException {
+        FicheiroBinario.escrever(voos, destino);
+    }
+
+    /**
+     * Gravação atómica no formato de texto, como a feita em segundo plano por {@link File#guardarEmFicheiro}.
+     */
+    @Benchmark
+    public void guardarTexto() throws IOException {
+        GravadorFicheiros.escrever(voos, destino, false);
+    }
+
+    /**
+     * Gravação atómica no formato binário, como a feita em segundo plano por {@link File#guardarEmFicheiro}.
+     */
+    @Benchmark
+    public void guardarBinario() throws IOException {
+        GravadorFicheiros.escrever(voos, destino, true);
+    }
+}
@@ -0,0 +1,68 @@
+package org.companhiaaerea.benchmarks;
+
+import org.companhiaaerea.GeradorHorarios;
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Conjunto de voos usado pelos benchmarks, descrito por um parâmetro no formato "voosxpassageiros" (por exemplo,
+ * "100000x40" são 100 000 voos com 40 passageiros cada).
+ * <p>
+ * Os voos são gerados pelo {@link GeradorHorarios}, sempre com a mesma semente. Como o número de voo tem o formato
+ * VXXX, há no máximo {@link #VOOS_POR_DIA} voos por dia, por isso os voos ocupam tantos dias consecutivos quantos os
+ * necessários, a começar em {@link #PRIMEIRO_DIA}, e a densidade de voos por dia é a mesma em todos os conjuntos.
+ *
+ * @param numVoos           número de voos
+ * @param passageirosPorVoo número de passageiros de cada voo
+ * @author Ricardo Pereira
+ */
+public record ConjuntoDados(int numVoos, int passageirosPorVoo) {
+    /**
+     * Número de voos por dia (todos os números de voo VXXX).
+     */
+    public static final int VOOS_POR_DIA = GeradorHorarios.MAX_VOOS_POR_DIA;
+
+    /**
+     * Dia de partida dos primeiros voos.
+     */
+    public static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Semente usada para gerar os voos.
+     */
+    public static final long SEMENTE = 42;
+
+    /**
+     * Interpreta a descrição de um conjunto de dados.
+     *
+     * @param descricao descrição no formato "voosxpassageiros"
+     * @return o conjunto de dados
+     */
+    public static ConjuntoDados de(String descricao) {
+        int separador = descricao.indexOf('x');
+        if (separador < 0) throw new IllegalArgumentException("Conjunto de dados inválido: " + descricao);
+
+        return new ConjuntoDados(Integer.parseInt(descricao.substring(0, separador)),
+                Integer.parseInt(descricao.substring(separador + 1)));
+    }
+
+    /**
+     * Retorna o número de dias ocupados pelos voos.
+     *
+     * @return o número de dias
+     */
+    public int numDias() {
+        return (numVoos + VOOS_POR_DIA - 1) / VOOS_POR_DIA;
+    }
+
+    /**
+     * Gera os voos do conjunto, em aviões com lugares suficientes para os passageiros de cada voo.
+     *
+     * @return a lista de voos, pela ordem do dia de partida
+     */
+    public ArrayList<Voo> gerar() {
+        return new GeradorHorarios(SEMENTE, PRIMEIRO_DIA, VOOS_POR_DIA, passageirosPorVoo).gerar(numVoos);
+    }
+}
@@ -0,0 +1,39 @@
+package org.companhiaaerea.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Ponto de entrada de target/benchmarks.jar: executa os benchmarks JMH com os argumentos indicados, acrescentando o
+ * profiler de GC ("-prof gc", que mede a taxa de alocação) se não for indicado nenhum profiler.
+ * <p>
+ * Exemplos:
+ * <pre>
+ * java -jar target/benchmarks.jar BenchmarkConsultas
+ * java -jar target/benchmarks.jar BenchmarkPersistencia -p conjunto=100000x40
+ * java -jar target/benchmarks.jar -p conjunto=10000000x400 -jvmArgsAppend -Xmx64g
+ * </pre>
+ *
+ * @author Ricardo Pereira
+ */
+public class ExecutarBenchmarks {
+    /**
+     * Profiler usado por omissão.
+     */
+    private static final String[] PROFILER_GC = {"-prof", "gc"};
+
+    /**
+     * Executa os benchmarks.
+     *
+     * @param args argumentos da linha de comandos do JMH
+     * @throws Exception se ocorrer um erro a executar os benchmarks
+     */
+    public static void main(String[] args) throws Exception {
+        if (!Arrays.asList(args).contains("-prof")) {
+            String[] argumentos = Arrays.copyOf(PROFILER_GC, PROFILER_GC.length + args.length);
+            System.arraycopy(args, 0, argumentos, PROFILER_GC.length, args.length);
+            args = argumentos;
+        }
+
+        org.openjdk.jmh.Main.main(args);
+    }
+}
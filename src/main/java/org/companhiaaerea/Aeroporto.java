@@ -1,5 +1,7 @@
 package org.companhiaaerea;
 
+import org.companhiaaerea.utils.Validacao;
+
 import static org.companhiaaerea.utils.Console.lerString;
 import static org.companhiaaerea.utils.Console.clearConsole;
 
@@ -99,6 +101,7 @@ public class Aeroporto {
 
     /**
      * Método para ler os dados de um aeroporto.
+     * Se a sigla já existir no {@link Catalogo}, é usado o aeroporto do catálogo sem pedir os restantes dados.
      *
      * @param partidaOuChegada ‘String’ indicando se o aeroporto é de partida ou de chegada.
      * @return Um objeto Aeroporto com os dados lidos.
@@ -108,25 +111,31 @@ public class Aeroporto {
 
         String sigla = lerString(
                 "Insira a sigla (AAA): ",
-                "^[A-Za-z]{3}$", // Expressão regular para 3 letras maiúsculas.
+                Validacao.Regra.SIGLA, // 3 letras.
                 "A sigla deve ter 3 letras maiúsculas."
         ).toUpperCase();
 
+        Aeroporto existente = Catalogo.getAeroporto(sigla);
+        if (existente != null) {
+            System.out.println("Aeroporto já registado: " + existente.getCidadeMaisProxima() + ", " + existente.getPais());
+            return existente;
+        }
+
         String pais = lerString(
                 "Insira o país: ",
-                "^[A-Za-z ]+$", // Expressão regular para letras e espaços.
+                Validacao.Regra.LOCALIDADE, // Letras e espaços.
                 "O país deve ter apenas letras."
         );
 
         String cidadeMaisProx = lerString(
                 "Insira a cidade mais próxima: ",
-                "^[A-Za-z ]+$", // Expressão regular para letras e espaços.
+                Validacao.Regra.LOCALIDADE, // Letras e espaços.
                 "A cidade mais próxima deve ter apenas letras."
         );
 
         clearConsole();
 
-        return new Aeroporto(sigla, pais, cidadeMaisProx);
+        return Catalogo.registarAeroporto(new Aeroporto(sigla, pais, cidadeMaisProx));
     }
 
     /**
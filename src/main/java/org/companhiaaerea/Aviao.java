@@ -1,5 +1,7 @@
 package org.companhiaaerea;
 
+import org.companhiaaerea.utils.Validacao;
+
 import static org.companhiaaerea.utils.Console.*;
 
 /**
@@ -123,6 +125,7 @@ public class Aviao {
 
     /**
      * Método para ler os dados do avião.
+     * Se o número de registo já existir no {@link Catalogo}, é usado o avião do catálogo sem pedir os restantes dados.
      *
      * @return um objeto Avião com os dados lidos.
      */
@@ -131,13 +134,19 @@ public class Aviao {
 
         String numRegisto = lerString(
                 "- Insira o número de registo (ex: CS-TUJ): ",
-                "^[A-Za-z]{2}-[A-Za-z]{3}$", // regex que valida o formato AA-AAA
+                Validacao.Regra.REGISTO_AVIAO, // formato AA-AAA
                 "O número de registo deve seguir o formato AA-AAA."
         ).toUpperCase();
 
+        Aviao existente = Catalogo.getAviao(numRegisto);
+        if (existente != null) {
+            System.out.println("Avião já registado: " + existente.getMarcaModelo());
+            return existente;
+        }
+
         String marcaModelo = lerString(
                 "- Insira a marca e modelo (Marca, Modelo): ",
-                "^[A-Za-z]+, [A-Za-z0-9]+$", // regex que valida letras seguidas de uma vírgula seguida de mais letras
+                Validacao.Regra.MARCA_MODELO, // letras seguidas de uma vírgula seguida de mais letras
                 "A marca e modelo devem ser separados por uma vírgula."
         );
 
@@ -153,7 +162,7 @@ public class Aviao {
 
         clearConsole();
 
-        return new Aviao(numRegisto, marcaModelo, numLugaresTuristica, numLugaresExecutiva);
+        return Catalogo.registarAviao(new Aviao(numRegisto, marcaModelo, numLugaresTuristica, numLugaresExecutiva));
     }
 
     /**
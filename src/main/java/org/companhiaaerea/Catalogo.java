@@ -0,0 +1,325 @@
+package org.companhiaaerea;
+
+import org.companhiaaerea.utils.GravadorFicheiros;
+import org.companhiaaerea.utils.LeitorRegistos;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.companhiaaerea.utils.File.PATH_PASTA;
+
+/**
+ * Catálogo dos aeroportos e aviões conhecidos, partilhados por todos os voos.
+ * <p>
+ * Cada aeroporto (identificado pela sigla) e cada avião (identificado pelo número de registo) existe uma única vez em
+ * memória: os voos lidos de ficheiros ou inseridos pelo utilizador usam sempre o objeto do catálogo. Se um ficheiro de
+ * voos tiver dados diferentes para uma sigla ou número de registo já conhecidos (por exemplo, o número de lugares de
+ * um avião corrigido no ficheiro), prevalecem os dados do ficheiro: o utilizador é avisado e a entrada do catálogo é
+ * substituída, sem alterar os voos já carregados, que mantêm a definição anterior.
+ * O catálogo é guardado no ficheiro {@value #NOME_FICHEIRO}, lido uma vez no arranque do programa.
+ *
+ * @author Ricardo Pereira
+ */
+public class Catalogo {
+    /**
+     * Nome do ficheiro onde o catálogo é guardado, na pasta do programa.
+     */
+    public static final String NOME_FICHEIRO = "catalogo.ref";
+
+    /**
+     * Tipo de registo do ficheiro do catálogo: aeroporto.
+     */
+    static final String AEROPORTO = "A";
+
+    /**
+     * Tipo de registo do ficheiro do catálogo: avião.
+     */
+    static final String AVIAO = "V";
+
+    /**
+     * Aeroportos conhecidos, por sigla.
+     */
+    private static final ConcurrentHashMap<String, Aeroporto> aeroportos = new ConcurrentHashMap<>();
+
+    /**
+     * Aviões conhecidos, por número de registo.
+     */
+    private static final ConcurrentHashMap<String, Aviao> avioes = new ConcurrentHashMap<>();
+
+    /**
+     * Aeroportos e aviões da thread atual, enquanto esta estiver isolada ({@link Isolamento}).
+     */
+    private static final ThreadLocal<Tabelas> isoladas = new ThreadLocal<>();
+
+    /**
+     * Indica se o catálogo tem entradas que ainda não foram guardadas.
+     */
+    private static volatile boolean alterado;
+
+    /**
+     * Aeroportos e aviões de um catálogo isolado.
+     *
+     * @param aeroportos aeroportos, por sigla
+     * @param avioes     aviões, por número de registo
+     */
+    private record Tabelas(ConcurrentHashMap<String, Aeroporto> aeroportos, ConcurrentHashMap<String, Aviao> avioes) {
+    }
+
+    /**
+     * Retorna o aeroporto com a sigla indicada.
+     *
+     * @param sigla a sigla do aeroporto
+     * @return o aeroporto, ou null se não for conhecido
+     */
+    public static Aeroporto getAeroporto(String sigla) {
+        return aeroportos().get(sigla);
+    }
+
+    /**
+     * Retorna o avião com o número de registo indicado.
+     *
+     * @param numRegisto o número de registo do avião
+     * @return o avião, ou null se não for conhecido
+     */
+    public static Aviao getAviao(String numRegisto) {
+        return avioes().get(numRegisto);
+    }
+
+    /**
+     * Retorna todos os aeroportos conhecidos.
+     *
+     * @return os aeroportos do catálogo
+     */
+    public static Collection<Aeroporto> getAeroportos() {
+        return aeroportos().values();
+    }
+
+    /**
+     * Retorna todos os aviões conhecidos.
+     *
+     * @return os aviões do catálogo
+     */
+    public static Collection<Aviao> getAvioes() {
+        return avioes().values();
+    }
+
+    /**
+     * Regista um aeroporto no catálogo, se a sua sigla ainda não for conhecida.
+     *
+     * @param aeroporto o aeroporto a registar
+     * @return o aeroporto do catálogo com a mesma sigla (o indicado, se ainda não existia)
+     */
+    public static Aeroporto registarAeroporto(Aeroporto aeroporto) {
+        Aeroporto existente = aeroportos().putIfAbsent(aeroporto.getSigla(), aeroporto);
+        if (existente != null) return existente;
+
+        marcarAlterado();
+        return aeroporto;
+    }
+
+    /**
+     * Regista um avião no catálogo, se o seu número de registo ainda não for conhecido.
+     *
+     * @param aviao o avião a registar
+     * @return o avião do catálogo com o mesmo número de registo (o indicado, se ainda não existia)
+     */
+    public static Aviao registarAviao(Aviao aviao) {
+        Aviao existente = avioes().putIfAbsent(aviao.getNumRegisto(), aviao);
+        if (existente != null) return existente;
+
+        marcarAlterado();
+        return aviao;
+    }
+
+    /**
+     * Define um aeroporto lido de um ficheiro de voos: se a sigla já for conhecida com os mesmos dados, é usado o
+     * aeroporto do catálogo; se os dados forem diferentes, o aeroporto indicado substitui o do catálogo.
+     *
+     * @param aeroporto o aeroporto lido
+     * @return o aeroporto do catálogo com a mesma sigla e os dados do aeroporto indicado
+     */
+    public static Aeroporto definirAeroporto(Aeroporto aeroporto) {
+        Aeroporto[] anterior = new Aeroporto[1];
+        Aeroporto definido = aeroportos().compute(aeroporto.getSigla(), (sigla, existente) -> {
+            anterior[0] = existente;
+            return existente != null && mesmaDefinicao(existente, aeroporto) ? existente : aeroporto;
+        });
+
+        if (definido == aeroporto) {
+            marcarAlterado();
+            if (anterior[0] != null) {
+                System.out.println("Aviso: o aeroporto " + aeroporto.getSigla() + " tem dados diferentes no catálogo ("
+                        + anterior[0].getCidadeMaisProxima() + ", " + anterior[0].getPais()
+                        + "); são usados os dados do ficheiro (" + aeroporto.getCidadeMaisProxima() + ", "
+                        + aeroporto.getPais() + ").");
+            }
+        }
+        return definido;
+    }
+
+    /**
+     * Define um avião lido de um ficheiro de voos: se o número de registo já for conhecido com os mesmos dados, é
+     * usado o avião do catálogo; se os dados forem diferentes, o avião indicado substitui o do catálogo.
+     *
+     * @param aviao o avião lido
+     * @return o avião do catálogo com o mesmo número de registo e os dados do avião indicado
+     */
+    public static Aviao definirAviao(Aviao aviao) {
+        Aviao[] anterior = new Aviao[1];
+        Aviao definido = avioes().compute(aviao.getNumRegisto(), (numRegisto, existente) -> {
+            anterior[0] = existente;
+            return existente != null && mesmaDefinicao(existente, aviao) ? existente : aviao;
+        });
+
+        if (definido == aviao) {
+            marcarAlterado();
+            if (anterior[0] != null) {
+                System.out.println("Aviso: o avião " + aviao.getNumRegisto() + " tem dados diferentes no catálogo ("
+                        + anterior[0].getMarcaModelo() + ", " + anterior[0].getNumLugaresTuristica() + "/"
+                        + anterior[0].getNumLugaresExecutiva() + " lugares); são usados os dados do ficheiro ("
+                        + aviao.getMarcaModelo() + ", " + aviao.getNumLugaresTuristica() + "/"
+                        + aviao.getNumLugaresExecutiva() + " lugares).");
+            }
+        }
+        return definido;
+    }
+
+    /**
+     * Indica se dois aeroportos com a mesma sigla têm os mesmos dados.
+     *
+     * @param a um aeroporto
+     * @param b outro aeroporto
+     * @return true se o país e a cidade mais próxima forem iguais
+     */
+    public static boolean mesmaDefinicao(Aeroporto a, Aeroporto b) {
+        return Objects.equals(a.getPais(), b.getPais()) && Objects.equals(a.getCidadeMaisProxima(), b.getCidadeMaisProxima());
+    }
+
+    /**
+     * Indica se dois aviões com o mesmo número de registo têm os mesmos dados.
+     *
+     * @param a um avião
+     * @param b outro avião
+     * @return true se a marca e modelo e o número de lugares de cada classe forem iguais
+     */
+    public static boolean mesmaDefinicao(Aviao a, Aviao b) {
+        return Objects.equals(a.getMarcaModelo(), b.getMarcaModelo())
+                && a.getNumLugaresTuristica() == b.getNumLugaresTuristica()
+                && a.getNumLugaresExecutiva() == b.getNumLugaresExecutiva();
+    }
+
+    /**
+     * Lê o catálogo do ficheiro {@value #NOME_FICHEIRO}, se existir.
+     */
+    public static void carregar() {
+        Path path = Path.of(PATH_PASTA, NOME_FICHEIRO);
+        if (!Files.exists(path)) return;
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            LeitorRegistos leitor = new LeitorRegistos(reader);
+
+            while (leitor.proximaLinha()) {
+                if (leitor.consumirSe(AEROPORTO)) {
+                    registarAeroporto(new Aeroporto(leitor.lerString(), leitor.lerString(), leitor.lerString()));
+                } else if (leitor.consumirSe(AVIAO)) {
+                    registarAviao(new Aviao(leitor.lerString(), leitor.lerString(), leitor.lerInt(), leitor.lerInt()));
+                } else {
+                    throw new IOException("Linha " + leitor.getNumLinha() + ": tipo de registo desconhecido.");
+                }
+            }
+
+            alterado = false;
+        } catch (IOException e) {
+            System.out.println("Erro a ler o catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda o catálogo no ficheiro {@value #NOME_FICHEIRO}, se tiver entradas novas.
+     */
+    public static synchronized void guardarSeAlterado() {
+        if (!alterado) return;
+        alterado = false;
+
+        // Copia as entradas para que o ficheiro fique consistente mesmo que o catálogo seja alterado entretanto
+        ArrayList<Aeroporto> listaAeroportos = new ArrayList<>(aeroportos.values());
+        ArrayList<Aviao> listaAvioes = new ArrayList<>(avioes.values());
+
+        try {
+            Files.createDirectories(Path.of(PATH_PASTA));
+
+            GravadorFicheiros.escreverAtomicamente(Path.of(PATH_PASTA, NOME_FICHEIRO), canal -> {
+                BufferedWriter writer = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8));
+
+                for (Aeroporto aeroporto : listaAeroportos) {
+                    writer.write(AEROPORTO + ";");
+                    writer.write(aeroporto.getSigla() + ";");
+                    writer.write(aeroporto.getPais() + ";");
+                    writer.write(aeroporto.getCidadeMaisProxima() + ";");
+                    writer.newLine();
+                }
+
+                for (Aviao aviao : listaAvioes) {
+                    writer.write(AVIAO + ";");
+                    writer.write(aviao.getNumRegisto() + ";");
+                    writer.write(aviao.getMarcaModelo() + ";");
+                    writer.write(aviao.getNumLugaresTuristica() + ";");
+                    writer.write(aviao.getNumLugaresExecutiva() + ";");
+                    writer.newLine();
+                }
+
+                writer.flush();
+            });
+        } catch (IOException e) {
+            alterado = true;
+            System.out.println("Erro a guardar o catálogo: " + e);
+        }
+    }
+
+    /**
+     * Isola o catálogo na thread atual: até {@link #terminarIsolamento()}, a thread usa uma cópia do catálogo, e as
+     * entradas que regista ou define não chegam ao catálogo global nem ao ficheiro.
+     */
+    static void iniciarIsolamento() {
+        isoladas.set(new Tabelas(new ConcurrentHashMap<>(aeroportos), new ConcurrentHashMap<>(avioes)));
+    }
+
+    /**
+     * Termina o isolamento da thread atual, que volta a usar o catálogo global.
+     */
+    static void terminarIsolamento() {
+        isoladas.remove();
+    }
+
+    /**
+     * Retorna os aeroportos usados pela thread atual (os do catálogo global, se a thread não estiver isolada).
+     */
+    private static ConcurrentHashMap<String, Aeroporto> aeroportos() {
+        Tabelas tabelas = isoladas.get();
+        return tabelas == null ? aeroportos : tabelas.aeroportos();
+    }
+
+    /**
+     * Retorna os aviões usados pela thread atual (os do catálogo global, se a thread não estiver isolada).
+     */
+    private static ConcurrentHashMap<String, Aviao> avioes() {
+        Tabelas tabelas = isoladas.get();
+        return tabelas == null ? avioes : tabelas.avioes();
+    }
+
+    /**
+     * Marca o catálogo como alterado, se a thread atual não estiver isolada.
+     */
+    private static void marcarAlterado() {
+        if (isoladas.get() == null) alterado = true;
+    }
+}
@@ -0,0 +1,731 @@
+package org.companhiaaerea;
+
+import org.companhiaaerea.utils.File;
+import org.companhiaaerea.utils.GravadorFicheiros;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador de horários de voos sintéticos, para testes de escala e de carga sem ficheiros de voos reais.
+ * <p>
+ * O gerador é determinístico: a mesma semente e os mesmos parâmetros geram sempre os mesmos voos, pela mesma ordem.
+ * Os voos seguem um horário diário: cada número de voo (VXXX) tem uma rota, uma hora de partida e um modelo de avião
+ * fixos, e repete-se todos os dias com uma ocupação diferente. As rotas ligam aeroportos reais, com a popularidade
+ * proporcional ao produto do tráfego dos dois aeroportos, por isso poucas rotas (as dos aeroportos maiores) têm a
+ * maior parte dos voos. A duração de cada voo é calculada pela distância entre os aeroportos, e o modelo de avião, com
+ * lugares de classe executiva e turística de uma configuração real, tem de ter alcance para a rota.
+ * <p>
+ * Os passageiros e tripulantes são escolhidos de conjuntos fixos de pessoas, sem repetir pessoas no mesmo voo. Cada
+ * voo tem 2 pilotos e 1 tripulante de cabine por cada {@value #LUGARES_POR_TRIPULANTE} lugares, e os lugares
+ * reservados são aleatórios dentro da classe de cada bilhete. Todos os campos cumprem as regras de
+ * {@link org.companhiaaerea.utils.Validacao}.
+ * <p>
+ * Os voos podem ser gerados em memória ({@link #gerar(int)}), ou escritos diretamente num ficheiro de texto
+ * ({@link #escrever(long, Path)}) um a um, sem guardar os voos gerados, por isso o ficheiro pode ser maior do que a
+ * memória disponível. Os voos gerados em memória não são registados no {@link RegistoPessoas} nem no
+ * {@link Catalogo}.
+ *
+ * @author Ricardo Pereira
+ */
+public class GeradorHorarios {
+    /**
+     * Argumento da linha de comandos que gera um ficheiro de voos.
+     */
+    public static final String ARGUMENTO = "--gerar";
+
+    /**
+     * Semente usada quando não é indicada nenhuma.
+     */
+    public static final long SEMENTE = 1;
+
+    /**
+     * Dia de partida dos primeiros voos, quando não é indicado.
+     */
+    public static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Número máximo de voos por dia (todos os números de voo VXXX).
+     */
+    public static final int MAX_VOOS_POR_DIA = 1000;
+
+    /**
+     * Número de voos por dia, quando não é indicado.
+     */
+    public static final int VOOS_POR_DIA = 600;
+
+    /**
+     * Número de passageiros por voo que indica que cada voo tem uma ocupação aleatória.
+     */
+    public static final int OCUPACAO_VARIAVEL = -1;
+
+    /**
+     * Ocupação mínima de cada voo, quando a ocupação é aleatória.
+     */
+    private static final double OCUPACAO_MINIMA = 0.6;
+
+    /**
+     * Número de pessoas que podem ser passageiros.
+     */
+    private static final int NUM_PESSOAS = 100_000;
+
+    /**
+     * Número de lugares por cada tripulante de cabine.
+     */
+    private static final int LUGARES_POR_TRIPULANTE = 50;
+
+    /**
+     * Distância mínima, em km, entre os aeroportos de uma rota.
+     */
+    private static final double DISTANCIA_MINIMA = 150;
+
+    /**
+     * Velocidade média de cruzeiro, em km por minuto.
+     */
+    private static final double VELOCIDADE = 800.0 / 60;
+
+    /**
+     * Tempo de rolagem, descolagem e aterragem de cada voo, em minutos.
+     */
+    private static final int MINUTOS_SOLO = 30;
+
+    /**
+     * Primeira hora de partida de cada dia, em minutos.
+     */
+    private static final int PRIMEIRA_PARTIDA = 5 * 60;
+
+    /**
+     * Número de modelos de avião candidatos para cada rota, entre os que têm alcance.
+     */
+    private static final int MODELOS_CANDIDATOS = 3;
+
+    /**
+     * Número médio de voos diários de cada avião.
+     */
+    private static final int VOOS_POR_AVIAO = 3;
+
+    /**
+     * Nomes próprios das pessoas.
+     */
+    private static final String[] NOMES = {"Ana", "Joao", "Maria", "Pedro", "Sofia", "Tiago", "Ines", "Rui",
+            "Beatriz", "Miguel", "Carla", "Nuno", "Marta", "Andre", "Rita", "Luis", "Catarina", "Bruno", "Joana", "Paulo"};
+
+    /**
+     * Apelidos das pessoas.
+     */
+    private static final String[] APELIDOS = {"Silva", "Santos", "Ferreira", "Pereira", "Oliveira", "Costa",
+            "Rodrigues", "Martins", "Jesus", "Sousa", "Fernandes", "Goncalves", "Gomes", "Lopes", "Marques", "Alves",
+            "Almeida", "Ribeiro", "Pinto", "Carvalho"};
+
+    /**
+     * Aeroporto do conjunto de aeroportos, com a posição e o tráfego relativo.
+     *
+     * @param sigla     sigla IATA
+     * @param pais      país
+     * @param cidade    cidade mais próxima
+     * @param latitude  latitude, em graus
+     * @param longitude longitude, em graus
+     * @param trafego   tráfego relativo do aeroporto
+     */
+    private record Local(String sigla, String pais, String cidade, double latitude, double longitude, int trafego) {
+    }
+
+    /**
+     * Modelo de avião, com a configuração de lugares de duas classes.
+     *
+     * @param marcaModelo marca e modelo
+     * @param turistica   lugares de classe turística
+     * @param executiva   lugares de classe executiva
+     * @param alcance     distância máxima das rotas, em km
+     */
+    private record Modelo(String marcaModelo, int turistica, int executiva, int alcance) {
+        /**
+         * Retorna o número total de lugares.
+         */
+        int lugares() {
+            return turistica + executiva;
+        }
+    }
+
+    /**
+     * Aeroportos que podem ser origem e destino dos voos.
+     */
+    private static final Local[] LOCAIS = {
+            new Local("LIS", "Portugal", "Lisboa", 38.77, -9.13, 100),
+            new Local("OPO", "Portugal", "Porto", 41.24, -8.68, 45),
+            new Local("FAO", "Portugal", "Faro", 37.01, -7.97, 25),
+            new Local("FNC", "Portugal", "Funchal", 32.69, -16.78, 20),
+            new Local("PDL", "Portugal", "Ponta Delgada", 37.74, -25.70, 12),
+            new Local("MAD", "Espanha", "Madrid", 40.47, -3.56, 60),
+            new Local("BCN", "Espanha", "Barcelona", 41.30, 2.08, 45),
+            new Local("LHR", "Reino Unido", "Londres", 51.47, -0.45, 70),
+            new Local("CDG", "Franca", "Paris", 49.01, 2.55, 65),
+            new Local("ORY", "Franca", "Paris", 48.72, 2.38, 20),
+            new Local("FRA", "Alemanha", "Frankfurt", 50.03, 8.56, 50),
+            new Local("MUC", "Alemanha", "Munique", 48.35, 11.79, 30),
+            new Local("AMS", "Paises Baixos", "Amesterdao", 52.31, 4.76, 45),
+            new Local("BRU", "Belgica", "Bruxelas", 50.90, 4.48, 20),
+            new Local("ZRH", "Suica", "Zurique", 47.46, 8.55, 20),
+            new Local("GVA", "Suica", "Genebra", 46.24, 6.11, 15),
+            new Local("FCO", "Italia", "Roma", 41.80, 12.25, 35),
+            new Local("MXP", "Italia", "Milao", 45.63, 8.72, 25),
+            new Local("DUB", "Irlanda", "Dublin", 53.42, -6.27, 20),
+            new Local("CPH", "Dinamarca", "Copenhaga", 55.62, 12.66, 15),
+            new Local("IST", "Turquia", "Istambul", 41.26, 28.74, 30),
+            new Local("DXB", "Emirados Arabes Unidos", "Dubai", 25.25, 55.36, 35),
+            new Local("JFK", "Estados Unidos", "Nova Iorque", 40.64, -73.78, 45),
+            new Local("EWR", "Estados Unidos", "Newark", 40.69, -74.17, 15),
+            new Local("BOS", "Estados Unidos", "Boston", 42.36, -71.01, 12),
+            new Local("MIA", "Estados Unidos", "Miami", 25.79, -80.29, 15),
+            new Local("YYZ", "Canada", "Toronto", 43.68, -79.63, 12),
+            new Local("GRU", "Brasil", "Sao Paulo", -23.43, -46.47, 35),
+            new Local("GIG", "Brasil", "Rio de Janeiro", -22.81, -43.25, 25),
+            new Local("LAD", "Angola", "Luanda", -8.86, 13.23, 15),
+            new Local("RAI", "Cabo Verde", "Praia", 14.92, -23.49, 8),
+            new Local("MPM", "Mocambique", "Maputo", -25.92, 32.57, 8),
+            new Local("CMN", "Marrocos", "Casablanca", 33.37, -7.59, 10),
+    };
+
+    /**
+     * Modelos de avião, por ordem crescente do número de lugares.
+     */
+    private static final Modelo[] MODELOS = {
+            new Modelo("Embraer, E195", 106, 12, 3500),
+            new Modelo("Airbus, A319", 126, 18, 4000),
+            new Modelo("Airbus, A320", 156, 18, 4500),
+            new Modelo("Boeing, 737", 162, 12, 4500),
+            new Modelo("Airbus, A321", 198, 18, 7000),
+            new Modelo("Boeing, 787", 246, 30, 13000),
+            new Modelo("Airbus, A330", 264, 34, 11000),
+            new Modelo("Airbus, A350", 306, 42, 15000),
+            new Modelo("Boeing, 777", 350, 42, 13000),
+            new Modelo("Airbus, A380", 557, 58, 15000),
+    };
+
+    /**
+     * Lugares no formato AXX, pela ordem do {@link MapaLugares}, partilhados por todos os voos.
+     */
+    private static final String[] LUGARES = new String[MapaLugares.MAX_LUGARES];
+
+    static {
+        for (int i = 0; i < LUGARES.length; i++) {
+            LUGARES[i] = MapaLugares.lugar(i);
+        }
+    }
+
+    /**
+     * Gerador de números aleatórios.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Dia de partida dos primeiros voos.
+     */
+    private final LocalDate primeiroDia;
+
+    /**
+     * Número de voos por dia.
+     */
+    private final int voosPorDia;
+
+    /**
+     * Número de passageiros de cada voo, ou {@link #OCUPACAO_VARIAVEL}.
+     */
+    private final int passageirosPorVoo;
+
+    /**
+     * Aeroportos, pela ordem de {@link #LOCAIS}.
+     */
+    private final Aeroporto[] aeroportos = new Aeroporto[LOCAIS.length];
+
+    /**
+     * Número de voo (VXXX) de cada posição do horário.
+     */
+    private final String[] numerosVoo;
+
+    /**
+     * Aeroporto de origem do voo de cada número de voo.
+     */
+    private final int[] origens;
+
+    /**
+     * Aeroporto de destino do voo de cada número de voo.
+     */
+    private final int[] destinos;
+
+    /**
+     * Minuto do dia da partida do voo de cada número de voo.
+     */
+    private final int[] minutosPartida;
+
+    /**
+     * Duração, em minutos, do voo de cada número de voo.
+     */
+    private final int[] duracoes;
+
+    /**
+     * Avião do voo de cada número de voo.
+     */
+    private final Aviao[] avioes;
+
+    /**
+     * Pessoas que podem ser passageiros (apenas os dados pessoais, sem bilhete).
+     */
+    private final Passageiro[] pessoas = new Passageiro[NUM_PESSOAS];
+
+    /**
+     * Pilotos.
+     */
+    private final Tripulante[] pilotos;
+
+    /**
+     * Copilotos.
+     */
+    private final Tripulante[] copilotos;
+
+    /**
+     * Tripulantes de cabine.
+     */
+    private final Tripulante[] tripulantesCabine;
+
+    /**
+     * Ordens dos lugares de um voo, baralhadas para escolher os lugares reservados.
+     */
+    private final int[] ordens = new int[MapaLugares.MAX_LUGARES];
+
+    /**
+     * Número de voos já gerados.
+     */
+    private long numGerados;
+
+    /**
+     * Cria um gerador com {@value #VOOS_POR_DIA} voos por dia, a partir de {@link #PRIMEIRO_DIA}, com uma ocupação
+     * aleatória em cada voo.
+     *
+     * @param semente semente dos números aleatórios
+     */
+    public GeradorHorarios(long semente) {
+        this(semente, PRIMEIRO_DIA, VOOS_POR_DIA, OCUPACAO_VARIAVEL);
+    }
+
+    /**
+     * Cria um gerador.
+     *
+     * @param semente           semente dos números aleatórios
+     * @param primeiroDia       dia de partida dos primeiros voos
+     * @param voosPorDia        número de voos por dia (1 a {@value #MAX_VOOS_POR_DIA})
+     * @param passageirosPorVoo número de passageiros de cada voo, ou {@link #OCUPACAO_VARIAVEL} para uma ocupação
+     *                          aleatória; os voos usam aviões com lugares suficientes
+     * @throws IllegalArgumentException se o número de voos por dia ou de passageiros por voo for inválido
+     */
+    public GeradorHorarios(long semente, LocalDate primeiroDia, int voosPorDia, int passageirosPorVoo) {
+        if (voosPorDia < 1 || voosPorDia > MAX_VOOS_POR_DIA) {
+            throw new IllegalArgumentException("Número de voos por dia inválido: " + voosPorDia);
+        }
+        if (passageirosPorVoo < OCUPACAO_VARIAVEL || passageirosPorVoo > MODELOS[MODELOS.length - 1].lugares()) {
+            throw new IllegalArgumentException("Número de passageiros por voo inválido: " + passageirosPorVoo);
+        }
+
+        this.random = new SplittableRandom(semente);
+        this.primeiroDia = primeiroDia;
+        this.voosPorDia = voosPorDia;
+        this.passageirosPorVoo = passageirosPorVoo;
+
+        for (int i = 0; i < LOCAIS.length; i++) {
+            aeroportos[i] = new Aeroporto(LOCAIS[i].sigla(), LOCAIS[i].pais(), LOCAIS[i].cidade());
+        }
+
+        numerosVoo = new String[voosPorDia];
+        origens = new int[voosPorDia];
+        destinos = new int[voosPorDia];
+        minutosPartida = new int[voosPorDia];
+        duracoes = new int[voosPorDia];
+        avioes = new Aviao[voosPorDia];
+        criarHorario();
+
+        for (int i = 0; i < NUM_PESSOAS; i++) {
+            pessoas[i] = criarPassageiro(i + 1);
+        }
+
+        // Os tripulantes têm números de identificação a seguir aos dos passageiros
+        pilotos = criarTripulantes(voosPorDia, NUM_PESSOAS, Tripulante.Categoria.PILOTO);
+        copilotos = criarTripulantes(voosPorDia, NUM_PESSOAS + voosPorDia, Tripulante.Categoria.COPILOTO);
+        tripulantesCabine = criarTripulantes(voosPorDia * 5, NUM_PESSOAS + 2 * voosPorDia, Tripulante.Categoria.TRIPULANTE);
+    }
+
+    /**
+     * Retorna o dia de partida dos primeiros voos.
+     *
+     * @return o primeiro dia
+     */
+    public LocalDate getPrimeiroDia() {
+        return primeiroDia;
+    }
+
+    /**
+     * Retorna o número de dias ocupados por um número de voos.
+     *
+     * @param numVoos número de voos
+     * @return o número de dias
+     */
+    public long numDias(long numVoos) {
+        return (numVoos + voosPorDia - 1) / voosPorDia;
+    }
+
+    /**
+     * Gera o próximo voo do horário. Os voos são gerados pela ordem dos dias e, em cada dia, pela ordem dos números
+     * de voo.
+     *
+     * @return o voo gerado
+     */
+    public Voo proximoVoo() {
+        int numero = (int) (numGerados % voosPorDia);
+        long dia = numGerados / voosPorDia;
+        numGerados++;
+
+        Aviao aviao = avioes[numero];
+        int lugares = aviao.getNumLugaresExecutiva() + aviao.getNumLugaresTuristica();
+
+        int numPassageiros = passageirosPorVoo != OCUPACAO_VARIAVEL ? passageirosPorVoo
+                : (int) Math.round(lugares * (OCUPACAO_MINIMA + random.nextDouble() * (1 - OCUPACAO_MINIMA)));
+
+        LocalDateTime partida = primeiroDia.plusDays(dia).atStartOfDay().plusMinutes(minutosPartida[numero]);
+
+        return new Voo(numerosVoo[numero], aviao, aeroportos[origens[numero]], aeroportos[destinos[numero]],
+                partida, partida.plusMinutes(duracoes[numero]), passageiros(aviao, numPassageiros), tripulacao(lugares));
+    }
+
+    /**
+     * Gera os próximos voos em memória.
+     *
+     * @param numVoos número de voos a gerar
+     * @return os voos gerados
+     */
+    public ArrayList<Voo> gerar(int numVoos) {
+        ArrayList<Voo> voos = new ArrayList<>(numVoos);
+        for (int i = 0; i < numVoos; i++) {
+            voos.add(proximoVoo());
+        }
+        return voos;
+    }
+
+    /**
+     * Escreve os próximos voos num ficheiro no formato de texto, de forma atómica ({@link GravadorFicheiros}). Cada
+     * voo é escrito logo que é gerado, por isso só as pessoas ficam em memória.
+     *
+     * @param numVoos número de voos a gerar
+     * @param path    caminho do ficheiro
+     * @throws IOException se ocorrer um erro a escrever o ficheiro
+     */
+    public void escrever(long numVoos, Path path) throws IOException {
+        GravadorFicheiros.escreverAtomicamente(path, canal -> {
+            // O writer não é fechado para não fechar o canal antes de ser sincronizado
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8));
+            escrever(numVoos, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Escreve os próximos voos no formato de texto: o cabeçalho com todas as pessoas que podem estar nos voos, e
+     * depois cada voo, logo que é gerado.
+     *
+     * @param numVoos número de voos a gerar
+     * @param writer  destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public void escrever(long numVoos, BufferedWriter writer) throws IOException {
+        ArrayList<Tripulante> tripulantes = new ArrayList<>(pilotos.length + copilotos.length + tripulantesCabine.length);
+        tripulantes.addAll(Arrays.asList(pilotos));
+        tripulantes.addAll(Arrays.asList(copilotos));
+        tripulantes.addAll(Arrays.asList(tripulantesCabine));
+
+        File.escreverCabecalho(Arrays.asList(pessoas), tripulantes, writer);
+
+        for (long i = 0; i < numVoos; i++) {
+            File.escreverLinhaVoo(proximoVoo(), writer);
+        }
+    }
+
+    /**
+     * Gera um ficheiro de voos na pasta do programa, com os argumentos da linha de comandos
+     * ({@code --gerar <voos> <ficheiro> [semente]}).
+     *
+     * @param numVoos      número de voos a gerar
+     * @param nomeFicheiro nome do ficheiro, sem extensão
+     * @param semente      semente dos números aleatórios, ou null para usar {@value #SEMENTE}
+     * @return true se o ficheiro foi gerado
+     */
+    public static boolean gerarFicheiro(String numVoos, String nomeFicheiro, String semente) {
+        long voos;
+        long valorSemente;
+        try {
+            voos = Long.parseLong(numVoos);
+            valorSemente = semente != null ? Long.parseLong(semente) : SEMENTE;
+        } catch (NumberFormatException e) {
+            System.out.println("Número inválido: " + e.getMessage());
+            return false;
+        }
+
+        if (voos < 0) {
+            System.out.println("O número de voos não pode ser negativo.");
+            return false;
+        }
+
+        Path path = Path.of(File.PATH_PASTA, nomeFicheiro + File.EXTENSAO);
+        if (Files.exists(path)) {
+            System.out.println("O ficheiro " + path + " já existe.");
+            return false;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Files.createDirectories(path.getParent());
+            new GeradorHorarios(valorSemente).escrever(voos, path);
+        } catch (IOException e) {
+            System.out.println("Erro a gerar o ficheiro: " + e);
+            return false;
+        }
+
+        System.out.println("Voos gerados: " + voos + " (" + path + ")");
+        System.out.printf("Tempo: %.3f s%n", (System.nanoTime() - inicio) / 1e9);
+        return true;
+    }
+
+    /**
+     * Cria o horário diário: a rota, a hora de partida e o avião de cada número de voo.
+     */
+    private void criarHorario() {
+        // Rotas entre aeroportos de cidades diferentes, com a popularidade proporcional ao tráfego dos dois aeroportos
+        int numLocais = LOCAIS.length;
+        double[] popularidade = new double[numLocais * numLocais];
+        double total = 0;
+        for (int o = 0; o < numLocais; o++) {
+            for (int d = 0; d < numLocais; d++) {
+                if (distancia(LOCAIS[o], LOCAIS[d]) >= DISTANCIA_MINIMA) {
+                    total += (double) LOCAIS[o].trafego() * LOCAIS[d].trafego();
+                }
+                popularidade[o * numLocais + d] = total;
+            }
+        }
+
+        int[] modelos = new int[voosPorDia];
+        int[] voosModelo = new int[MODELOS.length];
+
+        for (int numero = 0; numero < voosPorDia; numero++) {
+            // Primeira rota com popularidade acumulada maior do que o valor sorteado
+            double valor = random.nextDouble() * total;
+            int rota = 0;
+            for (int fim = popularidade.length; rota < fim; ) {
+                int meio = (rota + fim) >>> 1;
+                if (popularidade[meio] > valor) {
+                    fim = meio;
+                } else {
+                    rota = meio + 1;
+                }
+            }
+
+            numerosVoo[numero] = String.format("V%03d", numero);
+            origens[numero] = rota / numLocais;
+            destinos[numero] = rota % numLocais;
+            minutosPartida[numero] = PRIMEIRA_PARTIDA + random.nextInt(24 * 60 - PRIMEIRA_PARTIDA);
+
+            double distancia = distancia(LOCAIS[origens[numero]], LOCAIS[destinos[numero]]);
+            duracoes[numero] = MINUTOS_SOLO + (int) Math.round(distancia / VELOCIDADE / 5) * 5;
+
+            modelos[numero] = modelo(distancia);
+            voosModelo[modelos[numero]]++;
+        }
+
+        // Cada avião faz, em média, VOOS_POR_AVIAO voos por dia
+        Aviao[][] frota = new Aviao[MODELOS.length][];
+        int numAvioes = 0;
+        for (int m = 0; m < MODELOS.length; m++) {
+            frota[m] = new Aviao[(voosModelo[m] + VOOS_POR_AVIAO - 1) / VOOS_POR_AVIAO];
+            for (int i = 0; i < frota[m].length; i++) {
+                frota[m][i] = new Aviao(registo(numAvioes++), MODELOS[m].marcaModelo(), MODELOS[m].turistica(),
+                        MODELOS[m].executiva());
+            }
+        }
+
+        Arrays.fill(voosModelo, 0);
+        for (int numero = 0; numero < voosPorDia; numero++) {
+            int modelo = modelos[numero];
+            avioes[numero] = frota[modelo][voosModelo[modelo]++ % frota[modelo].length];
+        }
+    }
+
+    /**
+     * Escolhe o modelo de avião de uma rota: um dos {@value #MODELOS_CANDIDATOS} modelos mais pequenos com alcance
+     * para a rota, ou um modelo maior se não tiver lugares para os passageiros de cada voo.
+     */
+    private int modelo(double distancia) {
+        int[] candidatos = new int[MODELOS_CANDIDATOS];
+        int numCandidatos = 0;
+        for (int m = 0; m < MODELOS.length && numCandidatos < MODELOS_CANDIDATOS; m++) {
+            if (MODELOS[m].alcance() >= distancia) candidatos[numCandidatos++] = m;
+        }
+
+        int modelo = numCandidatos == 0 ? MODELOS.length - 1 : candidatos[random.nextInt(numCandidatos)];
+        while (MODELOS[modelo].lugares() < passageirosPorVoo) modelo++;
+        return modelo;
+    }
+
+    /**
+     * Escolhe os passageiros de um voo: pessoas diferentes, com os bilhetes de cada classe proporcionais aos lugares
+     * do avião e lugares aleatórios dentro de cada classe.
+     */
+    private ArrayList<Passageiro> passageiros(Aviao aviao, int numPassageiros) {
+        int executiva = aviao.getNumLugaresExecutiva();
+        int turistica = aviao.getNumLugaresTuristica();
+
+        int numExecutiva = (int) Math.round((double) numPassageiros * executiva / (executiva + turistica));
+        numExecutiva = Math.max(numExecutiva, numPassageiros - turistica);
+
+        ArrayList<Passageiro> passageiros = new ArrayList<>(numPassageiros);
+        int pessoa = random.nextInt(NUM_PESSOAS);
+        int passo = passo(NUM_PESSOAS);
+
+        baralhar(0, executiva, numExecutiva);
+        for (int i = 0; i < numExecutiva; i++) {
+            passageiros.add(bilhete(pessoas[pessoa], Passageiro.TipoBilhete.EXECUTIVA, LUGARES[ordens[i]]));
+            pessoa = (pessoa + passo) % NUM_PESSOAS;
+        }
+
+        baralhar(executiva, executiva + turistica, numPassageiros - numExecutiva);
+        for (int i = 0; i < numPassageiros - numExecutiva; i++) {
+            passageiros.add(bilhete(pessoas[pessoa], Passageiro.TipoBilhete.TURISTICA, LUGARES[ordens[i]]));
+            pessoa = (pessoa + passo) % NUM_PESSOAS;
+        }
+
+        return passageiros;
+    }
+
+    /**
+     * Escolhe a tripulação de um voo: um piloto, um copiloto e os tripulantes de cabine necessários para os lugares
+     * do avião, todos diferentes.
+     */
+    private ArrayList<Tripulante> tripulacao(int lugares) {
+        int numCabine = Math.min((lugares + LUGARES_POR_TRIPULANTE - 1) / LUGARES_POR_TRIPULANTE, tripulantesCabine.length);
+
+        ArrayList<Tripulante> tripulacao = new ArrayList<>(2 + numCabine);
+        tripulacao.add(pilotos[random.nextInt(pilotos.length)]);
+        tripulacao.add(copilotos[random.nextInt(copilotos.length)]);
+
+        int tripulante = random.nextInt(tripulantesCabine.length);
+        int passo = passo(tripulantesCabine.length);
+        for (int i = 0; i < numCabine; i++) {
+            tripulacao.add(tripulantesCabine[tripulante]);
+            tripulante = (tripulante + passo) % tripulantesCabine.length;
+        }
+
+        return tripulacao;
+    }
+
+    /**
+     * Coloca nas primeiras posições de {@link #ordens} uma escolha aleatória de lugares diferentes, com ordem entre
+     * inicio (inclusive) e fim (exclusive).
+     */
+    private void baralhar(int inicio, int fim, int quantidade) {
+        int n = fim - inicio;
+        for (int i = 0; i < n; i++) {
+            ordens[i] = inicio + i;
+        }
+
+        for (int i = 0; i < quantidade; i++) {
+            int j = i + random.nextInt(n - i);
+            int ordem = ordens[i];
+            ordens[i] = ordens[j];
+            ordens[j] = ordem;
+        }
+    }
+
+    /**
+     * Retorna um passo aleatório, primo com o tamanho de um conjunto de pessoas, para percorrer pessoas diferentes.
+     */
+    private int passo(int tamanho) {
+        if (tamanho == 1) return 1;
+
+        int passo;
+        do {
+            passo = 1 + random.nextInt(tamanho - 1);
+        } while (mdc(passo, tamanho) != 1);
+        return passo;
+    }
+
+    /**
+     * Cria os dados pessoais de uma pessoa que pode ser passageiro.
+     */
+    private Passageiro criarPassageiro(int numIdentificacao) {
+        String nome = NOMES[random.nextInt(NOMES.length)];
+        String apelido = APELIDOS[random.nextInt(APELIDOS.length)];
+
+        Passageiro passageiro = new Passageiro();
+        passageiro.setNumIdentificacao(numIdentificacao);
+        passageiro.setNome(nome + " " + apelido);
+        passageiro.setNacionalidade(LOCAIS[random.nextInt(LOCAIS.length)].pais());
+        passageiro.setMorada("Rua " + APELIDOS[random.nextInt(APELIDOS.length)] + " " + (1 + random.nextInt(300)));
+        passageiro.setTelefone(910_000_000 + random.nextInt(90_000_000));
+        passageiro.setDataNascimento(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(80 * 365)));
+        passageiro.setEmail(nome.toLowerCase() + "." + apelido.toLowerCase() + numIdentificacao + "@exemplo.pt");
+        return passageiro;
+    }
+
+    /**
+     * Cria tripulantes de uma categoria, com números de identificação consecutivos a seguir ao indicado.
+     */
+    private Tripulante[] criarTripulantes(int quantidade, int identificacaoAnterior, Tripulante.Categoria categoria) {
+        Tripulante[] tripulantes = new Tripulante[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            int numIdentificacao = identificacaoAnterior + i + 1;
+            tripulantes[i] = new Tripulante(numIdentificacao,
+                    NOMES[random.nextInt(NOMES.length)] + " " + APELIDOS[random.nextInt(APELIDOS.length)],
+                    "Portugal", "Rua " + APELIDOS[random.nextInt(APELIDOS.length)] + " " + (1 + random.nextInt(300)),
+                    910_000_000 + random.nextInt(90_000_000), LocalDate.of(1960, 1, 1).plusDays(random.nextInt(40 * 365)),
+                    numIdentificacao, primeiroDia.plusYears(1 + random.nextInt(5)), "Sem anotacoes", categoria);
+        }
+        return tripulantes;
+    }
+
+    /**
+     * Cria o passageiro de um voo a partir dos dados pessoais de uma pessoa.
+     */
+    private static Passageiro bilhete(Passageiro pessoa, Passageiro.TipoBilhete tipoBilhete, String lugar) {
+        return new Passageiro(pessoa.getNumIdentificacao(), pessoa.getNome(), pessoa.getNacionalidade(),
+                pessoa.getMorada(), pessoa.getTelefone(), pessoa.getDataNascimento(), pessoa.getEmail(), tipoBilhete, lugar);
+    }
+
+    /**
+     * Retorna o número de registo de um avião (CS-AAA, CS-AAB, ...).
+     */
+    private static String registo(int indice) {
+        return "CS-" + (char) ('A' + indice / (26 * 26) % 26) + (char) ('A' + indice / 26 % 26) + (char) ('A' + indice % 26);
+    }
+
+    /**
+     * Retorna a distância, em km, entre dois aeroportos (fórmula de haversine).
+     */
+    private static double distancia(Local a, Local b) {
+        double latitude = Math.toRadians(b.latitude() - a.latitude());
+        double longitude = Math.toRadians(b.longitude() - a.longitude());
+        double h = Math.pow(Math.sin(latitude / 2), 2) + Math.cos(Math.toRadians(a.latitude()))
+                * Math.cos(Math.toRadians(b.latitude())) * Math.pow(Math.sin(longitude / 2), 2);
+        return 2 * 6371 * Math.asin(Math.sqrt(h));
+    }
+
+    /**
+     * Retorna o máximo divisor comum de dois números.
+     */
+    private static int mdc(int a, int b) {
+        return b == 0 ? a : mdc(b, a % b);
+    }
+}
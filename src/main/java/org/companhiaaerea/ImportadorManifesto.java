@@ -0,0 +1,238 @@
+package org.companhiaaerea;
+
+import org.companhiaaerea.utils.CodecData;
+import org.companhiaaerea.utils.LeitorRegistos;
+import org.companhiaaerea.utils.Validacao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.companhiaaerea.Main.*;
+
+/**
+ * Classe que importa os passageiros de um manifesto (ficheiro de texto) para um voo existente.
+ * <p>
+ * Cada linha do manifesto é um passageiro, com os campos separados por ";" pela mesma ordem dos registos de passageiros
+ * do diário: número de identificação, nome, nacionalidade, morada, telefone, data de nascimento (aaaa-MM-dd), email,
+ * tipo de bilhete (TURISTICA ou EXECUTIVA) e lugar. As linhas começadas por "#" são comentários.
+ * <p>
+ * A importação tem três fases:
+ * <ol>
+ *     <li>as linhas são lidas do ficheiro à medida que são processadas, guardando apenas os campos de texto;</li>
+ *     <li>cada registo é validado (formato dos campos, as mesmas regras dos outros passageiros,
+ *     {@link Validacao#motivo(Passageiro)}, e existência do lugar na classe do bilhete no avião do voo), em paralelo,
+ *     porque cada registo é independente dos outros;</li>
+ *     <li>pela ordem do manifesto, são rejeitados os passageiros repetidos e os lugares ocupados, e os restantes são
+ *     adicionados ao voo numa única alteração do repositório. Só os passageiros adicionados são registados no
+ *     {@link RegistoPessoas}.</li>
+ * </ol>
+ * O resultado indica os passageiros adicionados e o motivo de cada registo rejeitado.
+ *
+ * @author Ricardo Pereira
+ */
+public class ImportadorManifesto {
+    /**
+     * Número de campos de cada registo do manifesto.
+     */
+    static final int NUM_CAMPOS = 9;
+
+    /**
+     * Início das linhas de comentário.
+     */
+    private static final char INICIO_COMENTARIO = '#';
+
+    /**
+     * Registo rejeitado.
+     *
+     * @param numLinha número da linha do manifesto
+     * @param motivo   motivo da rejeição
+     */
+    public record Rejeicao(int numLinha, String motivo) {
+    }
+
+    /**
+     * Resultado de uma importação.
+     *
+     * @param numRegistos número de registos lidos do manifesto
+     * @param adicionados passageiros adicionados ao voo, pela ordem do manifesto
+     * @param rejeitados  registos rejeitados, pela ordem do manifesto
+     */
+    public record Relatorio(int numRegistos, List<Passageiro> adicionados, List<Rejeicao> rejeitados) {
+    }
+
+    /**
+     * Campos de texto de uma linha do manifesto.
+     *
+     * @param numLinha número da linha
+     * @param campos   campos da linha
+     */
+    private record Registo(int numLinha, List<String> campos) {
+    }
+
+    /**
+     * Resultado da validação de um registo: o passageiro, ou o motivo da rejeição.
+     *
+     * @param registo    registo validado
+     * @param passageiro passageiro lido, ou null se o registo for inválido
+     * @param motivo     motivo da rejeição, ou null se o registo for válido
+     */
+    private record RegistoValidado(Registo registo, Passageiro passageiro, String motivo) {
+    }
+
+    /**
+     * Importa os passageiros de um manifesto para um voo.
+     *
+     * @param voo  voo (do repositório) ao qual os passageiros são adicionados
+     * @param path caminho do manifesto
+     * @return o relatório da importação
+     * @throws IOException se ocorrer um erro a ler o manifesto
+     */
+    public static Relatorio importar(Voo voo, Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return importar(voo, reader);
+        }
+    }
+
+    /**
+     * Importa os passageiros de um manifesto para um voo.
+     *
+     * @param voo    voo (do repositório) ao qual os passageiros são adicionados
+     * @param reader origem do manifesto
+     * @return o relatório da importação
+     * @throws IOException se ocorrer um erro a ler o manifesto
+     */
+    public static Relatorio importar(Voo voo, Reader reader) throws IOException {
+        List<Registo> registos = ler(new LeitorRegistos(reader));
+
+        MapaLugares mapa = voo.getMapaLugares();
+        List<RegistoValidado> validacoes = registos.parallelStream().map(registo -> validar(registo, mapa)).toList();
+
+        ArrayList<Rejeicao> rejeitados = new ArrayList<>();
+        ArrayList<Passageiro> aceites = new ArrayList<>();
+        ArrayList<Integer> linhasAceites = new ArrayList<>();
+
+        // Os lugares são reservados numa cópia do mapa, para detetar lugares ocupados ou repetidos no manifesto
+        MapaLugares disponiveis = new MapaLugares(mapa);
+        HashSet<Integer> identificacoes = new HashSet<>();
+
+        for (RegistoValidado validacao : validacoes) {
+            int numLinha = validacao.registo().numLinha();
+            Passageiro passageiro = validacao.passageiro();
+
+            if (passageiro == null) {
+                rejeitados.add(new Rejeicao(numLinha, validacao.motivo()));
+            } else if (!identificacoes.add(passageiro.getNumIdentificacao())) {
+                rejeitados.add(new Rejeicao(numLinha, "passageiro " + passageiro.getNumIdentificacao() + " repetido no manifesto."));
+            } else if (procurarPassageiro(voo, passageiro.getNumIdentificacao()) != null) {
+                rejeitados.add(new Rejeicao(numLinha, "passageiro " + passageiro.getNumIdentificacao() + " já está no voo."));
+            } else if (!disponiveis.reservar(passageiro.getLugarReservado())) {
+                rejeitados.add(new Rejeicao(numLinha, "lugar " + passageiro.getLugarReservado() + " ocupado."));
+            } else {
+                aceites.add(passageiro);
+                linhasAceites.add(numLinha);
+            }
+        }
+
+        List<Passageiro> adicionados = adicionarPassageiros(voo, aceites);
+        for (Passageiro passageiro : adicionados) RegistoPessoas.registarPassageiro(passageiro);
+
+        // Lugares ou passageiros adicionados por outra alteração ao voo entretanto (os adicionados estão pela ordem
+        // dos aceites)
+        if (adicionados.size() < aceites.size()) {
+            int j = 0;
+            for (int i = 0; i < aceites.size(); i++) {
+                Passageiro passageiro = aceites.get(i);
+                if (j < adicionados.size() && adicionados.get(j) == passageiro) {
+                    j++;
+                    continue;
+                }
+
+                String motivo = voo.procurarPassageiro(passageiro.getNumIdentificacao()) != null
+                        ? "passageiro " + passageiro.getNumIdentificacao() + " já está no voo."
+                        : "lugar " + passageiro.getLugarReservado() + " ocupado.";
+                rejeitados.add(new Rejeicao(linhasAceites.get(i), motivo));
+            }
+            rejeitados.sort((a, b) -> Integer.compare(a.numLinha(), b.numLinha()));
+        }
+
+        return new Relatorio(registos.size(), adicionados, rejeitados);
+    }
+
+    /**
+     * Lê os campos de todas as linhas do manifesto, exceto os comentários.
+     */
+    private static List<Registo> ler(LeitorRegistos leitor) throws IOException {
+        ArrayList<Registo> registos = new ArrayList<>();
+
+        while (leitor.proximaLinha()) {
+            if (leitor.comecaPor(INICIO_COMENTARIO)) continue;
+
+            ArrayList<String> campos = new ArrayList<>(NUM_CAMPOS);
+            while (leitor.temCampos()) {
+                campos.add(leitor.lerString().trim());
+            }
+            registos.add(new Registo(leitor.getNumLinha(), campos));
+        }
+
+        return registos;
+    }
+
+    /**
+     * Valida os campos de um registo e cria o passageiro (sem o registar no {@link RegistoPessoas}).
+     */
+    private static RegistoValidado validar(Registo registo, MapaLugares mapa) {
+        List<String> campos = registo.campos();
+        if (campos.size() != NUM_CAMPOS) {
+            return rejeitar(registo, "número de campos inválido (" + campos.size() + ", esperados " + NUM_CAMPOS + ").");
+        }
+
+        // Campos que têm de ser convertidos antes de validar o passageiro
+        String numIdentificacao = campos.get(0);
+        if (!Validacao.Regra.NUM_IDENTIFICACAO.valida(numIdentificacao)) {
+            return rejeitar(registo, "número de identificação inválido (" + numIdentificacao + ").");
+        }
+
+        if (campos.get(1).isEmpty()) return rejeitar(registo, "nome em falta.");
+
+        String telefone = campos.get(4);
+        if (!Validacao.Regra.TELEFONE.valida(telefone)) return rejeitar(registo, "telefone inválido (" + telefone + ").");
+
+        LocalDate dataNascimento = CodecData.dataIso(campos.get(5));
+        if (dataNascimento == null) return rejeitar(registo, "data de nascimento inválida (" + campos.get(5) + ").");
+
+        Passageiro.TipoBilhete tipoBilhete;
+        try {
+            tipoBilhete = Passageiro.TipoBilhete.valueOf(campos.get(7));
+        } catch (IllegalArgumentException e) {
+            return rejeitar(registo, "tipo de bilhete inválido (" + campos.get(7) + ").");
+        }
+
+        String lugar = campos.get(8);
+        Passageiro passageiro = new Passageiro(Integer.parseInt(numIdentificacao), campos.get(1), campos.get(2),
+                campos.get(3), Integer.parseInt(telefone), dataNascimento, campos.get(6), tipoBilhete, lugar);
+
+        String motivo = Validacao.motivo(passageiro);
+        if (motivo != null) return rejeitar(registo, motivo + ".");
+
+        // O lugar tem de existir na classe do bilhete no avião deste voo
+        Passageiro.TipoBilhete classe = mapa.classe(lugar);
+        if (classe == null) return rejeitar(registo, "o lugar " + lugar + " não existe no avião.");
+        if (classe != tipoBilhete) return rejeitar(registo, "o lugar " + lugar + " não é da classe " + tipoBilhete + ".");
+
+        return new RegistoValidado(registo, passageiro, null);
+    }
+
+    /**
+     * Retorna a validação de um registo rejeitado.
+     */
+    private static RegistoValidado rejeitar(Registo registo, String motivo) {
+        return new RegistoValidado(registo, null, motivo);
+    }
+}
@@ -0,0 +1,47 @@
+package org.companhiaaerea;
+
+/**
+ * Isolamento dos registos globais ({@link RegistoPessoas} e {@link Catalogo}) na thread atual.
+ * <p>
+ * Enquanto o isolamento estiver ativo, as pessoas, os aeroportos e os aviões lidos pela thread ficam em registos só
+ * seus (o catálogo isolado começa com uma cópia do catálogo global), por isso ler um ficheiro de voos que não vai ser
+ * carregado (por exemplo, para o converter) não altera as pessoas nem o catálogo dos voos carregados. As leituras
+ * isoladas têm de ser feitas na própria thread, sem {@link org.companhiaaerea.utils.CarregadorParalelo}.
+ *
+ * <pre>{@code
+ * Isolamento isolamento = Isolamento.iniciar();
+ * try {
+ *     ... ler o ficheiro ...
+ * } finally {
+ *     isolamento.close();
+ * }
+ * }</pre>
+ *
+ * @author Ricardo Pereira
+ */
+public final class Isolamento {
+    /**
+     * Cria um isolamento. Usar {@link #iniciar()}.
+     */
+    private Isolamento() {
+    }
+
+    /**
+     * Isola os registos globais na thread atual.
+     *
+     * @return o isolamento, a fechar quando a leitura terminar
+     */
+    public static Isolamento iniciar() {
+        RegistoPessoas.iniciarIsolamento();
+        Catalogo.iniciarIsolamento();
+        return new Isolamento();
+    }
+
+    /**
+     * Termina o isolamento: a thread volta a usar os registos globais.
+     */
+    public void close() {
+        Catalogo.terminarIsolamento();
+        RegistoPessoas.terminarIsolamento();
+    }
+}
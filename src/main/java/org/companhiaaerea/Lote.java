@@ -0,0 +1,370 @@
+package org.companhiaaerea;
+
+import org.companhiaaerea.utils.Diario;
+import org.companhiaaerea.utils.FicheiroBinario;
+import org.companhiaaerea.utils.GravadorFicheiros;
+import org.companhiaaerea.utils.LeitorRegistos;
+import org.companhiaaerea.utils.Validacao;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.companhiaaerea.Main.*;
+import static org.companhiaaerea.utils.File.*;
+
+/**
+ * Modo de lote: executa comandos lidos de um ficheiro (ou da entrada padrão), sem perguntas ao utilizador.
+ * <p>
+ * Cada linha é um comando com campos separados por ";", tal como os registos do diário ({@link Diario}), por isso um
+ * diário é também um ficheiro de comandos válido. As datas usam o formato ISO-8601 (aaaa-MM-dd e aaaa-MM-ddTHH:mm).
+ * As linhas começadas por "#" são comentários.
+ * <pre>
+ * +V;voo no formato de texto versão 1     adicionar voo
+ * -V;número;partida;                       remover voo
+ * +P;número;partida;passageiro;            adicionar passageiro
+ * -P;número;partida;identificação;         remover passageiro
+ * ?D;data início;data fim;                 voos num intervalo de datas
+ * ?R;origem;destino;data partida;data chegada;  voos de uma rota
+ * ?A;sigla;data;                           partidas de um aeroporto numa data
+ * ?T;data início;data fim;                 total de passageiros
+ * ?M;data início;data fim;                 média de passageiros
+ * ?X;data início;data fim;                 voos com mais passageiros
+ * L;nome;                                  ler ficheiro de voos
+ * G;nome;[TEXTO|BINARIO;]                  guardar ficheiro de voos
+ * </pre>
+ * O comando G sem formato mantém o formato do ficheiro existente (ou texto, se o ficheiro não existir).
+ * <p>
+ * A saída é escrita num buffer e enviada de uma vez no fim (ou quando o buffer enche). No fim é apresentado um resumo
+ * com o número de comandos executados e o débito.
+ *
+ * @author Ricardo Pereira
+ */
+public class Lote {
+    /**
+     * Argumento da linha de comandos que ativa o modo de lote.
+     */
+    public static final String ARGUMENTO = "--lote";
+
+    /**
+     * Nome que indica a entrada padrão em vez de um ficheiro.
+     */
+    public static final String ENTRADA_PADRAO = "-";
+
+    /**
+     * Tamanho do buffer da saída, em bytes.
+     */
+    private static final int TAMANHO_BUFFER_SAIDA = 64 * 1024;
+
+    /**
+     * Início das linhas de comentário.
+     */
+    private static final char INICIO_COMENTARIO = '#';
+
+    /**
+     * Comando: pesquisar voos num intervalo de datas.
+     */
+    private static final String PESQUISAR_DATAS = "?D";
+
+    /**
+     * Comando: pesquisar voos de uma rota.
+     */
+    private static final String PESQUISAR_ROTA = "?R";
+
+    /**
+     * Comando: pesquisar partidas de um aeroporto numa data.
+     */
+    private static final String PESQUISAR_PARTIDAS = "?A";
+
+    /**
+     * Comando: total de passageiros num intervalo de datas.
+     */
+    private static final String TOTAL_PASSAGEIROS = "?T";
+
+    /**
+     * Comando: média de passageiros num intervalo de datas.
+     */
+    private static final String MEDIA_PASSAGEIROS = "?M";
+
+    /**
+     * Comando: voos com mais passageiros num intervalo de datas.
+     */
+    private static final String MAIS_PASSAGEIROS = "?X";
+
+    /**
+     * Comando: ler um ficheiro de voos.
+     */
+    private static final String LER_FICHEIRO = "L";
+
+    /**
+     * Comando: guardar um ficheiro de voos.
+     */
+    private static final String GUARDAR_FICHEIRO = "G";
+
+    /**
+     * Número de comandos executados com sucesso.
+     */
+    private int executados;
+
+    /**
+     * Número de comandos inválidos ou que falharam.
+     */
+    private int erros;
+
+    /**
+     * Executa os comandos de um ficheiro, ou da entrada padrão se o nome for {@value #ENTRADA_PADRAO}, e apresenta
+     * o resumo no fim.
+     *
+     * @param nome caminho do ficheiro de comandos, ou {@value #ENTRADA_PADRAO}
+     * @return true se todos os comandos foram executados com sucesso
+     */
+    public static boolean executar(String nome) {
+        PrintStream saidaOriginal = System.out;
+        PrintStream saida = new PrintStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out), TAMANHO_BUFFER_SAIDA), false, StandardCharsets.UTF_8);
+        System.setOut(saida);
+
+        Lote lote = new Lote();
+        long inicio = System.nanoTime();
+
+        try (Reader reader = nome.equals(ENTRADA_PADRAO)
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(nome), StandardCharsets.UTF_8)) {
+            lote.executar(new LeitorRegistos(reader));
+        } catch (IOException e) {
+            System.out.println("Erro a ler os comandos: " + e);
+            lote.erros++;
+        }
+
+        // Espera pelas gravações agendadas, para que o tempo inclua a escrita dos ficheiros
+        GravadorFicheiros.aguardar();
+        lote.apresentarResumo(System.nanoTime() - inicio);
+
+        saida.flush();
+        System.setOut(saidaOriginal);
+
+        return lote.erros == 0;
+    }
+
+    /**
+     * Executa todos os comandos de um leitor. Um comando inválido é reportado e os seguintes continuam a ser executados.
+     */
+    private void executar(LeitorRegistos leitor) throws IOException {
+        while (leitor.proximaLinha()) {
+            if (leitor.comecaPor(INICIO_COMENTARIO)) continue;
+
+            try {
+                if (executarComando(leitor)) {
+                    executados++;
+                } else {
+                    erros++;
+                }
+            } catch (IOException e) {
+                // As mensagens do leitor já indicam a linha
+                System.out.println(e.getMessage());
+                erros++;
+            } catch (RuntimeException e) {
+                System.out.println("Linha " + leitor.getNumLinha() + ": " + e);
+                erros++;
+            }
+        }
+    }
+
+    /**
+     * Executa o comando da linha atual do leitor.
+     *
+     * @return true se o comando foi executado com sucesso, false se falhou
+     */
+    private boolean executarComando(LeitorRegistos leitor) throws IOException {
+        if (leitor.consumirSe(Diario.ADICIONAR_VOO)) {
+            Voo voo = lerVoo(leitor);
+
+            String motivo = Validacao.motivo(voo);
+            if (motivo != null) return falhou(leitor, motivo + ".");
+            if (registarVoo(voo)) return true;
+
+            return falhou(leitor, "voo " + voo.getNumVoo() + " já registado nessa data.");
+        }
+
+        if (leitor.consumirSe(Diario.REMOVER_VOO)) {
+            Voo voo = procurarVoo(leitor);
+            if (voo == null || !eliminarVoo(voo)) return falhou(leitor, "voo não encontrado.");
+            return true;
+        }
+
+        if (leitor.consumirSe(Diario.ADICIONAR_PASSAGEIRO)) {
+            Voo voo = procurarVoo(leitor);
+            Passageiro passageiro = lerPassageiro(leitor);
+            if (voo == null) return falhou(leitor, "voo não encontrado.");
+
+            String motivo = Validacao.motivo(passageiro);
+            if (motivo != null) return falhou(leitor, motivo + ".");
+
+            return registarPassageiros(voo, List.of(passageiro)) == 1;
+        }
+
+        if (leitor.consumirSe(Diario.REMOVER_PASSAGEIRO)) {
+            Voo voo = procurarVoo(leitor);
+            int numIdentificacao = leitor.lerInt();
+            if (voo == null) return falhou(leitor, "voo não encontrado.");
+
+            Passageiro passageiro = procurarPassageiro(voo, numIdentificacao);
+            if (passageiro == null || !eliminarPassageiro(voo, passageiro)) {
+                return falhou(leitor, "passageiro " + numIdentificacao + " não está no voo.");
+            }
+            return true;
+        }
+
+        if (leitor.consumirSe(PESQUISAR_DATAS)) {
+            LocalDate dataInicio = leitor.lerData();
+            LocalDate dataFim = leitor.lerData();
+            apresentarVoos(repositorio.consultar(() -> linhaTemporal.voosEntre(dataInicio, dataFim)));
+            return true;
+        }
+
+        if (leitor.consumirSe(PESQUISAR_ROTA)) {
+            String origem = leitor.lerString().toUpperCase();
+            String destino = leitor.lerString().toUpperCase();
+            LocalDate dataPartida = leitor.lerData();
+            LocalDate dataChegada = leitor.lerData();
+            apresentarVoos(repositorio.consultar(() -> indiceRotas.voosRota(origem, destino, dataPartida, dataChegada)));
+            return true;
+        }
+
+        if (leitor.consumirSe(PESQUISAR_PARTIDAS)) {
+            String sigla = leitor.lerString().toUpperCase();
+            LocalDate data = leitor.lerData();
+            apresentarVoos(repositorio.consultar(() -> indiceRotas.partidas(sigla, data)));
+            return true;
+        }
+
+        if (leitor.consumirSe(TOTAL_PASSAGEIROS)) {
+            LocalDate dataInicio = leitor.lerData();
+            LocalDate dataFim = leitor.lerData();
+            System.out.println("Total de passageiros: "
+                    + repositorio.consultar(() -> estatisticasDiarias.totalPassageiros(dataInicio, dataFim)));
+            return true;
+        }
+
+        if (leitor.consumirSe(MEDIA_PASSAGEIROS)) {
+            LocalDate dataInicio = leitor.lerData();
+            LocalDate dataFim = leitor.lerData();
+            double media = repositorio.consultar(() -> estatisticasDiarias.mediaPassageiros(dataInicio, dataFim));
+            System.out.println("Média de passageiros: "
+                    + (Double.isNaN(media) ? "sem voos" : String.format("%.2f", media)));
+            return true;
+        }
+
+        if (leitor.consumirSe(MAIS_PASSAGEIROS)) {
+            LocalDate dataInicio = leitor.lerData();
+            LocalDate dataFim = leitor.lerData();
+            apresentarVoos(repositorio.consultar(
+                    () -> maximosDiarios.maisPassageiros(dataInicio, dataFim, NUM_VOOS_MAIS_PASSAGEIROS)));
+            return true;
+        }
+
+        if (leitor.consumirSe(LER_FICHEIRO)) {
+            String nomeFicheiro = leitor.lerString() + EXTENSAO;
+
+            // O ficheiro pode ter sido guardado por um comando anterior e ainda estar a ser gravado
+            GravadorFicheiros.aguardar();
+            if (!Files.exists(Path.of(PATH_PASTA, nomeFicheiro))) return falhou(leitor, "ficheiro não existe.");
+
+            carregarFicheiro(nomeFicheiro, repositorio);
+            System.out.println("Voos lidos: " + repositorio.tamanho());
+            return true;
+        }
+
+        if (leitor.consumirSe(GUARDAR_FICHEIRO)) {
+            String nomeFicheiro = leitor.lerString();
+            Path path = Path.of(PATH_PASTA, nomeFicheiro + EXTENSAO);
+
+            boolean binario;
+            if (leitor.consumirSe("BINARIO")) {
+                binario = true;
+            } else if (leitor.consumirSe("TEXTO")) {
+                binario = false;
+            } else if (!leitor.temCampos()) {
+                // Sem formato, mantém o formato do ficheiro existente, que pode ainda estar a ser gravado
+                GravadorFicheiros.aguardar();
+                binario = Files.exists(path) && FicheiroBinario.isBinario(path);
+            } else {
+                return falhou(leitor, "formato inválido (TEXTO ou BINARIO).");
+            }
+
+            Files.createDirectories(path.getParent());
+
+            // O ficheiro passa a incluir as alterações do diário existente, tal como ao guardar no menu
+            repositorio.consultar(() -> {
+                Diario.guardarFicheiro(nomeFicheiro, repositorio.voos(), binario);
+                return null;
+            });
+            return true;
+        }
+
+        return falhou(leitor, "comando desconhecido.");
+    }
+
+    /**
+     * Procura o voo identificado pelos próximos campos (número de voo e data e hora de partida).
+     */
+    private static Voo procurarVoo(LeitorRegistos leitor) throws IOException {
+        return Main.procurarVoo(leitor.lerString(), leitor.lerDataHora());
+    }
+
+    /**
+     * Apresenta uma lista de voos, um por linha, seguida do número de voos.
+     */
+    private static void apresentarVoos(List<Voo> voos) {
+        for (Voo voo : voos) {
+            System.out.println(resumoVoo(voo));
+        }
+        System.out.println("Voos encontrados: " + voos.size());
+    }
+
+    /**
+     * Retorna o resumo de um voo numa linha: número, partida, chegada, origem, destino e número de passageiros,
+     * separados por ";".
+     *
+     * @param voo voo
+     * @return o resumo do voo
+     */
+    static String resumoVoo(Voo voo) {
+        return voo.getNumVoo() + ";" + voo.getDataHoraPartida() + ";" + voo.getDataHoraChegada() + ";"
+                + voo.getAeroportoOrigem().getSigla() + ";" + voo.getAeroportoDestino().getSigla() + ";"
+                + voo.getPassageiros().size() + ";";
+    }
+
+    /**
+     * Reporta um comando que falhou.
+     *
+     * @return sempre false
+     */
+    private static boolean falhou(LeitorRegistos leitor, String mensagem) {
+        System.out.println("Linha " + leitor.getNumLinha() + ": " + mensagem);
+        return false;
+    }
+
+    /**
+     * Apresenta o número de comandos executados, o tempo total e o débito.
+     */
+    private void apresentarResumo(long nanos) {
+        int total = executados + erros;
+        double segundos = nanos / 1e9;
+
+        System.out.println("------------------------------------------------------------------------------");
+        System.out.println("Comandos executados: " + executados + " (erros: " + erros + ")");
+        System.out.println("Tempo: " + String.format("%.3f", segundos) + " s");
+        System.out.println("Débito: " + String.format("%.0f", segundos > 0 ? total / segundos : 0) + " comandos/s");
+        System.out.println("Voos em memória: " + repositorio.tamanho());
+    }
+}
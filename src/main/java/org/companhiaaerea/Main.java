@@ -1,16 +1,37 @@
 /**
  * Classe principal do programa, que contém o menu principal e as ações correspondentes.
- * Possui também uma lista de objetos do tipo Voo, usada para armazenar os voos em memória.
+ * Possui também o repositório dos voos em memória.
  */
 
 package org.companhiaaerea;
 
+import org.companhiaaerea.analise.Analise;
+import org.companhiaaerea.analise.Resumo;
+import org.companhiaaerea.indices.ColunasVoos;
+import org.companhiaaerea.indices.EstatisticasDiarias;
+import org.companhiaaerea.indices.Indice;
+import org.companhiaaerea.indices.IndicePassageiros;
+import org.companhiaaerea.indices.IndiceRotas;
+import org.companhiaaerea.indices.LinhaTemporal;
+import org.companhiaaerea.indices.MaximosDiarios;
+import org.companhiaaerea.repositorio.RepositorioVoos;
+import org.companhiaaerea.repositorio.RepositorioVoosConcorrente;
 import org.companhiaaerea.utils.Data;
+import org.companhiaaerea.utils.Diario;
+import org.companhiaaerea.utils.GravadorFicheiros;
+import org.companhiaaerea.utils.Validacao;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 import static org.companhiaaerea.utils.Console.*;
 import static org.companhiaaerea.utils.Data.lerData;
@@ -18,7 +39,7 @@ import static org.companhiaaerea.utils.File.*;
 
 /**
  * Classe principal do programa, que contém o menu principal e as ações correspondentes.
- * Possui também uma lista de objetos do tipo Voo, usada para armazenar os voos em memória.
+ * Possui também o repositório dos voos em memória ({@link RepositorioVoos}).
  *
  * @author Francisco Silva
  * @author Bruno Silva
@@ -26,9 +47,84 @@ import static org.companhiaaerea.utils.File.*;
  */
 public class Main {
     /**
-     * Lista de voos adicionados.
+     * Índice temporal dos voos, usado nas pesquisas por datas.
      */
-    public static ArrayList<Voo> voos = new ArrayList<>();
+    static final LinhaTemporal linhaTemporal = new LinhaTemporal();
+
+    /**
+     * Índice dos voos por rota e por aeroporto de origem, usado nas pesquisas por rota.
+     */
+    static final IndiceRotas indiceRotas = new IndiceRotas();
+
+    /**
+     * Índice das reservas dos passageiros, por número de identificação e por nome.
+     */
+    static final IndicePassageiros indicePassageiros = new IndicePassageiros();
+
+    /**
+     * Contagens de voos e passageiros por dia, usadas nos totais e médias por intervalo de datas.
+     */
+    static final EstatisticasDiarias estatisticasDiarias = new EstatisticasDiarias(linhaTemporal);
+
+    /**
+     * Maior número de passageiros por dia de partida, usado nas pesquisas dos voos com mais passageiros.
+     */
+    static final MaximosDiarios maximosDiarios = new MaximosDiarios();
+
+    /**
+     * Dados dos voos em colunas de tipos primitivos, usados nas estatísticas de ocupação.
+     */
+    static final ColunasVoos colunasVoos = new ColunasVoos();
+
+    /**
+     * Número de voos apresentados na pesquisa dos voos com mais passageiros.
+     */
+    static final int NUM_VOOS_MAIS_PASSAGEIROS = 10;
+
+    /**
+     * Índices secundários, avisados pelo repositório sempre que um voo ou um passageiro é adicionado ou removido.
+     */
+    static final List<Indice> indices = List.of(linhaTemporal, indiceRotas, indicePassageiros, estatisticasDiarias, maximosDiarios,
+            colunasVoos);
+
+    /**
+     * Registo das alterações do repositório no diário atual. O repositório regista cada alteração durante a própria
+     * alteração, por isso o diário tem as alterações de cada voo pela ordem em que foram feitas.
+     */
+    static final RepositorioVoos.RegistoAlteracoes registoDiario = new RepositorioVoos.RegistoAlteracoes() {
+        @Override
+        public void vooAdicionado(Voo voo) {
+            registarNoDiario(d -> d.registarAdicaoVoo(voo));
+        }
+
+        @Override
+        public void vooRemovido(Voo voo) {
+            registarNoDiario(d -> d.registarRemocaoVoo(voo));
+        }
+
+        @Override
+        public void passageiroAdicionado(Voo voo, Passageiro passageiro) {
+            registarNoDiario(d -> d.registarAdicaoPassageiro(voo, passageiro));
+        }
+
+        @Override
+        public void passageiroRemovido(Voo voo, Passageiro passageiro) {
+            registarNoDiario(d -> d.registarRemocaoPassageiro(voo, passageiro));
+        }
+    };
+
+    /**
+     * Voos em memória. Todas as alterações aos voos passam pelo repositório, que mantém os índices atualizados e as
+     * regista no diário, e as consultas aos índices são feitas com {@link RepositorioVoos#consultar}.
+     */
+    static final RepositorioVoos repositorio = new RepositorioVoosConcorrente(indices, registoDiario);
+
+    /**
+     * Diário do ficheiro de voos atual, onde são registadas as alterações feitas à lista de voos.
+     * É null enquanto a lista não tiver sido guardada num ficheiro nem lida de um ficheiro. Só é aberto e fechado
+     * durante uma consulta ao repositório, por isso nunca muda enquanto uma alteração está a ser registada.
+     */
+    static volatile Diario diario;
 
     /**
      * Método principal do programa. Exibe um menu com as seguintes opções:
@@ -40,15 +136,42 @@ public class Main {
      * 6 — Alterar lista de passageiros de um voo
      * 7 — Apresentar média de passageiros de voos num intervalo de datas
      * 8 — Total de passageiros num intervalo de datas
+     * 12 — Estatísticas de ocupação num intervalo de datas
+     * 13 — Análise de passageiros por aeroporto ou data
      * 9 — Guardar informação num ficheiro
      * 10 — Ler informação de um ficheiro
+     * 11 — Converter um ficheiro entre o formato de texto e o formato binário
      * 0 — Sair do programa
+     * <p>
+     * Com os argumentos {@code --lote <ficheiro>} (ou {@code --lote -} para a entrada padrão), executa os comandos do
+     * ficheiro sem menu ({@link Lote}) e termina. Com os argumentos {@code --http <porta> [ficheiro]}, inicia o
+     * servidor HTTP ({@link ServidorHttp}) em vez do menu. Com os argumentos {@code --gerar <voos> <ficheiro> [semente]},
+     * gera um ficheiro de voos sintéticos na pasta do programa ({@link GeradorHorarios}) e termina.
      *
-     * @param args Argumentos passados para o programa (não utilizado)
+     * @param args Argumentos passados para o programa
      */
     public static void main(String[] args) {
         int i;
 
+        Catalogo.carregar();
+
+        if (args.length == 2 && args[0].equals(Lote.ARGUMENTO)) {
+            boolean sucesso = Lote.executar(args[1]);
+            Catalogo.guardarSeAlterado();
+            System.exit(sucesso ? 0 : 1);
+        }
+
+        if ((args.length == 3 || args.length == 4) && args[0].equals(GeradorHorarios.ARGUMENTO)) {
+            boolean sucesso = GeradorHorarios.gerarFicheiro(args[1], args[2], args.length == 4 ? args[3] : null);
+            System.exit(sucesso ? 0 : 1);
+        }
+
+        if ((args.length == 2 || args.length == 3) && args[0].equals(ServidorHttp.ARGUMENTO)) {
+            // O programa continua a correr enquanto o servidor estiver ativo
+            if (!ServidorHttp.iniciar(args[1], args.length == 3 ? args[2] : null)) System.exit(1);
+            return;
+        }
+
         while (true) {
             System.out.println("------------------------------- Menu Principal -------------------------------");
             System.out.println("1\tAdicionar voo.");
@@ -62,6 +185,10 @@ public class Main {
             System.out.println("------------------------------- Guardar / Ler --------------------------------");
             System.out.println("9\tGuardar informação num ficheiro.");
             System.out.println("10\tLer informação de um ficheiro.");
+            System.out.println("11\tConverter ficheiro (texto / binário).");
+            System.out.println("-------------------------------- Estatísticas --------------------------------");
+            System.out.println("12\tEstatísticas de ocupação num intervalo de datas.");
+            System.out.println("13\tAnálise de passageiros por aeroporto ou data.");
             System.out.println("------------------------------------------------------------------------------");
             System.out.println(TEXTO_VERMELHO + "0\tSair." + RESET_COR_TEXTO);
             System.out.println("------------------------------------------------------------------------------");
@@ -77,37 +204,41 @@ public class Main {
                 case 6 -> alterarPassageirosVoo();
                 case 7 -> mediaPassageiros();
                 case 8 -> totalPassageiros();
-                case 9 -> guardarEmFicheiro(voos);
-                case 10 -> {
-                    // Encontra pasta
-                    File pasta = new File(PATH_PASTA);
-                    File[] listaFicheiros = pasta.listFiles();
-
-                    // Retorna se a pasta não conter ficheiros
-                    if (listaFicheiros == null || listaFicheiros.length == 0) {
-                        System.out.println("Não existem ficheiros.");
-                        break;
-                    }
-
-                    // Mostra todos os ficheiros numerados para selecionar
-                    int cont = 1;
-                    for (File ficheiro : listaFicheiros) {
-                        if (ficheiro.isFile()) {
-                            System.out.println(cont + " - " + ficheiro.getName());
-                            cont++;
-                        }
+                case 9 -> {
+                    // O diário atual é fechado porque o ficheiro guardado passa a incluir as suas alterações
+                    String nomeAtual = diario != null ? diario.getNomeFicheiro() : null;
+                    fecharDiario();
+
+                    String nomeFicheiro = guardarEmFicheiro(repositorio);
+                    if (nomeFicheiro != null) {
+                        abrirDiario(nomeFicheiro);
+                    } else if (nomeAtual != null) {
+                        abrirDiario(nomeAtual);
                     }
+                }
+                case 10 -> {
+                    String nomeFicheiro = selecionarFicheiro();
+                    if (nomeFicheiro == null) break;
 
-                    int numFicheiro = lerInt("Insira o número do ficheiro: ", "Insira um número válido.");
-
-                    File ficheiroSelecionado = listaFicheiros[numFicheiro - 1];
-                    String nomeFicheiro = ficheiroSelecionado.getName();
-
-                    voos = readVooListFromFile(nomeFicheiro);
+                    carregarFicheiro(nomeFicheiro, repositorio);
+                    abrirDiario(nomeSemExtensao(nomeFicheiro));
+                    Catalogo.guardarSeAlterado();
                     System.out.println("Voos lidos com sucesso.");
                 }
+                case 11 -> {
+                    String nomeFicheiro = selecionarFicheiro();
+                    if (nomeFicheiro == null) break;
+
+                    String nomeConvertido = lerString("Insira o nome do ficheiro convertido: ");
+                    converterFicheiro(nomeFicheiro, nomeConvertido);
+                }
+                case 12 -> estatisticasOcupacao();
+                case 13 -> analisarPassageiros();
                 case 0 -> {
-                    if (voos.isEmpty()) System.exit(0); // Termina o programa
+                    // As alterações já estão guardadas no diário, se existir
+                    if (repositorio.isVazio() || diario != null) {
+                        terminar();
+                    }
 
                     String res = lerString(
                             "Pode ter informação por guardar. Deseja guardar num ficheiro? (y/n): ",
@@ -117,11 +248,10 @@ public class Main {
 
                     // Verifica se a resposta é y (yes/sim)
                     if (res.equalsIgnoreCase("y")) {
-                        guardarEmFicheiro(voos);
-                        return;
+                        guardarEmFicheiro(repositorio);
                     }
 
-                    System.exit(0);
+                    terminar();
                 }
 
                 default -> System.out.println("Opção inválida.");
@@ -129,13 +259,274 @@ public class Main {
         }
     }
 
+    /**
+     * Mostra os ficheiros de voos existentes na pasta do programa, numerados, e pede ao utilizador que selecione um.
+     *
+     * @return o nome do ficheiro selecionado, ou null se não existirem ficheiros
+     */
+    static String selecionarFicheiro() {
+        // Encontra pasta
+        File pasta = new File(PATH_PASTA);
+        File[] listaFicheiros = pasta.listFiles(ficheiro -> ficheiro.isFile() && ficheiro.getName().endsWith(EXTENSAO));
+
+        // Retorna se a pasta não conter ficheiros
+        if (listaFicheiros == null || listaFicheiros.length == 0) {
+            System.out.println("Não existem ficheiros.");
+            return null;
+        }
+
+        // Mostra todos os ficheiros numerados para selecionar
+        int cont = 1;
+        for (File ficheiro : listaFicheiros) {
+            System.out.println(cont + " - " + ficheiro.getName());
+            cont++;
+        }
+
+        int numFicheiro;
+        do {
+            numFicheiro = lerInt("Insira o número do ficheiro: ", "Insira um número válido.");
+        } while (numFicheiro < 1 || numFicheiro > listaFicheiros.length);
+
+        return listaFicheiros[numFicheiro - 1].getName();
+    }
+
+    /**
+     * Espera que as gravações em segundo plano terminem, fecha o diário e termina o programa.
+     */
+    static void terminar() {
+        GravadorFicheiros.aguardar();
+        fecharDiario();
+        Catalogo.guardarSeAlterado();
+        System.exit(0); // Termina o programa
+    }
+
+    /**
+     * Fecha o diário atual (se existir) e abre o diário do ficheiro de voos indicado.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     */
+    static void abrirDiario(String nomeFicheiro) {
+        fecharDiario();
+
+        repositorio.consultar(() -> {
+            try {
+                diario = Diario.abrir(nomeFicheiro);
+            } catch (IOException e) {
+                System.out.println("Erro a abrir o diário: " + e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Fecha o diário atual, se existir.
+     */
+    static void fecharDiario() {
+        if (diario == null) return;
+
+        repositorio.consultar(() -> {
+            Diario atual = diario;
+            if (atual == null) return null;
+
+            diario = null;
+            try {
+                atual.fechar();
+            } catch (IOException e) {
+                System.out.println("Erro a fechar o diário: " + e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Regista uma alteração no diário atual, se existir. É chamado pelo repositório durante a alteração
+     * ({@link #registoDiario}), que não deixa consultas correr ao mesmo tempo, por isso o diário não é fechado nem
+     * compactado durante o registo. Alterações a voos diferentes podem ser registadas ao mesmo tempo.
+     *
+     * @param alteracao alteração a registar
+     */
+    static void registarNoDiario(Diario.Alteracao alteracao) {
+        Diario atual = diario;
+        if (atual == null) return;
+
+        try {
+            alteracao.registar(atual);
+        } catch (IOException e) {
+            System.out.println("Erro a registar a alteração no diário: " + e);
+        }
+    }
+
+    /**
+     * Compacta o diário atual se este tiver ultrapassado o tamanho limite. É chamado depois de cada alteração, fora da
+     * alteração, porque a cópia dos voos a gravar é feita numa consulta ao repositório, sem alterações em curso.
+     */
+    static synchronized void compactarDiario() {
+        try {
+            Diario atual = diario;
+            if (atual == null || !atual.precisaCompactar()) return;
+
+            repositorio.consultar(() -> {
+                // Volta a verificar, porque o diário pode ter sido fechado entretanto
+                if (diario == atual) atual.compactar(repositorio.voos());
+                return null;
+            });
+        } catch (IOException e) {
+            System.out.println("Erro a compactar o diário: " + e);
+        }
+    }
+
+    /**
+     * Adiciona um voo ao repositório.
+     *
+     * @param voo voo a adicionar
+     * @return true se o voo foi adicionado, false se já existir um voo com o mesmo número e data de partida
+     */
+    static boolean registarVoo(Voo voo) {
+        if (!repositorio.adicionar(voo)) return false;
+
+        compactarDiario();
+        return true;
+    }
+
+    /**
+     * Remove um voo do repositório.
+     *
+     * @param voo voo a remover
+     * @return true se o voo foi removido, false se já não estava no repositório
+     */
+    static boolean eliminarVoo(Voo voo) {
+        if (!repositorio.remover(voo)) return false;
+
+        compactarDiario();
+        return true;
+    }
+
+    /**
+     * Adiciona passageiros a um voo numa única alteração do repositório, reservando os seus lugares. Os passageiros
+     * cujo lugar não esteja livre na classe do bilhete, ou cujo número de identificação já esteja no voo, não são
+     * adicionados.
+     *
+     * @param voo         voo a alterar
+     * @param passageiros passageiros a adicionar
+     * @return o número de passageiros adicionados
+     */
+    static int registarPassageiros(Voo voo, List<Passageiro> passageiros) {
+        List<Passageiro> adicionados = adicionarPassageiros(voo, passageiros);
+
+        // Os passageiros adicionados estão pela mesma ordem da lista
+        int i = 0;
+        for (Passageiro passageiro : passageiros) {
+            if (i < adicionados.size() && adicionados.get(i) == passageiro) {
+                i++;
+                continue;
+            }
+
+            System.out.println(motivoNaoAdicionado(voo, passageiro) + ": passageiro " + passageiro.getNome()
+                    + " não adicionado.");
+        }
+
+        return adicionados.size();
+    }
+
+    /**
+     * Retorna o motivo por que um passageiro não foi adicionado a um voo.
+     *
+     * @param voo        voo
+     * @param passageiro passageiro não adicionado
+     * @return o motivo, sem ponto final
+     */
+    static String motivoNaoAdicionado(Voo voo, Passageiro passageiro) {
+        Passageiro existente = voo.procurarPassageiro(passageiro.getNumIdentificacao());
+        if (existente != null && existente != passageiro) {
+            return "O passageiro " + passageiro.getNumIdentificacao() + " já está no voo";
+        }
+
+        return "O lugar " + passageiro.getLugarReservado() + " não está livre na classe " + passageiro.getTipoBilhete();
+    }
+
+    /**
+     * Adiciona passageiros a um voo numa única alteração do repositório, sem avisar o utilizador dos passageiros que
+     * não foram adicionados.
+     *
+     * @param voo         voo a alterar
+     * @param passageiros passageiros a adicionar
+     * @return os passageiros adicionados, pela ordem da lista
+     */
+    static List<Passageiro> adicionarPassageiros(Voo voo, List<Passageiro> passageiros) {
+        List<Passageiro> adicionados = repositorio.adicionarPassageiros(voo, passageiros);
+
+        if (!adicionados.isEmpty()) compactarDiario();
+        return adicionados;
+    }
+
+    /**
+     * Adiciona um passageiro a um voo, reservando o seu lugar.
+     *
+     * @param voo        voo a alterar
+     * @param passageiro passageiro a adicionar
+     * @return true se o passageiro foi adicionado, false se o lugar não estiver livre na classe do bilhete ou se o
+     * número de identificação já estiver no voo
+     */
+    static boolean registarPassageiro(Voo voo, Passageiro passageiro) {
+        if (!repositorio.adicionarPassageiro(voo, passageiro)) return false;
+
+        compactarDiario();
+        return true;
+    }
+
+    /**
+     * Remove um passageiro de um voo.
+     *
+     * @param voo        voo a alterar
+     * @param passageiro passageiro a remover
+     * @return true se o passageiro foi removido, false se já não estava no voo
+     */
+    static boolean eliminarPassageiro(Voo voo, Passageiro passageiro) {
+        if (!repositorio.removerPassageiro(voo, passageiro)) return false;
+
+        compactarDiario();
+        return true;
+    }
+
+    /**
+     * Procura um voo pelo número de voo e pela data e hora de partida.
+     *
+     * @param numVoo          número do voo
+     * @param dataHoraPartida data e hora de partida
+     * @return o voo, ou null se não existir
+     */
+    static Voo procurarVoo(String numVoo, LocalDateTime dataHoraPartida) {
+        Voo voo = repositorio.procurar(numVoo, dataHoraPartida.toLocalDate());
+        return voo != null && voo.getDataHoraPartida().equals(dataHoraPartida) ? voo : null;
+    }
+
+    /**
+     * Procura um passageiro de um voo pelo número de identificação.
+     *
+     * @param voo              voo
+     * @param numIdentificacao número de identificação do passageiro
+     * @return o passageiro, ou null se não estiver no voo
+     */
+    static Passageiro procurarPassageiro(Voo voo, int numIdentificacao) {
+        return repositorio.consultar(() -> {
+            for (IndicePassageiros.Reserva reserva : indicePassageiros.reservas(numIdentificacao)) {
+                if (reserva.voo() == voo) return reserva.passageiro();
+            }
+            return null;
+        });
+    }
+
     /**
      * Adiciona um voo a lista de voos
      */
     static void adicionarVoo() {
         Voo novoVoo = Voo.ler();
 
-        voos.add(novoVoo);
+        if (!registarVoo(novoVoo)) {
+            System.out.println("Número de voo já registado nessa data.");
+            return;
+        }
+        Catalogo.guardarSeAlterado();
 
         System.out.println("Voo adicionado com sucesso.");
     }
@@ -146,7 +537,7 @@ public class Main {
     static void submenuPesquisar() {
         clearConsole();
 
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("Não existem voos para pesquisar.");
             return;
         }
@@ -154,6 +545,10 @@ public class Main {
         System.out.println("----------------- Pesquisar -----------------");
         System.out.println("1. Pesquisar por intervalo de data e rota.");
         System.out.println("2. Pesquisar por intervalo de datas.");
+        System.out.println("3. Pesquisar partidas de um aeroporto numa data.");
+        System.out.println("4. Pesquisar voos de um passageiro.");
+        System.out.println("5. Pesquisar os " + NUM_VOOS_MAIS_PASSAGEIROS + " voos com mais passageiros num intervalo de datas.");
+        System.out.println("6. Pesquisar lugares livres de um voo.");
         System.out.println("0. Voltar atrás.");
         System.out.println("---------------------------------------------");
         System.out.print("Opção: ");
@@ -165,6 +560,10 @@ public class Main {
         switch (i) {
             case 1 -> pesquisarVooDataRota();
             case 2 -> pesquisarVoosData();
+            case 3 -> pesquisarPartidasAeroporto();
+            case 4 -> pesquisarVoosPassageiro();
+            case 5 -> pesquisarVoosMaisPassageirosData();
+            case 6 -> pesquisarLugaresLivres();
             case 0 -> {
             } // volta
             default -> {
@@ -180,59 +579,100 @@ public class Main {
      * Os voos que corresponderem às informações inseridas serão adicionados a uma lista auxiliar e exibidos no terminal.
      */
     static void pesquisarVooDataRota() {
-        ArrayList<Voo> voosAux = new ArrayList<>();
-
         LocalDate dataPartida = Data.lerData("Insira a data de partida do Voo (dd/MM/yyyy): ");
         LocalDate dataChegada = Data.lerData("Insira a data de chegada do Voo (dd/MM/yyyy): ");
 
-        String siglaOrigem = lerString("Insira a Sigla do Aeroporto de origem: ");
-        String siglaChegada = lerString("Insira a Sigla do Aeroporto de chegada: ");
+        String siglaOrigem = lerString("Insira a Sigla do Aeroporto de origem: ").toUpperCase();
+        String siglaChegada = lerString("Insira a Sigla do Aeroporto de chegada: ").toUpperCase();
 
-        for (Voo voo : voos) {
-            LocalDate dataPartidaVoo = voo.getDataHoraPartida().toLocalDate();
-            LocalDate dataChegadaVoo = voo.getDataHoraChegada().toLocalDate();
+        ArrayList<Voo> voosAux = repositorio.consultar(() -> indiceRotas.voosRota(siglaOrigem, siglaChegada, dataPartida, dataChegada));
 
-            if (!dataPartidaVoo.equals(dataPartida)
-                    || !dataChegadaVoo.equals(dataChegada)
-            ) {
-                break;
-            }
+        if (voosAux.isEmpty()) {
+            System.out.println("Não existem voos para a rota e datas inseridas.");
+            return;
+        }
 
-            if (!voo.getAeroportoOrigem().getSigla().equals(siglaOrigem)
-                    || !voo.getAeroportoDestino().getSigla().equals(siglaChegada)
-            ) {
-                break;
-            }
+        System.out.println(voosAux);
+    }
 
-            voosAux.add(voo);
+    /**
+     * Método para pesquisar os voos que partem de um aeroporto numa data.
+     * O utilizador é solicitado a inserir a sigla do aeroporto e a data de partida.
+     */
+    static void pesquisarPartidasAeroporto() {
+        String sigla = lerString("Insira a Sigla do Aeroporto: ").toUpperCase();
+        LocalDate data = Data.lerData("Insira a data de partida (dd/MM/yyyy): ");
+
+        ArrayList<Voo> voosAux = repositorio.consultar(() -> indiceRotas.partidas(sigla, data));
+
+        if (voosAux.isEmpty()) {
+            System.out.println("Não existem partidas do aeroporto " + sigla + " nessa data.");
+            return;
         }
 
         System.out.println(voosAux);
     }
 
+    /**
+     * Método para pesquisar os voos de um passageiro.
+     * O utilizador é solicitado a inserir o número de identificação ou o nome do passageiro.
+     */
+    static void pesquisarVoosPassageiro() {
+        String pesquisa = lerString("Insira o número de identificação ou o nome do passageiro: ");
+
+        List<IndicePassageiros.Reserva> reservas = Validacao.Regra.NUM_IDENTIFICACAO.valida(pesquisa)
+                ? repositorio.consultar(() -> List.copyOf(indicePassageiros.reservas(Integer.parseInt(pesquisa))))
+                : repositorio.consultar(() -> List.copyOf(indicePassageiros.reservas(pesquisa)));
+
+        if (reservas.isEmpty()) {
+            System.out.println("Não existem voos para o passageiro " + pesquisa + ".");
+            return;
+        }
+
+        for (IndicePassageiros.Reserva reserva : reservas) {
+            Voo voo = reserva.voo();
+            Passageiro passageiro = reserva.passageiro();
+
+            System.out.println(voo.getNumVoo() + " - " + voo.getDataHoraPartida()
+                    + " - " + voo.getAeroportoOrigem().getSigla() + " -> " + voo.getAeroportoDestino().getSigla()
+                    + " - " + passageiro.getNome() + " (" + passageiro.getNumIdentificacao() + ")"
+                    + ", lugar " + passageiro.getLugarReservado());
+        }
+    }
+
+    /**
+     * Método para apresentar os lugares livres de um voo, por classe, a partir do seu mapa de lugares
+     * ({@link Voo#getMapaLugares()}).
+     */
+    static void pesquisarLugaresLivres() {
+        LocalDate data = lerData("Insira a data do voo (dd/MM/yyyy): ");
+        String numVoo = lerString("Insira número de voo: ").toUpperCase();
+
+        Voo voo = repositorio.procurar(numVoo, data);
+        if (voo == null) {
+            System.out.println("Voo não encontrado: " + numVoo);
+            return;
+        }
+
+        MapaLugares lugares = voo.getMapaLugares();
+        for (Passageiro.TipoBilhete tipo : Passageiro.TipoBilhete.values()) {
+            int livres = lugares.lugaresLivres(tipo);
+            System.out.println("Classe " + tipo + ": " + livres + " lugares livres"
+                    + (livres > 0 ? " (próximo livre: " + lugares.proximoLivre(tipo) + ")" : "") + ".");
+        }
+    }
+
     /**
      * Método para pesquisar voos conforme as datas de início e fim inseridas pelo utilizador.
+     * São apresentados os voos que partem na data de início ou depois e chegam na data de fim ou antes.
      *
      * @return Retorna uma lista de voos que estão no intervalo de datas inserido.
      */
     static ArrayList<Voo> pesquisarVoosData() {
-        ArrayList<Voo> voosAux = new ArrayList<>();
-
         LocalDate dataInicio = Data.lerData("Insira a data de de inicio (dd/MM/yyyy): ");
         LocalDate dataFim = Data.lerData("Insira a data de fim (dd/MM/yyyy): ");
 
-        for (Voo voo : voos) {
-            LocalDate dataPartidaVoo = voo.getDataHoraPartida().toLocalDate();
-            LocalDate dataChegadaVoo = voo.getDataHoraChegada().toLocalDate();
-
-            if (dataPartidaVoo.isBefore(dataInicio)
-                    || dataChegadaVoo.isAfter(dataFim)
-            ) {
-                break;
-            }
-
-            voosAux.add(voo);
-        }
+        ArrayList<Voo> voosAux = repositorio.consultar(() -> linhaTemporal.voosEntre(dataInicio, dataFim));
 
         if (voosAux.isEmpty()) {
             System.out.println("Não existem voos para o intervalo de datas inserido.");
@@ -253,30 +693,22 @@ public class Main {
      * Se o voo for removido com sucesso, será exibida a mensagem "Voo [numVoo] removido com sucesso."
      */
     static void retirarVoo() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para eliminar.");
             return;
         }
 
         LocalDate data = lerData("Insira a data do voo (dd/MM/yyyy): ");
-        String numVoo = lerString("Insira número de voo (VXXX): ");
-
-        Voo voo = voos.stream()
-                // Filtra a lista de voos pelo número de voo desejado
-                .filter(v -> v.getNumVoo().equals(numVoo))
-                // Filtra a lista de voos pela data de partida desejada
-                .filter(v -> v.getDataHoraPartida().toLocalDate().equals(data))
-                // Seleciona o primeiro voo encontrado
-                .findFirst()
-                // Se não encontrar nenhum voo, retorna null
-                .orElse(null);
+        String numVoo = lerString("Insira número de voo (VXXX): ").toUpperCase();
+
+        Voo voo = repositorio.procurar(numVoo, data);
 
         if (voo == null) {
             System.out.println("Voo não encontrado: " + numVoo);
             return;
         }
 
-        voos.remove(voo);
+        eliminarVoo(voo);
 
         System.out.println("Voo " + numVoo + " removido com sucesso.");
     }
@@ -285,20 +717,28 @@ public class Main {
     /**
      * Método estático para alterar o número de passageiros de um voo existente.
      * Se a lista de voos estiver vazia, será exibida a mensagem "Não existem voos para serem alterados!"
-     * Caso contrário, o utilizador será solicitado a inserir o número do voo (no formato VXXX) a ser alterado.
+     * Caso contrário, o utilizador será solicitado a inserir a data e o número do voo (no formato VXXX) a ser alterado.
      * O voo será buscado na lista de voos e, caso encontrado, será exibido um menu com as opções de adicionar ou remover passageiros.
      * Se o voo não for encontrado, será exibida a mensagem "Voo não encontrado: [numVoo]"
      */
     static void alterarPassageirosVoo() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para serem alterados!");
             return;
         }
 
-        String numVoo = lerString("Insira número de voo: ");
+        LocalDate data = lerData("Insira a data do voo (dd/MM/yyyy): ");
+        String numVoo = lerString("Insira número de voo: ").toUpperCase();
+
+        Voo valor = repositorio.procurar(numVoo, data);
+        if (valor == null) {
+            System.out.println("Voo não encontrado: " + numVoo);
+            return;
+        }
 
         System.out.println("1 - Adicionar passageiros");
         System.out.println("2 - Remover passageiros");
+        System.out.println("3 - Importar manifesto de passageiros");
         System.out.println("0 - Sair");
         String operacao = lerString("Introduza o número da operação que deseja: ");
 
@@ -306,39 +746,52 @@ public class Main {
             return;
         }
 
-        Iterator<Voo> iterator = voos.iterator();
-        Voo valor = iterator.next();
-
         if (operacao.equals("1")) {
-            if (valor.getNumVoo().equals(numVoo)) {
-                valor.getPassageiros().addAll(Passageiro.ler());
+            registarPassageiros(valor, Passageiro.ler(valor.getMapaLugares()));
 
-                System.out.println("Voo alterado com sucesso!");
-            } else {
-                System.out.println("Esse voo não existe, logo não pode ser removido!");
-            }
+            System.out.println("Voo alterado com sucesso!");
         } else if (operacao.equals("2")) {
-            if (valor.getNumVoo().equals(numVoo)) {
-                String nomePassageiro = lerString("Introduza o nome do passageiro para retirar do voo: ");
-                Passageiro passageiro = null;
-
-                for (Passageiro p : valor.getPassageiros()) {
-                    if (p.getNome().equals(nomePassageiro)) {
-                        passageiro = p;
-                        break;
-                    }
-                }
+            String nomePassageiro = lerString("Introduza o nome do passageiro para retirar do voo: ");
+            Passageiro passageiro = repositorio.consultar(() -> indicePassageiros.procurar(valor, nomePassageiro));
 
-                if (passageiro != null) {
-                    valor.getPassageiros().remove(passageiro);
-                    System.out.println("Passageiro removido com sucesso!");
-                } else {
-                    System.out.println("Esse passageiro não está registrado nesse voo!");
-                }
+            if (passageiro != null) {
+                eliminarPassageiro(valor, passageiro);
+                System.out.println("Passageiro removido com sucesso!");
+            } else {
+                System.out.println("Esse passageiro não está registrado nesse voo!");
             }
+        } else if (operacao.equals("3")) {
+            importarManifesto(valor);
         }
     }
 
+    /**
+     * Importa os passageiros de um manifesto para um voo e apresenta os registos rejeitados.
+     *
+     * @param voo voo a alterar
+     */
+    static void importarManifesto(Voo voo) {
+        Path path = Path.of(lerString("Insira o caminho do manifesto: "));
+        if (!Files.isRegularFile(path)) {
+            System.out.println("O ficheiro não existe.");
+            return;
+        }
+
+        ImportadorManifesto.Relatorio relatorio;
+        try {
+            relatorio = ImportadorManifesto.importar(voo, path);
+        } catch (IOException e) {
+            System.out.println("Erro a ler o manifesto: " + e.getMessage());
+            return;
+        }
+
+        for (ImportadorManifesto.Rejeicao rejeicao : relatorio.rejeitados()) {
+            System.out.println("Linha " + rejeicao.numLinha() + ": " + rejeicao.motivo());
+        }
+        System.out.println("Passageiros importados: " + relatorio.adicionados().size() + " de " + relatorio.numRegistos()
+                + " (rejeitados: " + relatorio.rejeitados().size() + ")");
+    }
+
     /**
      * Método estático para pesquisar o voo com o maior número de passageiros num determinado período.
      * O utilizador é solicitado a inserir uma data de início e uma data final para a pesquisa.
@@ -346,82 +799,95 @@ public class Main {
      * O voo com o maior número de passageiros é então exibido, incluindo o número do voo e a quantidade de passageiros.
      */
     static void pesquisarVooMaisPassageirosData() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para pesquisar!");
             return;
         }
 
-        Voo maior = voos.get(0);
-
         LocalDate dataInicio = lerData("Insira a data de inicio: ");
         LocalDate dataFim = lerData("Insira a data de fim: ");
 
-        for (Voo voo : voos) {
-            LocalDate dataPartidaVoo = voo.getDataHoraPartida().toLocalDate();
-            LocalDate dataChegadaVoo = voo.getDataHoraPartida().toLocalDate();
+        Voo maior = repositorio.consultar(() -> maximosDiarios.maisPassageiros(dataInicio, dataFim));
 
-            if (!dataPartidaVoo.isAfter(dataInicio)
-                    && !dataChegadaVoo.isBefore(dataFim)
-            ) break;
-
-            if (voo.getPassageiros().size() > maior.getPassageiros().size())
-                maior = voo;
+        if (maior == null) {
+            System.out.println("Não existem voos para o intervalo de datas inserido.");
+            return;
         }
 
         System.out.println("O Voo com maior número de passageiros é o voo " + maior.getNumVoo() + " com " + maior.getPassageiros().size() + " passageiros.");
     }
 
+    /**
+     * Método estático para pesquisar os voos com mais passageiros num determinado período.
+     * São apresentados, por ordem decrescente do número de passageiros, até {@value #NUM_VOOS_MAIS_PASSAGEIROS} voos
+     * que partem na data de início ou depois e chegam na data de fim ou antes.
+     */
+    static void pesquisarVoosMaisPassageirosData() {
+        LocalDate dataInicio = lerData("Insira a data de inicio: ");
+        LocalDate dataFim = lerData("Insira a data de fim: ");
+
+        ArrayList<Voo> maiores = repositorio.consultar(() -> maximosDiarios.maisPassageiros(dataInicio, dataFim, NUM_VOOS_MAIS_PASSAGEIROS));
+
+        if (maiores.isEmpty()) {
+            System.out.println("Não existem voos para o intervalo de datas inserido.");
+            return;
+        }
+
+        int posicao = 1;
+        for (Voo voo : maiores) {
+            System.out.println(posicao++ + ". Voo " + voo.getNumVoo() + " (" + voo.getDataHoraPartida() + ") com "
+                    + voo.getPassageiros().size() + " passageiros.");
+        }
+    }
+
     /**
      * Método estático para pesquisar a lista de passageiros de um voo pelo dia da partida.
      * O utilizador será solicitado a inserir a data do voo desejado.
      * Os passageiros do voo com a data de partida correspondente serão exibidos na tela.
      */
     static void pesquisarListaPassageirosData() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para pesquisar!");
             return;
         }
 
         LocalDate data = lerData("Insira a data do voo: ");
 
-        for (Voo voo : voos) {
-            LocalDate dataPartidaVoo = voo.getDataHoraPartida().toLocalDate();
-
-            if (dataPartidaVoo.equals(data)) {
-                System.out.println("Passageiros para o voo " + voo.getNumVoo() + ": ");
-                System.out.println(voo.getPassageiros().toString());
-            }
+        for (Voo voo : repositorio.consultar(() -> linhaTemporal.partidasNoDia(data))) {
+            System.out.println("Passageiros para o voo " + voo.getNumVoo() + ": ");
+            System.out.println(voo.getPassageiros().toString());
         }
     }
 
     /**
-     * Calcula a média de passageiros para uma lista de voos retornada pelo método {@link Main#pesquisarVoosData()}.
-     * Imprime o total de passageiros e a média de passageiros para a lista de voos.
+     * Calcula a média de passageiros dos voos que partem na data de início ou depois e chegam na data de fim ou antes,
+     * a partir das contagens diárias ({@link Main#estatisticasDiarias}).
      */
     static void mediaPassageiros() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para pesquisar!");
             return;
         }
 
-        ArrayList<Voo> voosAux = pesquisarVoosData();
+        LocalDate dataInicio = lerData("Insira a data de inicio (dd/MM/yyyy): ");
+        LocalDate dataFim = lerData("Insira a data de fim (dd/MM/yyyy): ");
 
-        int soma = 0;
+        double media = repositorio.consultar(() -> estatisticasDiarias.mediaPassageiros(dataInicio, dataFim));
 
-        for (Voo voo : voosAux) {
-            soma += voo.getPassageiros().size();
+        if (Double.isNaN(media)) {
+            System.out.println("Não existem voos para o intervalo de datas inserido.");
+            return;
         }
 
-        double media = (double) soma / (double) voosAux.size();
-
         System.out.println("A média de passageiros é: " + String.format("%.2f", media));
     }
 
     /**
-     * Método para calcular o total de passageiros em voos entre duas datas específicas.
+     * Método para calcular o total de passageiros em voos entre duas datas específicas, a partir das contagens diárias
+     * ({@link Main#estatisticasDiarias}).
      */
     static void totalPassageiros() {
-        if (voos.isEmpty()) {
+        if (repositorio.isVazio()) {
             System.out.println("\nNão existem voos para pesquisar!");
             return;
         }
@@ -429,18 +895,89 @@ public class Main {
         LocalDate dataInicio = lerData("Insira a data de inicio (dd/MM/yyyy): ");
         LocalDate dataFim = lerData("Insira a data de fim (dd/MM/yyyy): ");
 
-        int totalPassageiros = 0;
+        long totalPassageiros = repositorio.consultar(() -> estatisticasDiarias.totalPassageiros(dataInicio, dataFim));
 
-        for (Voo voo : voos) {
-            LocalDate dataPartidaVoo = voo.getDataHoraPartida().toLocalDate();
-            LocalDate dataChegadaVoo = voo.getDataHoraChegada().toLocalDate();
+        System.out.println("Total de passageiros: " + totalPassageiros);
+    }
 
-            if ((dataPartidaVoo.isAfter(dataInicio) || dataPartidaVoo.isEqual(dataInicio)) &&
-                    (dataChegadaVoo.isBefore(dataFim) || dataChegadaVoo.isEqual(dataFim))) {
-                totalPassageiros += voo.getPassageiros().size();
-            }
+    /**
+     * Método para apresentar as estatísticas de ocupação (voos, lugares, passageiros por tipo de bilhete e voos por
+     * aeroporto de origem) dos voos entre duas datas específicas, calculadas sobre as colunas de
+     * {@link Main#colunasVoos}.
+     */
+    static void estatisticasOcupacao() {
+        if (repositorio.isVazio()) {
+            System.out.println("\nNão existem voos para pesquisar!");
+            return;
         }
 
-        System.out.println("Total de passageiros: " + totalPassageiros);
+        LocalDate dataInicio = lerData("Insira a data de inicio (dd/MM/yyyy): ");
+        LocalDate dataFim = lerData("Insira a data de fim (dd/MM/yyyy): ");
+
+        ColunasVoos.Ocupacao ocupacao = repositorio.consultar(() -> colunasVoos.ocupacao(dataInicio, dataFim));
+
+        if (ocupacao.numVoos() == 0) {
+            System.out.println("Não existem voos para o intervalo de datas inserido.");
+            return;
+        }
+
+        System.out.println("Número de voos: " + ocupacao.numVoos());
+        System.out.println("Número de lugares: " + ocupacao.numLugares());
+        System.out.println("Passageiros em classe executiva: " + ocupacao.passageirosExecutiva());
+        System.out.println("Passageiros em classe turística: " + ocupacao.passageirosTuristica());
+        System.out.println("Taxa de ocupação: " + String.format("%.2f%%", ocupacao.taxaOcupacao() * 100));
+
+        System.out.println("Voos por aeroporto de origem:");
+        for (ColunasVoos.Contagem contagem : ocupacao.voosPorOrigem()) {
+            System.out.println("\t" + contagem.sigla() + ": " + contagem.numVoos());
+        }
+    }
+
+    /**
+     * Método para apresentar o número de passageiros por voo (total, média, mínimo e máximo) agrupado por aeroporto de
+     * origem, aeroporto de destino ou data de partida, contando apenas os passageiros com a nacionalidade e o tipo de
+     * bilhete escolhidos. Os voos são percorridos em paralelo por {@link Analise}.
+     */
+    static void analisarPassageiros() {
+        if (repositorio.isVazio()) {
+            System.out.println("\nNão existem voos para pesquisar!");
+            return;
+        }
+
+        String nacionalidade = lerString("Insira a nacionalidade dos passageiros (* para todas): ");
+        String tipoBilhete = lerString("Insira o tipo de bilhete (T - turística, E - executiva, * - todos): ",
+                "[TtEe*]", "Insira um tipo de bilhete válido.");
+        int agrupamento = lerInt("Agrupar por (1 - aeroporto de origem, 2 - aeroporto de destino, 3 - data de partida): ",
+                "[1-3]", "Insira uma opção válida.");
+
+        Predicate<Passageiro> filtro = passageiro -> true;
+        if (!nacionalidade.equals("*")) {
+            filtro = filtro.and(Analise.nacionalidade(nacionalidade));
+        }
+        if (tipoBilhete.equalsIgnoreCase("T")) {
+            filtro = filtro.and(Analise.tipoBilhete(Passageiro.TipoBilhete.TURISTICA));
+        } else if (tipoBilhete.equalsIgnoreCase("E")) {
+            filtro = filtro.and(Analise.tipoBilhete(Passageiro.TipoBilhete.EXECUTIVA));
+        }
+
+        ToLongFunction<Voo> medida = Analise.passageiros(filtro);
+        Map<?, Resumo> grupos = repositorio.consultar(() -> switch (agrupamento) {
+            case 1 -> Analise.agrupar(repositorio.voos(), voo -> true, Analise.POR_ORIGEM, medida);
+            case 2 -> Analise.agrupar(repositorio.voos(), voo -> true, Analise.POR_DESTINO, medida);
+            default -> Analise.agrupar(repositorio.voos(), voo -> true, Analise.POR_DATA, medida);
+        });
+
+        Resumo total = Resumo.VAZIO;
+        for (Map.Entry<?, Resumo> grupo : grupos.entrySet()) {
+            Resumo resumo = grupo.getValue();
+            total = total.juntar(resumo);
+
+            System.out.println(grupo.getKey() + ": " + resumo.contagem() + " voos, " + resumo.soma() + " passageiros"
+                    + " (média " + String.format("%.2f", resumo.media())
+                    + ", mínimo " + resumo.minimo() + ", máximo " + resumo.maximo() + ")");
+        }
+
+        System.out.println("Total: " + total.contagem() + " voos, " + total.soma() + " passageiros"
+                + " (média " + String.format("%.2f", total.media()) + ")");
     }
 }
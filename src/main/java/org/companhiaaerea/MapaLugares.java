@@ -0,0 +1,350 @@
+package org.companhiaaerea;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Classe que representa a ocupação dos lugares de um voo, com um bit por lugar.
+ * <p>
+ * Os lugares têm o formato AXX (uma letra seguida de 2 dígitos, de 01 a 99) e são numerados pela ordem A01, A02, ...,
+ * A99, B01, ... Os primeiros lugares, tantos quantos os lugares de classe executiva do avião, são da classe executiva,
+ * e os seguintes são da classe turística. Por exemplo, num avião com 12 lugares de classe executiva, os lugares A01 a
+ * A12 são de classe executiva e os lugares a partir de A13 são de classe turística. As novas reservas
+ * ({@link Voo#reservar(Passageiro)}) seguem esta disposição: o lugar de cada passageiro tem de ser da classe do seu
+ * bilhete. Os voos de ficheiros de versões anteriores podem ter outros lugares, que são contados como conflitos.
+ * <p>
+ * Reservar e libertar um lugar é O(1), e o número de lugares livres de cada classe é mantido a cada alteração. O
+ * próximo lugar livre de uma classe é encontrado percorrendo as palavras de 64 bits dessa classe.
+ * <p>
+ * O mapa pode ser usado por várias threads ao mesmo tempo sem locks: cada lugar é reservado com uma operação
+ * compare-and-set sobre a sua palavra de 64 bits, por isso duas reservas do mesmo lugar nunca têm ambas sucesso. Como
+ * só existem bits para os lugares do avião, o número de lugares ocupados de uma classe nunca ultrapassa a sua
+ * capacidade. Os contadores de lugares livres são atualizados depois de cada bit e podem estar momentaneamente
+ * desfasados enquanto há reservas em curso.
+ *
+ * @author Ricardo Pereira
+ */
+public class MapaLugares {
+    /**
+     * Número de lugares possíveis no formato AXX (26 letras × 99 números).
+     */
+    public static final int MAX_LUGARES = 26 * 99;
+
+    /**
+     * Número de lugares de classe executiva.
+     */
+    private final int numExecutiva;
+
+    /**
+     * Número total de lugares (classe executiva e classe turística).
+     */
+    private final int numLugares;
+
+    /**
+     * Bits dos lugares ocupados: o lugar de ordem i é o bit i % 64 da palavra i / 64.
+     */
+    private final AtomicLongArray ocupados;
+
+    /**
+     * Número de lugares livres na classe executiva.
+     */
+    private final AtomicInteger livresExecutiva;
+
+    /**
+     * Número de lugares livres na classe turística.
+     */
+    private final AtomicInteger livresTuristica;
+
+    /**
+     * Número de passageiros com um lugar inexistente, repetido ou de outra classe quando o mapa foi criado por
+     * {@link #de(Voo)}.
+     */
+    private int conflitos;
+
+    /**
+     * Cria o mapa de lugares de um avião, com todos os lugares livres.
+     * Se o avião tiver mais lugares do que os possíveis no formato AXX, os restantes lugares não são usados.
+     *
+     * @param aviao avião do voo
+     */
+    public MapaLugares(Aviao aviao) {
+        numExecutiva = numExecutiva(aviao);
+        numLugares = numLugares(aviao);
+        ocupados = new AtomicLongArray((numLugares + 63) / 64);
+        livresExecutiva = new AtomicInteger(numExecutiva);
+        livresTuristica = new AtomicInteger(numLugares - numExecutiva);
+    }
+
+    /**
+     * Cria uma cópia de um mapa de lugares (se o mapa estiver a ser alterado, a cópia pode não incluir as alterações
+     * em curso).
+     *
+     * @param outro mapa a copiar
+     */
+    public MapaLugares(MapaLugares outro) {
+        numExecutiva = outro.numExecutiva;
+        numLugares = outro.numLugares;
+        ocupados = new AtomicLongArray(outro.ocupados.length());
+
+        int executivaOcupados = 0;
+        int turisticaOcupados = 0;
+        for (int palavra = 0; palavra < ocupados.length(); palavra++) {
+            long bits = outro.ocupados.get(palavra);
+            ocupados.set(palavra, bits);
+
+            for (; bits != 0; bits &= bits - 1) {
+                if (palavra * 64 + Long.numberOfTrailingZeros(bits) < numExecutiva) executivaOcupados++;
+                else turisticaOcupados++;
+            }
+        }
+
+        livresExecutiva = new AtomicInteger(numExecutiva - executivaOcupados);
+        livresTuristica = new AtomicInteger(numLugares - numExecutiva - turisticaOcupados);
+        conflitos = outro.conflitos;
+    }
+
+    /**
+     * Cria o mapa de lugares de um voo, reservando os lugares dos seus passageiros.
+     * Os passageiros com um lugar inexistente no avião, repetido ou que não é da classe do bilhete são contados como
+     * conflitos ({@link #getConflitos()}); um lugar de outra classe fica ocupado, para não ser atribuído a outro
+     * passageiro. Os conflitos dos voos lidos de ficheiros são avisados pela {@link org.companhiaaerea.utils.Validacao}.
+     *
+     * @param voo voo
+     * @return o mapa de lugares do voo
+     */
+    public static MapaLugares de(Voo voo) {
+        MapaLugares mapa = new MapaLugares(voo.getAviao());
+
+        if (voo.getPassageiros() != null) {
+            for (Passageiro passageiro : voo.getPassageiros()) {
+                String lugar = passageiro.getLugarReservado();
+
+                if (!mapa.reservar(lugar, passageiro.getTipoBilhete())) {
+                    mapa.reservar(lugar);
+                    mapa.conflitos++;
+                }
+            }
+        }
+
+        return mapa;
+    }
+
+    /**
+     * Retorna o número de lugares de classe executiva de um avião que existem no formato AXX.
+     */
+    private static int numExecutiva(Aviao aviao) {
+        return Math.min(Math.max(0, aviao.getNumLugaresExecutiva()), MAX_LUGARES);
+    }
+
+    /**
+     * Retorna o número total de lugares de um avião que existem no formato AXX.
+     */
+    private static int numLugares(Aviao aviao) {
+        return (int) Math.min((long) numExecutiva(aviao) + Math.max(0, aviao.getNumLugaresTuristica()), MAX_LUGARES);
+    }
+
+    /**
+     * Retorna a classe do lugar de uma ordem.
+     */
+    private static Passageiro.TipoBilhete classe(int ordem, int numExecutiva, int numLugares) {
+        if (ordem < 0 || ordem >= numLugares) return null;
+        return ordem < numExecutiva ? Passageiro.TipoBilhete.EXECUTIVA : Passageiro.TipoBilhete.TURISTICA;
+    }
+
+    /**
+     * Retorna a ordem de um lugar no formato AXX.
+     *
+     * @param lugar lugar
+     * @return a ordem do lugar (a começar em 0), ou -1 se o lugar não estiver no formato AXX
+     */
+    public static int ordem(String lugar) {
+        if (lugar == null || lugar.length() != 3) return -1;
+
+        char letra = lugar.charAt(0);
+        int dezenas = lugar.charAt(1) - '0';
+        int unidades = lugar.charAt(2) - '0';
+        if (letra < 'A' || letra > 'Z' || dezenas < 0 || dezenas > 9 || unidades < 0 || unidades > 9) return -1;
+
+        int numero = dezenas * 10 + unidades;
+        if (numero == 0) return -1;
+
+        return (letra - 'A') * 99 + numero - 1;
+    }
+
+    /**
+     * Retorna o lugar no formato AXX com uma ordem.
+     *
+     * @param ordem ordem do lugar (a começar em 0)
+     * @return o lugar
+     */
+    public static String lugar(int ordem) {
+        int numero = ordem % 99 + 1;
+        return "" + (char) ('A' + ordem / 99) + (char) ('0' + numero / 10) + (char) ('0' + numero % 10);
+    }
+
+    /**
+     * Retorna a classe de um lugar.
+     *
+     * @param lugar lugar no formato AXX
+     * @return a classe do lugar, ou null se o lugar não existir no avião
+     */
+    public Passageiro.TipoBilhete classe(String lugar) {
+        return classe(ordem(lugar), numExecutiva, numLugares);
+    }
+
+    /**
+     * Retorna o número de passageiros com um lugar inexistente, repetido ou de outra classe quando o mapa foi criado
+     * por {@link #de(Voo)}.
+     *
+     * @return o número de conflitos
+     */
+    public int getConflitos() {
+        return conflitos;
+    }
+
+    /**
+     * Indica se um lugar existe no avião e está ocupado.
+     *
+     * @param lugar lugar no formato AXX
+     * @return true se o lugar estiver ocupado, false caso contrário
+     */
+    public boolean isOcupado(String lugar) {
+        int ordem = ordem(lugar);
+        return ordem >= 0 && ordem < numLugares && (ocupados.get(ordem >>> 6) & (1L << ordem)) != 0;
+    }
+
+    /**
+     * Reserva um lugar, qualquer que seja a sua classe.
+     *
+     * @param lugar lugar no formato AXX
+     * @return true se o lugar foi reservado, false se não existir no avião ou já estiver ocupado
+     */
+    public boolean reservar(String lugar) {
+        int ordem = ordem(lugar);
+        if (ordem < 0 || ordem >= numLugares) return false;
+
+        long bit = 1L << ordem;
+        while (true) {
+            long bits = ocupados.get(ordem >>> 6);
+            if ((bits & bit) != 0) return false;
+
+            if (ocupados.compareAndSet(ordem >>> 6, bits, bits | bit)) {
+                livres(ordem).decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserva um lugar de uma classe.
+     *
+     * @param lugar lugar no formato AXX
+     * @param tipo  classe do bilhete
+     * @return true se o lugar foi reservado, false se não existir no avião, não for da classe indicada ou já estiver
+     * ocupado
+     */
+    public boolean reservar(String lugar, Passageiro.TipoBilhete tipo) {
+        return classe(lugar) == tipo && reservar(lugar);
+    }
+
+    /**
+     * Liberta um lugar.
+     *
+     * @param lugar lugar no formato AXX
+     * @return true se o lugar foi libertado, false se não existir no avião ou não estiver ocupado
+     */
+    public boolean libertar(String lugar) {
+        int ordem = ordem(lugar);
+        if (ordem < 0 || ordem >= numLugares) return false;
+
+        long bit = 1L << ordem;
+        while (true) {
+            long bits = ocupados.get(ordem >>> 6);
+            if ((bits & bit) == 0) return false;
+
+            if (ocupados.compareAndSet(ordem >>> 6, bits, bits & ~bit)) {
+                livres(ordem).incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retorna o número de lugares livres de uma classe.
+     *
+     * @param tipo classe do bilhete
+     * @return o número de lugares livres
+     */
+    public int lugaresLivres(Passageiro.TipoBilhete tipo) {
+        return Math.max(0, (tipo == Passageiro.TipoBilhete.EXECUTIVA ? livresExecutiva : livresTuristica).get());
+    }
+
+    /**
+     * Retorna o primeiro lugar livre de uma classe.
+     *
+     * @param tipo classe do bilhete
+     * @return o lugar no formato AXX, ou null se a classe não tiver lugares livres
+     */
+    public String proximoLivre(Passageiro.TipoBilhete tipo) {
+        int inicio = tipo == Passageiro.TipoBilhete.EXECUTIVA ? 0 : numExecutiva;
+        int fim = tipo == Passageiro.TipoBilhete.EXECUTIVA ? numExecutiva : numLugares;
+
+        for (int palavra = inicio >>> 6; inicio < fim && palavra <= (fim - 1) >>> 6; palavra++) {
+            long livres = livres(palavra, inicio, fim);
+            if (livres != 0) return lugar(palavra * 64 + Long.numberOfTrailingZeros(livres));
+        }
+
+        return null;
+    }
+
+    /**
+     * Reserva o primeiro lugar livre de uma classe.
+     *
+     * @param tipo classe do bilhete
+     * @return o lugar reservado no formato AXX, ou null se a classe não tiver lugares livres
+     */
+    public String reservarProximo(Passageiro.TipoBilhete tipo) {
+        int inicio = tipo == Passageiro.TipoBilhete.EXECUTIVA ? 0 : numExecutiva;
+        int fim = tipo == Passageiro.TipoBilhete.EXECUTIVA ? numExecutiva : numLugares;
+
+        for (int palavra = inicio >>> 6; inicio < fim && palavra <= (fim - 1) >>> 6; ) {
+            long bits = ocupados.get(palavra);
+            long livres = livres(palavra, inicio, fim);
+
+            if (livres == 0) {
+                palavra++;
+                continue;
+            }
+
+            // Se outra thread alterou a palavra entretanto, volta a tentar na mesma palavra
+            long bit = Long.lowestOneBit(livres);
+            if ((bits & bit) == 0 && ocupados.compareAndSet(palavra, bits, bits | bit)) {
+                int ordem = palavra * 64 + Long.numberOfTrailingZeros(bit);
+                livres(ordem).decrementAndGet();
+                return lugar(ordem);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Retorna os bits dos lugares livres de uma palavra, apenas entre as ordens de início (inclusive) e de fim
+     * (exclusive).
+     */
+    private long livres(int palavra, int inicio, int fim) {
+        long livres = ~ocupados.get(palavra);
+
+        if (palavra == inicio >>> 6) livres &= -1L << inicio;
+        if (palavra == (fim - 1) >>> 6 && (fim & 63) != 0) livres &= (1L << fim) - 1;
+
+        return livres;
+    }
+
+    /**
+     * Retorna o contador de lugares livres da classe de um lugar.
+     */
+    private AtomicInteger livres(int ordem) {
+        return ordem < numExecutiva ? livresExecutiva : livresTuristica;
+    }
+}
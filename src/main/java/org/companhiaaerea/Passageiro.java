@@ -1,5 +1,7 @@
 package org.companhiaaerea;
 
+import org.companhiaaerea.utils.Validacao;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 
@@ -124,11 +126,14 @@ public class Passageiro extends Pessoa {
     /**
      * Método que lê os dados dos passageiros e os adiciona a uma lista.
      * O utilizador deve inserir 0 no número de identificação para encerrar a entrada de dados.
+     * Só são aceites lugares livres da classe do bilhete; o mapa de lugares indicado não é alterado.
      *
+     * @param lugares A ocupação atual dos lugares do voo.
      * @return A lista de passageiros com os dados inseridos pelo utilizador.
      */
-    static ArrayList<Passageiro> ler() {
+    static ArrayList<Passageiro> ler(MapaLugares lugares) {
         ArrayList<Passageiro> passageiros = new ArrayList<>();
+        MapaLugares disponiveis = new MapaLugares(lugares);
 
         while (true) {
             System.out.println("Insira os dados do passageiro (0 no número de identificação para terminar): ");
@@ -139,39 +144,43 @@ public class Passageiro extends Pessoa {
             );
             if (numIdentificacao == 0) break; // Terminar a entrada de dados
 
+            // Passageiro já conhecido: os dados pessoais são os do registo, só são pedidos os dados do bilhete
+            Passageiro conhecido = RegistoPessoas.getPassageiro(numIdentificacao);
+            if (conhecido != null) {
+                System.out.println("Passageiro já registado: " + conhecido.getNome());
+
+                TipoBilhete tipoBilhete = lerTipoBilhete();
+                if (semLugaresLivres(disponiveis, tipoBilhete)) continue;
+
+                passageiros.add(RegistoPessoas.novoPassageiro(numIdentificacao, tipoBilhete, lerLugarReservado(disponiveis, tipoBilhete)));
+                continue;
+            }
+
             String nome = lerString("- Insira o nome: ");
             String nacionalidade = lerString("- Insira a nacionalidade: ");
             String morada = lerString("- Insira a morada: ");
 
             int telefone = lerInt(
                     "- Insira o número de telefone: ",
-                    "[0-9]{9}", // Regex para validar o número de telefone (9 digitos inteiros)
+                    Validacao.Regra.TELEFONE, // Número de telefone com 9 digitos inteiros
                     "O número de telefone deve conter 9 dígitos. Insira um número de telefone válido."
             );
 
             LocalDate dataNascimento = lerData("- Insira a data de nascimento (dd/MM/aaaa): ");
 
             String email = lerString("- Insira o email: ",
-                    "^(.+)@(\\S+)$", // Regex para validar o e-mail
+                    Validacao.Regra.EMAIL,
                     "O email inserido não é válido. Insira um email válido: "
             );
 
-            TipoBilhete tipoBilhete = lerString(
-                    "- Insira o tipo de bilhete (1 - Turística, 2 - Executiva): ",
-                    "[1-2]", // Regex para validar o categoria de bilhete (1 ou 2)
-                    "O tipo de bilhete deve ser 1 ou 2."
-            ).equals("1") ? TipoBilhete.TURISTICA : TipoBilhete.EXECUTIVA;
+            TipoBilhete tipoBilhete = lerTipoBilhete();
+            if (semLugaresLivres(disponiveis, tipoBilhete)) continue;
 
-
-            String lugarReservado = lerString(
-                    "- Insira o lugar do passageiro (AXX): ",
-                    "[A-Z][0-9]{2}", // Regex para validar o lugar reservado (letra seguida de 2 digitos inteiros)
-                    "O lugar reservado deve ser do tipo AXX, onde A é uma letra e XX é um número."
-            );
+            String lugarReservado = lerLugarReservado(disponiveis, tipoBilhete);
 
             Passageiro passageiro = new Passageiro(numIdentificacao, nome, nacionalidade, morada, telefone, dataNascimento, email, tipoBilhete, lugarReservado);
 
-            passageiros.add(passageiro);
+            passageiros.add(RegistoPessoas.registarPassageiro(passageiro));
         }
 
         clearConsole();
@@ -179,6 +188,55 @@ public class Passageiro extends Pessoa {
         return passageiros;
     }
 
+    /**
+     * Método que lê o tipo de bilhete de um passageiro.
+     *
+     * @return O tipo de bilhete inserido pelo utilizador.
+     */
+    private static TipoBilhete lerTipoBilhete() {
+        return lerString(
+                "- Insira o tipo de bilhete (1 - Turística, 2 - Executiva): ",
+                "[1-2]", // Regex para validar o categoria de bilhete (1 ou 2)
+                "O tipo de bilhete deve ser 1 ou 2."
+        ).equals("1") ? TipoBilhete.TURISTICA : TipoBilhete.EXECUTIVA;
+    }
+
+    /**
+     * Método que indica se uma classe não tem lugares livres, avisando o utilizador.
+     *
+     * @param lugares     A ocupação dos lugares do voo.
+     * @param tipoBilhete A classe do bilhete.
+     * @return true se a classe não tiver lugares livres, false caso contrário.
+     */
+    private static boolean semLugaresLivres(MapaLugares lugares, TipoBilhete tipoBilhete) {
+        if (lugares.lugaresLivres(tipoBilhete) > 0) return false;
+
+        System.out.println("Não existem lugares livres na classe " + tipoBilhete + ".");
+        return true;
+    }
+
+    /**
+     * Método que lê o lugar reservado de um passageiro, até ser inserido um lugar livre da classe do bilhete.
+     * O lugar é reservado no mapa de lugares indicado.
+     *
+     * @param lugares     A ocupação dos lugares do voo.
+     * @param tipoBilhete A classe do bilhete.
+     * @return O lugar reservado inserido pelo utilizador.
+     */
+    private static String lerLugarReservado(MapaLugares lugares, TipoBilhete tipoBilhete) {
+        while (true) {
+            String lugar = lerString(
+                    "- Insira o lugar do passageiro (AXX, próximo livre: " + lugares.proximoLivre(tipoBilhete) + "): ",
+                    Validacao.Regra.LUGAR, // Lugar reservado: letra seguida de 2 digitos inteiros
+                    "O lugar reservado deve ser do tipo AXX, onde A é uma letra e XX é um número."
+            );
+
+            if (lugares.reservar(lugar, tipoBilhete)) return lugar;
+
+            System.out.println("O lugar " + lugar + " não está livre na classe " + tipoBilhete + ".");
+        }
+    }
+
     /**
      * Retorna uma representação textual do Passageiro.
      *
@@ -0,0 +1,201 @@
+package org.companhiaaerea;
+
+import org.companhiaaerea.utils.File;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registo das pessoas (passageiros e tripulantes) conhecidas, por número de identificação.
+ * <p>
+ * Os tripulantes são partilhados: todos os voos de um tripulante referem o mesmo objeto {@link Tripulante}.
+ * Os passageiros têm um objeto {@link Passageiro} por voo (porque o tipo de bilhete e o lugar são de cada voo), mas os
+ * dados pessoais (nome, nacionalidade, morada, data de nascimento e email) são partilhados com o registo, em vez de
+ * cada voo ter a sua cópia. Se aparecerem dados diferentes para um número de identificação já conhecido, prevalecem
+ * os dados novos: a pessoa indicada mantém os seus dados e passa a ser a entrada do registo, e as pessoas dos voos já
+ * lidos mantêm os dados anteriores.
+ * <p>
+ * O registo contém as pessoas dos voos carregados, por isso é limpo sempre que um ficheiro de voos é carregado
+ * ({@link File#readVooListFromFile(String)}), que substitui todos os voos.
+ *
+ * @author Ricardo Pereira
+ */
+public class RegistoPessoas {
+    /**
+     * Dados pessoais dos passageiros conhecidos, por número de identificação.
+     */
+    private static final ConcurrentHashMap<Integer, Passageiro> passageiros = new ConcurrentHashMap<>();
+
+    /**
+     * Tripulantes conhecidos, por número de identificação.
+     */
+    private static final ConcurrentHashMap<Integer, Tripulante> tripulantes = new ConcurrentHashMap<>();
+
+    /**
+     * Pessoas registadas pela thread atual, enquanto esta estiver isolada ({@link Isolamento}).
+     */
+    private static final ThreadLocal<Tabelas> isoladas = new ThreadLocal<>();
+
+    /**
+     * Pessoas de um registo isolado.
+     *
+     * @param passageiros dados pessoais dos passageiros, por número de identificação
+     * @param tripulantes tripulantes, por número de identificação
+     */
+    private record Tabelas(ConcurrentHashMap<Integer, Passageiro> passageiros,
+                           ConcurrentHashMap<Integer, Tripulante> tripulantes) {
+    }
+
+    /**
+     * Retorna os dados pessoais de um passageiro.
+     * O tipo de bilhete e o lugar do objeto retornado não devem ser usados.
+     *
+     * @param numIdentificacao o número de identificação do passageiro
+     * @return o passageiro com os dados pessoais registados, ou null se não for conhecido
+     */
+    public static Passageiro getPassageiro(int numIdentificacao) {
+        return passageiros().get(numIdentificacao);
+    }
+
+    /**
+     * Retorna um tripulante.
+     *
+     * @param numIdentificacao o número de identificação do tripulante
+     * @return o tripulante registado, ou null se não for conhecido
+     */
+    public static Tripulante getTripulante(int numIdentificacao) {
+        return tripulantes().get(numIdentificacao);
+    }
+
+    /**
+     * Regista os dados pessoais de um passageiro. Se o número de identificação já for conhecido com os mesmos dados, o
+     * passageiro passa a partilhar os dados pessoais registados; se os dados forem diferentes, o passageiro mantém os
+     * seus dados e substitui a entrada do registo.
+     *
+     * @param passageiro o passageiro a registar
+     * @return o próprio passageiro
+     */
+    public static Passageiro registarPassageiro(Passageiro passageiro) {
+        Passageiro dados = passageiros().compute(passageiro.getNumIdentificacao(), (numIdentificacao, existente) ->
+                existente != null && mesmosDadosPessoais(existente, passageiro) ? existente : passageiro);
+
+        if (dados != passageiro) {
+            copiarDadosPessoais(dados, passageiro);
+        }
+
+        return passageiro;
+    }
+
+    /**
+     * Cria um passageiro de um voo a partir dos dados pessoais registados.
+     *
+     * @param numIdentificacao o número de identificação do passageiro
+     * @param tipoBilhete      a categoria de bilhete no voo
+     * @param lugarReservado   o lugar reservado no voo
+     * @return o novo passageiro, ou null se o número de identificação não for conhecido
+     */
+    public static Passageiro novoPassageiro(int numIdentificacao, Passageiro.TipoBilhete tipoBilhete, String lugarReservado) {
+        Passageiro dados = passageiros().get(numIdentificacao);
+        if (dados == null) return null;
+
+        Passageiro passageiro = new Passageiro();
+        copiarDadosPessoais(dados, passageiro);
+        passageiro.setTipoBilhete(tipoBilhete);
+        passageiro.setLugarReservado(lugarReservado);
+        return passageiro;
+    }
+
+    /**
+     * Regista um tripulante. Se o número de identificação já for conhecido com os mesmos dados, é usado o tripulante
+     * registado; se os dados forem diferentes, o tripulante indicado substitui a entrada do registo.
+     *
+     * @param tripulante o tripulante a registar
+     * @return o tripulante registado com o mesmo número de identificação e os dados do tripulante indicado
+     */
+    public static Tripulante registarTripulante(Tripulante tripulante) {
+        return tripulantes().compute(tripulante.getNumIdentificacao(), (numIdentificacao, existente) ->
+                existente != null && mesmosDados(existente, tripulante) ? existente : tripulante);
+    }
+
+    /**
+     * Esquece todas as pessoas registadas. As pessoas dos voos já lidos não são alteradas.
+     */
+    public static void limpar() {
+        passageiros().clear();
+        tripulantes().clear();
+    }
+
+    /**
+     * Isola o registo na thread atual: até {@link #terminarIsolamento()}, a thread usa um registo vazio só seu, e as
+     * pessoas que regista não chegam ao registo global.
+     */
+    static void iniciarIsolamento() {
+        isoladas.set(new Tabelas(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Termina o isolamento da thread atual, que volta a usar o registo global.
+     */
+    static void terminarIsolamento() {
+        isoladas.remove();
+    }
+
+    /**
+     * Retorna os passageiros usados pela thread atual (os do registo global, se a thread não estiver isolada).
+     */
+    private static ConcurrentHashMap<Integer, Passageiro> passageiros() {
+        Tabelas tabelas = isoladas.get();
+        return tabelas == null ? passageiros : tabelas.passageiros();
+    }
+
+    /**
+     * Retorna os tripulantes usados pela thread atual (os do registo global, se a thread não estiver isolada).
+     */
+    private static ConcurrentHashMap<Integer, Tripulante> tripulantes() {
+        Tabelas tabelas = isoladas.get();
+        return tabelas == null ? tripulantes : tabelas.tripulantes();
+    }
+
+    /**
+     * Indica se duas pessoas têm os mesmos dados comuns a todas as pessoas.
+     */
+    private static boolean mesmaPessoa(Pessoa a, Pessoa b) {
+        return a.getNumIdentificacao() == b.getNumIdentificacao()
+                && a.getTelefone() == b.getTelefone()
+                && Objects.equals(a.getNome(), b.getNome())
+                && Objects.equals(a.getNacionalidade(), b.getNacionalidade())
+                && Objects.equals(a.getMorada(), b.getMorada())
+                && Objects.equals(a.getDataNascimento(), b.getDataNascimento());
+    }
+
+    /**
+     * Indica se dois passageiros têm os mesmos dados pessoais (sem o tipo de bilhete e o lugar).
+     */
+    private static boolean mesmosDadosPessoais(Passageiro a, Passageiro b) {
+        return mesmaPessoa(a, b) && Objects.equals(a.getEmail(), b.getEmail());
+    }
+
+    /**
+     * Indica se dois tripulantes têm os mesmos dados.
+     */
+    private static boolean mesmosDados(Tripulante a, Tripulante b) {
+        return mesmaPessoa(a, b)
+                && a.getNumLicensa() == b.getNumLicensa()
+                && Objects.equals(a.getDataValidadeLicensa(), b.getDataValidadeLicensa())
+                && Objects.equals(a.getAnotacoes(), b.getAnotacoes())
+                && a.getCategoria() == b.getCategoria();
+    }
+
+    /**
+     * Copia as referências dos dados pessoais de um passageiro para outro.
+     */
+    private static void copiarDadosPessoais(Passageiro origem, Passageiro destino) {
+        destino.setNumIdentificacao(origem.getNumIdentificacao());
+        destino.setNome(origem.getNome());
+        destino.setNacionalidade(origem.getNacionalidade());
+        destino.setMorada(origem.getMorada());
+        destino.setTelefone(origem.getTelefone());
+        destino.setDataNascimento(origem.getDataNascimento());
+        destino.setEmail(origem.getEmail());
+    }
+}
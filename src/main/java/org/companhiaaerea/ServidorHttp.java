@@ -0,0 +1,417 @@
+package org.companhiaaerea;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.companhiaaerea.utils.CodecData;
+import org.companhiaaerea.utils.GravadorFicheiros;
+import org.companhiaaerea.utils.LeitorRegistos;
+import org.companhiaaerea.utils.Validacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.companhiaaerea.Main.*;
+import static org.companhiaaerea.utils.File.*;
+
+/**
+ * Servidor HTTP embutido que disponibiliza as operações sobre os voos sem passar pela consola.
+ * <p>
+ * Os pedidos e as respostas usam texto simples com campos separados por ";", no mesmo formato dos comandos do modo de
+ * lote ({@link Lote}), e as datas usam o formato ISO-8601 (aaaa-MM-dd e aaaa-MM-ddTHH:mm).
+ * <pre>
+ * POST   /voos                                           adicionar voo (corpo: voo no formato de texto versão 1)
+ * DELETE /voos/número/partida                            remover voo
+ * POST   /voos/número/partida/passageiros                adicionar passageiro (corpo: passageiro)
+ * DELETE /voos/número/partida/passageiros/id             remover passageiro
+ * GET    /voos?inicio=data&amp;fim=data                      voos num intervalo de datas
+ * GET    /rotas/origem/destino?partida=data&amp;chegada=data voos de uma rota que partem e chegam nas datas
+ * GET    /aeroportos/sigla/partidas?data=data            partidas de um aeroporto numa data
+ * GET    /passageiros/total?inicio=data&amp;fim=data         total de passageiros
+ * GET    /passageiros/media?inicio=data&amp;fim=data         média de passageiros
+ * </pre>
+ * Os pedidos são tratados por um conjunto limitado de threads, com uma fila de espera limitada; quando a fila está
+ * cheia, o pedido é tratado pela thread que o recebeu, o que atrasa a aceitação de novos pedidos. Os handlers usam o
+ * repositório partilhado ({@link Main#repositorio}) e as mesmas operações do menu, que podem ser executadas por várias
+ * threads ao mesmo tempo.
+ *
+ * @author Ricardo Pereira
+ */
+public class ServidorHttp {
+    /**
+     * Argumento da linha de comandos que inicia o servidor.
+     */
+    public static final String ARGUMENTO = "--http";
+
+    /**
+     * Número de ligações à espera de serem aceites.
+     */
+    private static final int NUM_LIGACOES_PENDENTES = 1024;
+
+    /**
+     * Número de pedidos à espera de uma thread livre.
+     */
+    private static final int TAMANHO_FILA = 4096;
+
+    /**
+     * Tamanho máximo do corpo de um pedido, em bytes.
+     */
+    private static final int TAMANHO_MAXIMO_CORPO = 64 * 1024;
+
+    /**
+     * Tempo máximo de espera pelos pedidos em curso ao parar o servidor, em segundos.
+     */
+    private static final int ESPERA_PARAR = 2;
+
+    static {
+        // As respostas são pequenas: sem esta opção, o algoritmo de Nagle atrasa cada resposta numa ligação reutilizada
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Pedido com dados inválidos ou que não pode ser satisfeito, com o código de estado HTTP da resposta.
+     */
+    private static class PedidoInvalido extends Exception {
+        /**
+         * Versão da serialização.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Código de estado HTTP.
+         */
+        private final int estado;
+
+        /**
+         * Cria a exceção.
+         */
+        private PedidoInvalido(int estado, String mensagem) {
+            super(mensagem);
+            this.estado = estado;
+        }
+    }
+
+    /**
+     * Servidor HTTP.
+     */
+    private final HttpServer servidor;
+
+    /**
+     * Threads que tratam os pedidos.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Cria um servidor na porta indicada do endereço local (loopback), sem o iniciar.
+     *
+     * @param porta porta do servidor (0 para uma porta livre qualquer)
+     * @throws IOException se não for possível usar a porta
+     */
+    public ServidorHttp(int porta) throws IOException {
+        int numThreads = 2 * Runtime.getRuntime().availableProcessors();
+        AtomicInteger numThread = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(TAMANHO_FILA),
+                tarefa -> new Thread(tarefa, "servidor-http-" + numThread.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta),
+                NUM_LIGACOES_PENDENTES);
+        servidor.createContext("/", this::tratar);
+        servidor.setExecutor(executor);
+    }
+
+    /**
+     * Inicia o servidor a partir dos argumentos da linha de comandos ({@code --http porta [ficheiro]}). Se for indicado
+     * um ficheiro de voos (sem extensão), os voos são lidos e as alterações são registadas no seu diário. O servidor
+     * é parado quando o programa terminar.
+     *
+     * @param porta        porta do servidor
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos, ou null
+     * @return true se o servidor foi iniciado
+     */
+    public static boolean iniciar(String porta, String nomeFicheiro) {
+        int numPorta;
+        try {
+            numPorta = Integer.parseInt(porta);
+        } catch (NumberFormatException e) {
+            System.out.println("Porta inválida: " + porta);
+            return false;
+        }
+
+        if (nomeFicheiro != null) {
+            if (!Files.exists(Path.of(PATH_PASTA, nomeFicheiro + EXTENSAO))) {
+                System.out.println("O ficheiro " + nomeFicheiro + EXTENSAO + " não existe.");
+                return false;
+            }
+
+            carregarFicheiro(nomeFicheiro + EXTENSAO, repositorio);
+            abrirDiario(nomeFicheiro);
+            System.out.println("Voos lidos: " + repositorio.tamanho());
+        }
+
+        ServidorHttp servidorHttp;
+        try {
+            servidorHttp = new ServidorHttp(numPorta);
+        } catch (IOException e) {
+            System.out.println("Erro a iniciar o servidor: " + e);
+            return false;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidorHttp.parar();
+            GravadorFicheiros.aguardar();
+            fecharDiario();
+            Catalogo.guardarSeAlterado();
+        }));
+
+        servidorHttp.iniciar();
+        System.out.println("Servidor HTTP a escutar em http://localhost:" + servidorHttp.getPorta() + "/");
+        return true;
+    }
+
+    /**
+     * Começa a aceitar pedidos.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Deixa de aceitar pedidos e espera pelos pedidos em curso.
+     */
+    public void parar() {
+        servidor.stop(ESPERA_PARAR);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(ESPERA_PARAR, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Retorna a porta em que o servidor está a escutar.
+     *
+     * @return a porta
+     */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Trata um pedido e envia a resposta.
+     */
+    private void tratar(HttpExchange pedido) throws IOException {
+        int estado;
+        String resposta;
+
+        try {
+            String caminho = pedido.getRequestURI().getPath();
+            String[] partes = (caminho.startsWith("/") ? caminho.substring(1) : caminho).split("/");
+
+            resposta = executar(pedido, partes);
+            if (resposta.isEmpty()) {
+                estado = 204;
+            } else {
+                estado = pedido.getRequestMethod().equals("POST") ? 201 : 200;
+            }
+        } catch (PedidoInvalido e) {
+            estado = e.estado;
+            resposta = e.getMessage() + "\n";
+        } catch (IOException e) {
+            // Campos inválidos no corpo do pedido
+            estado = 400;
+            resposta = e.getMessage() + "\n";
+        } catch (NumberFormatException e) {
+            estado = 400;
+            resposta = "Número inválido.\n";
+        } catch (RuntimeException e) {
+            estado = 500;
+            resposta = "Erro interno: " + e + "\n";
+        }
+
+        byte[] bytes = resposta.getBytes(StandardCharsets.UTF_8);
+        pedido.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        pedido.sendResponseHeaders(estado, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream corpo = pedido.getResponseBody()) {
+            corpo.write(bytes);
+        }
+    }
+
+    /**
+     * Executa a operação indicada pelo método e pelo caminho de um pedido.
+     *
+     * @return o corpo da resposta
+     */
+    private static String executar(HttpExchange pedido, String[] partes) throws PedidoInvalido, IOException {
+        String metodo = pedido.getRequestMethod();
+        Map<String, String> parametros = parametros(pedido.getRequestURI().getRawQuery());
+
+        switch (partes[0]) {
+            case "voos" -> {
+                if (partes.length == 1 && metodo.equals("GET")) {
+                    LocalDate inicio = data(parametros, "inicio");
+                    LocalDate fim = data(parametros, "fim");
+                    return voos(repositorio.consultar(() -> linhaTemporal.voosEntre(inicio, fim)));
+                }
+
+                if (partes.length == 1 && metodo.equals("POST")) {
+                    LeitorRegistos leitor = leitorCorpo(pedido);
+                    Voo voo = lerVoo(leitor);
+
+                    String motivo = Validacao.motivo(voo);
+                    if (motivo != null) throw new PedidoInvalido(400, "Voo inválido: " + motivo + ".");
+                    if (!registarVoo(voo)) throw new PedidoInvalido(409, "Número de voo já registado nessa data.");
+                    return Lote.resumoVoo(voo) + "\n";
+                }
+
+                if (partes.length < 3) break;
+                Voo voo = procurarVoo(partes[1], dataHora(partes[2]));
+                if (voo == null) throw new PedidoInvalido(404, "Voo não encontrado.");
+
+                if (partes.length == 3 && metodo.equals("DELETE")) {
+                    if (!eliminarVoo(voo)) throw new PedidoInvalido(404, "Voo não encontrado.");
+                    return "";
+                }
+
+                if (partes.length == 4 && partes[3].equals("passageiros") && metodo.equals("POST")) {
+                    Passageiro passageiro = lerPassageiro(leitorCorpo(pedido));
+
+                    String motivo = Validacao.motivo(passageiro);
+                    if (motivo != null) throw new PedidoInvalido(400, "Passageiro inválido: " + motivo + ".");
+                    if (!registarPassageiro(voo, passageiro)) {
+                        throw new PedidoInvalido(409, motivoNaoAdicionado(voo, passageiro) + ".");
+                    }
+                    return passageiro.getNumIdentificacao() + ";" + passageiro.getLugarReservado() + ";\n";
+                }
+
+                if (partes.length == 5 && partes[3].equals("passageiros") && metodo.equals("DELETE")) {
+                    Passageiro passageiro = procurarPassageiro(voo, Integer.parseInt(partes[4]));
+                    if (passageiro == null || !eliminarPassageiro(voo, passageiro)) {
+                        throw new PedidoInvalido(404, "Passageiro não está no voo.");
+                    }
+                    return "";
+                }
+            }
+            case "rotas" -> {
+                if (partes.length == 3 && metodo.equals("GET")) {
+                    String origem = partes[1].toUpperCase();
+                    String destino = partes[2].toUpperCase();
+                    LocalDate partida = data(parametros, "partida");
+                    LocalDate chegada = data(parametros, "chegada");
+                    return voos(repositorio.consultar(() -> indiceRotas.voosRota(origem, destino, partida, chegada)));
+                }
+            }
+            case "aeroportos" -> {
+                if (partes.length == 3 && partes[2].equals("partidas") && metodo.equals("GET")) {
+                    String sigla = partes[1].toUpperCase();
+                    LocalDate data = data(parametros, "data");
+                    return voos(repositorio.consultar(() -> indiceRotas.partidas(sigla, data)));
+                }
+            }
+            case "passageiros" -> {
+                if (partes.length == 2 && metodo.equals("GET")) {
+                    LocalDate inicio = data(parametros, "inicio");
+                    LocalDate fim = data(parametros, "fim");
+
+                    if (partes[1].equals("total")) {
+                        return repositorio.consultar(() -> estatisticasDiarias.totalPassageiros(inicio, fim)) + "\n";
+                    }
+                    if (partes[1].equals("media")) {
+                        double media = repositorio.consultar(() -> estatisticasDiarias.mediaPassageiros(inicio, fim));
+                        return (Double.isNaN(media) ? "sem voos" : String.format("%.2f", media)) + "\n";
+                    }
+                }
+            }
+            default -> {
+            }
+        }
+
+        throw new PedidoInvalido(404, "Operação desconhecida: " + metodo + " " + pedido.getRequestURI().getPath());
+    }
+
+    /**
+     * Retorna uma lista de voos, um resumo por linha.
+     */
+    private static String voos(List<Voo> voos) {
+        StringBuilder resposta = new StringBuilder();
+        for (Voo voo : voos) {
+            resposta.append(Lote.resumoVoo(voo)).append('\n');
+        }
+        return resposta.toString();
+    }
+
+    /**
+     * Retorna um leitor de registos posicionado na primeira linha do corpo de um pedido.
+     */
+    private static LeitorRegistos leitorCorpo(HttpExchange pedido) throws IOException, PedidoInvalido {
+        byte[] bytes;
+        try (InputStream corpo = pedido.getRequestBody()) {
+            bytes = corpo.readNBytes(TAMANHO_MAXIMO_CORPO + 1);
+        }
+        if (bytes.length > TAMANHO_MAXIMO_CORPO) throw new PedidoInvalido(413, "Corpo do pedido demasiado grande.");
+
+        char[] caracteres = new String(bytes, StandardCharsets.UTF_8).toCharArray();
+        LeitorRegistos leitor = new LeitorRegistos(caracteres, 0, caracteres.length);
+        if (!leitor.proximaLinha()) throw new PedidoInvalido(400, "Corpo do pedido vazio.");
+
+        return leitor;
+    }
+
+    /**
+     * Lê um parâmetro obrigatório com uma data.
+     */
+    private static LocalDate data(Map<String, String> parametros, String nome) throws PedidoInvalido {
+        String valor = parametros.get(nome);
+        if (valor == null) throw new PedidoInvalido(400, "Falta o parâmetro " + nome + ".");
+
+        LocalDate data = CodecData.dataIso(valor);
+        if (data == null) throw new PedidoInvalido(400, "Data inválida (" + valor + ").");
+        return data;
+    }
+
+    /**
+     * Lê a data e hora de partida de um voo indicada no caminho de um pedido.
+     */
+    private static LocalDateTime dataHora(String valor) throws PedidoInvalido {
+        LocalDateTime dataHora = CodecData.dataHoraIso(valor);
+        if (dataHora == null) throw new PedidoInvalido(400, "Data inválida (" + valor + ").");
+        return dataHora;
+    }
+
+    /**
+     * Separa os parâmetros da query de um URI.
+     */
+    private static Map<String, String> parametros(String query) {
+        HashMap<String, String> parametros = new HashMap<>();
+        if (query == null) return parametros;
+
+        for (String parametro : query.split("&")) {
+            int igual = parametro.indexOf('=');
+            if (igual < 0) continue;
+
+            parametros.put(URLDecoder.decode(parametro.substring(0, igual), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parametro.substring(igual + 1), StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+}
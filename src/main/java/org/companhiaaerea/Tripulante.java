@@ -1,5 +1,7 @@
 package org.companhiaaerea;
 
+import org.companhiaaerea.utils.Validacao;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 
@@ -176,6 +178,14 @@ public class Tripulante extends Pessoa {
             );
             if (numIdentificacao == 0) break; // Termina o ciclo
 
+            // Tripulante já conhecido: é usado o do registo, sem pedir novamente os seus dados
+            Tripulante conhecido = RegistoPessoas.getTripulante(numIdentificacao);
+            if (conhecido != null) {
+                System.out.println("Tripulante já registado: " + conhecido.getNome());
+                tripulantes.add(conhecido);
+                continue;
+            }
+
             String nome = lerString("- Insira o nome: ");
 
             String nacionalidade = lerString("- Insira a nacionalidade: ");
@@ -184,7 +194,7 @@ public class Tripulante extends Pessoa {
 
             int telefone = lerInt(
                     "- Insira o número de telefone: ",
-                    "[0-9]{9}", // Regex para validar o número de telefone (9 digitos inteiros)
+                    Validacao.Regra.TELEFONE, // Número de telefone com 9 digitos inteiros
                     "O número de telefone deve conter 9 dígitos inteiros."
             );
 
@@ -203,7 +213,7 @@ public class Tripulante extends Pessoa {
 
             Tripulante tripulante = new Tripulante(numIdentificacao, nome, nacionalidade, morada, telefone, dataNascimento, numLicenca, dataValidadeLicenca, anotacoes, categoria);
 
-            tripulantes.add(tripulante);
+            tripulantes.add(RegistoPessoas.registarTripulante(tripulante));
         }
 
         clearConsole();
@@ -1,9 +1,12 @@
 package org.companhiaaerea;
 
+import org.companhiaaerea.utils.Validacao;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Objects;
 
-import static org.companhiaaerea.Main.voos;
+import static org.companhiaaerea.Main.repositorio;
 import static org.companhiaaerea.utils.Console.lerString;
 import static org.companhiaaerea.utils.Data.lerDataHora;
 
@@ -54,6 +57,11 @@ public class Voo {
      */
     ArrayList<Tripulante> tripulacao;
 
+    /**
+     * Ocupação dos lugares do voo, criada a partir dos passageiros na primeira utilização
+     */
+    volatile MapaLugares mapaLugares;
+
     /**
      * Construtor vazio.
      */
@@ -117,6 +125,7 @@ public class Voo {
      */
     public void setAviao(Aviao aviao) {
         this.aviao = aviao;
+        this.mapaLugares = null;
     }
 
     /**
@@ -207,6 +216,101 @@ public class Voo {
      */
     public void setPassageiros(ArrayList<Passageiro> passageiros) {
         this.passageiros = passageiros;
+        this.mapaLugares = null;
+    }
+
+    /**
+     * Retorna a ocupação dos lugares do voo. Na primeira utilização é criada a partir dos lugares dos passageiros;
+     * depois é atualizada por {@link #reservar(Passageiro)} e {@link #cancelarReserva(Passageiro)}.
+     *
+     * @return A ocupação dos lugares do voo.
+     */
+    public MapaLugares getMapaLugares() {
+        MapaLugares mapa = mapaLugares;
+        if (mapa != null) return mapa;
+
+        synchronized (this) {
+            if (mapaLugares == null) {
+                mapaLugares = MapaLugares.de(this);
+            }
+            return mapaLugares;
+        }
+    }
+
+    /**
+     * Reserva um lugar no voo para um passageiro e adiciona-o à lista de passageiros.
+     * Se o passageiro não tiver lugar, é-lhe atribuído o primeiro lugar livre da classe do seu bilhete.
+     * O número de identificação é único em cada voo (o diário identifica os passageiros de um voo pelo número), por
+     * isso o passageiro não é adicionado se o voo já tiver um passageiro com o mesmo número.
+     * <p>
+     * Pode ser chamado por várias threads ao mesmo tempo: o lugar é reservado sem locks no mapa de lugares
+     * ({@link MapaLugares}), por isso a capacidade de cada classe do avião nunca é ultrapassada. Só a verificação do
+     * número de identificação e a adição à lista de passageiros são sincronizadas, e apenas neste voo.
+     *
+     * @param passageiro O passageiro a adicionar.
+     * @return true se o passageiro foi adicionado, false se o lugar não estiver livre na classe do bilhete (ou se a
+     * classe não tiver lugares livres) ou se o voo já tiver um passageiro com o mesmo número de identificação.
+     */
+    public boolean reservar(Passageiro passageiro) {
+        MapaLugares mapa = getMapaLugares();
+        boolean atribuido = passageiro.getLugarReservado() == null;
+
+        if (atribuido) {
+            String lugar = mapa.reservarProximo(passageiro.getTipoBilhete());
+            if (lugar == null) return false;
+            passageiro.setLugarReservado(lugar);
+        } else if (!mapa.reservar(passageiro.getLugarReservado(), passageiro.getTipoBilhete())) {
+            return false;
+        }
+
+        synchronized (passageiros) {
+            if (procurarPassageiro(passageiro.getNumIdentificacao()) == null) {
+                passageiros.add(passageiro);
+                return true;
+            }
+        }
+
+        // O lugar estava livre e foi reservado para este passageiro, por isso pode ser libertado
+        mapa.libertar(passageiro.getLugarReservado());
+        if (atribuido) passageiro.setLugarReservado(null);
+        return false;
+    }
+
+    /**
+     * Procura um passageiro do voo pelo número de identificação.
+     *
+     * @param numIdentificacao O número de identificação do passageiro.
+     * @return O passageiro, ou null se não estiver no voo.
+     */
+    public Passageiro procurarPassageiro(int numIdentificacao) {
+        synchronized (passageiros) {
+            for (Passageiro passageiro : passageiros) {
+                if (passageiro.getNumIdentificacao() == numIdentificacao) return passageiro;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove um passageiro do voo e liberta o seu lugar.
+     * O lugar só fica livre se nenhum outro passageiro o ocupar (ficheiros antigos podem ter lugares repetidos).
+     *
+     * @param passageiro O passageiro a remover.
+     * @return true se o passageiro foi removido, false se não estiver no voo.
+     */
+    public boolean cancelarReserva(Passageiro passageiro) {
+        String lugar = passageiro.getLugarReservado();
+
+        synchronized (passageiros) {
+            if (!passageiros.remove(passageiro)) return false;
+
+            for (Passageiro outro : passageiros) {
+                if (Objects.equals(outro.getLugarReservado(), lugar)) return true;
+            }
+        }
+
+        getMapaLugares().libertar(lugar);
+        return true;
     }
 
     /**
@@ -229,33 +333,36 @@ public class Voo {
 
     /**
      * Método que lê as informações de um voo.
+     * O número de voo não pode repetir-se no mesmo dia de partida ({@link Main#repositorio}).
      *
      * @return o objeto Voo com as informações lidas.
      */
     public static Voo ler() {
         String numVoo = lerString(
                 "Insira número de voo (VXXX): ",
-                "^[Vv]\\d{3}$", // Regex que verifica se o número de voo está no formato VXXX
+                Validacao.Regra.NUM_VOO, // Número de voo no formato VXXX
                 "Número de voo inválido. Insira um número de voo válido (VXXX)."
         );
 
         if (numVoo != null) numVoo = numVoo.toUpperCase();
 
-        for (Voo voo : voos) {
-            if (voo.getNumVoo().equals(numVoo)) {
-                System.out.println("Número de voo já registado. Insira um número de voo válido.");
-                return ler();
-            }
+        // O número de voo só pode ser repetido em dias de partida diferentes
+        LocalDateTime dataHoraPartida = lerDataHora("partida");
+        if (repositorio.contem(numVoo, dataHoraPartida.toLocalDate())) {
+            System.out.println("Número de voo já registado nessa data. Insira um número de voo válido.");
+            return ler();
         }
 
+        Aviao aviao = Aviao.ler();
+
         return new Voo(
                 numVoo,
-                Aviao.ler(),
+                aviao,
                 Aeroporto.ler("partida"),
                 Aeroporto.ler("chegada"),
-                lerDataHora("partida"),
+                dataHoraPartida,
                 lerDataHora("chegada"),
-                Passageiro.ler(),
+                Passageiro.ler(new MapaLugares(aviao)),
                 Tripulante.ler()
         );
     }
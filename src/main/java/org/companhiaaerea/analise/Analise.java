@@ -0,0 +1,325 @@
+package org.companhiaaerea.analise;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Pessoa;
+import org.companhiaaerea.Tripulante;
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Classe que avalia filtros e agregações sobre todos os voos, para as consultas que não podem usar um índice (por
+ * exemplo, por nacionalidade dos passageiros, tipo de bilhete ou categoria dos tripulantes).
+ * <p>
+ * A lista de voos é dividida em partes com o seu {@link Spliterator}, que são avaliadas em paralelo na
+ * {@link ForkJoinPool#commonPool() pool comum}; os resultados parciais são depois juntados pela ordem da lista. As
+ * agregações são somas, mínimos e máximos de valores inteiros e os agrupamentos usam {@link TreeMap}, por isso o
+ * resultado é sempre o mesmo, qualquer que seja a divisão. Listas pequenas são avaliadas sequencialmente.
+ *
+ * @author Ricardo Pereira
+ */
+public class Analise {
+    /**
+     * Número de voos abaixo do qual uma lista (ou parte de uma lista) é avaliada sequencialmente.
+     */
+    static final int LIMIAR_SEQUENCIAL = 4096;
+
+    /**
+     * Chave de agrupamento pela sigla do aeroporto de origem.
+     */
+    public static final Function<Voo, String> POR_ORIGEM = voo -> voo.getAeroportoOrigem().getSigla();
+
+    /**
+     * Chave de agrupamento pela sigla do aeroporto de destino.
+     */
+    public static final Function<Voo, String> POR_DESTINO = voo -> voo.getAeroportoDestino().getSigla();
+
+    /**
+     * Chave de agrupamento pela data de partida.
+     */
+    public static final Function<Voo, LocalDate> POR_DATA = voo -> voo.getDataHoraPartida().toLocalDate();
+
+    /**
+     * Acumulador mutável de uma agregação, usado dentro de cada parte da lista.
+     */
+    private static class Acumulador {
+        /**
+         * Número de valores.
+         */
+        private long contagem;
+
+        /**
+         * Soma dos valores.
+         */
+        private long soma;
+
+        /**
+         * Menor valor.
+         */
+        private long minimo = Long.MAX_VALUE;
+
+        /**
+         * Maior valor.
+         */
+        private long maximo = Long.MIN_VALUE;
+
+        /**
+         * Adiciona um valor.
+         */
+        private void adicionar(long valor) {
+            contagem++;
+            soma += valor;
+            if (valor < minimo) minimo = valor;
+            if (valor > maximo) maximo = valor;
+        }
+
+        /**
+         * Adiciona os valores de outro acumulador.
+         */
+        private Acumulador juntar(Acumulador outro) {
+            contagem += outro.contagem;
+            soma += outro.soma;
+            minimo = Math.min(minimo, outro.minimo);
+            maximo = Math.max(maximo, outro.maximo);
+            return this;
+        }
+
+        /**
+         * Retorna o resumo dos valores adicionados.
+         */
+        private Resumo resumo() {
+            return new Resumo(contagem, soma, minimo, maximo);
+        }
+    }
+
+    /**
+     * Tarefa que avalia uma parte da lista de voos, dividindo-a enquanto for maior do que o limiar sequencial.
+     *
+     * @param <A> tipo do resultado parcial
+     */
+    private static class Tarefa<A> extends RecursiveTask<A> {
+        /**
+         * Versão da serialização.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Voos desta parte.
+         */
+        private final transient Spliterator<Voo> voos;
+
+        /**
+         * Cria um resultado parcial vazio.
+         */
+        private final transient Supplier<A> criar;
+
+        /**
+         * Adiciona um voo a um resultado parcial.
+         */
+        private final transient BiConsumer<A, Voo> acumular;
+
+        /**
+         * Junta dois resultados parciais (o primeiro é o da parte anterior da lista).
+         */
+        private final transient BinaryOperator<A> juntar;
+
+        /**
+         * Cria uma tarefa para uma parte da lista.
+         */
+        private Tarefa(Spliterator<Voo> voos, Supplier<A> criar, BiConsumer<A, Voo> acumular, BinaryOperator<A> juntar) {
+            this.voos = voos;
+            this.criar = criar;
+            this.acumular = acumular;
+            this.juntar = juntar;
+        }
+
+        @Override
+        protected A compute() {
+            Spliterator<Voo> anterior;
+            if (voos.estimateSize() > LIMIAR_SEQUENCIAL && (anterior = voos.trySplit()) != null) {
+                Tarefa<A> tarefaAnterior = new Tarefa<>(anterior, criar, acumular, juntar);
+                tarefaAnterior.fork();
+
+                A resultado = new Tarefa<>(voos, criar, acumular, juntar).compute();
+                return juntar.apply(tarefaAnterior.join(), resultado);
+            }
+
+            A resultado = criar.get();
+            voos.forEachRemaining(voo -> acumular.accept(resultado, voo));
+            return resultado;
+        }
+    }
+
+    /**
+     * Conta os voos que cumprem um filtro.
+     *
+     * @param voos   lista de voos
+     * @param filtro filtro dos voos
+     * @return o número de voos que cumprem o filtro
+     */
+    public static long contar(List<Voo> voos, Predicate<? super Voo> filtro) {
+        return resumir(voos, filtro, voo -> 0).contagem();
+    }
+
+    /**
+     * Agrega um valor de cada voo que cumpre um filtro.
+     *
+     * @param voos   lista de voos
+     * @param filtro filtro dos voos
+     * @param medida valor de cada voo a agregar
+     * @return o resumo (contagem, soma, média, mínimo e máximo) dos valores
+     */
+    public static Resumo resumir(List<Voo> voos, Predicate<? super Voo> filtro, ToLongFunction<? super Voo> medida) {
+        return avaliar(voos, Acumulador::new,
+                (acumulador, voo) -> {
+                    if (filtro.test(voo)) acumulador.adicionar(medida.applyAsLong(voo));
+                },
+                Acumulador::juntar).resumo();
+    }
+
+    /**
+     * Agrega um valor de cada voo que cumpre um filtro, agrupando os voos por uma chave (por exemplo
+     * {@link #POR_ORIGEM}, {@link #POR_DESTINO} ou {@link #POR_DATA}).
+     *
+     * @param voos   lista de voos
+     * @param filtro filtro dos voos
+     * @param chave  chave de agrupamento de cada voo
+     * @param medida valor de cada voo a agregar
+     * @param <K>    tipo da chave
+     * @return o resumo dos valores de cada chave, por ordem crescente das chaves
+     */
+    public static <K extends Comparable<? super K>> TreeMap<K, Resumo> agrupar(List<Voo> voos,
+                                                                             Predicate<? super Voo> filtro,
+                                                                             Function<? super Voo, ? extends K> chave,
+                                                                             ToLongFunction<? super Voo> medida) {
+        TreeMap<K, Acumulador> grupos = avaliar(voos, TreeMap::new,
+                (acumuladores, voo) -> {
+                    if (filtro.test(voo)) {
+                        acumuladores.computeIfAbsent(chave.apply(voo), k -> new Acumulador())
+                                .adicionar(medida.applyAsLong(voo));
+                    }
+                },
+                (anteriores, seguintes) -> {
+                    for (Map.Entry<K, Acumulador> grupo : seguintes.entrySet()) {
+                        anteriores.merge(grupo.getKey(), grupo.getValue(), Acumulador::juntar);
+                    }
+                    return anteriores;
+                });
+
+        TreeMap<K, Resumo> resultado = new TreeMap<>();
+        for (Map.Entry<K, Acumulador> grupo : grupos.entrySet()) {
+            resultado.put(grupo.getKey(), grupo.getValue().resumo());
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna uma medida que conta os passageiros de um voo que cumprem um filtro.
+     *
+     * @param filtro filtro dos passageiros
+     * @return a medida
+     */
+    public static ToLongFunction<Voo> passageiros(Predicate<? super Passageiro> filtro) {
+        return voo -> {
+            long contagem = 0;
+            for (Passageiro passageiro : voo.getPassageiros()) {
+                if (filtro.test(passageiro)) contagem++;
+            }
+            return contagem;
+        };
+    }
+
+    /**
+     * Retorna uma medida que conta os tripulantes de um voo que cumprem um filtro.
+     *
+     * @param filtro filtro dos tripulantes
+     * @return a medida
+     */
+    public static ToLongFunction<Voo> tripulantes(Predicate<? super Tripulante> filtro) {
+        return voo -> {
+            long contagem = 0;
+            for (Tripulante tripulante : voo.getTripulacao()) {
+                if (filtro.test(tripulante)) contagem++;
+            }
+            return contagem;
+        };
+    }
+
+    /**
+     * Retorna um filtro dos voos com pelo menos um passageiro que cumpre um filtro.
+     *
+     * @param filtro filtro dos passageiros
+     * @return o filtro dos voos
+     */
+    public static Predicate<Voo> comPassageiros(Predicate<? super Passageiro> filtro) {
+        return voo -> voo.getPassageiros().stream().anyMatch(filtro);
+    }
+
+    /**
+     * Retorna um filtro dos voos com pelo menos um tripulante que cumpre um filtro.
+     *
+     * @param filtro filtro dos tripulantes
+     * @return o filtro dos voos
+     */
+    public static Predicate<Voo> comTripulantes(Predicate<? super Tripulante> filtro) {
+        return voo -> voo.getTripulacao().stream().anyMatch(filtro);
+    }
+
+    /**
+     * Retorna um filtro das pessoas com uma nacionalidade (sem distinguir maiúsculas de minúsculas).
+     *
+     * @param nacionalidade nacionalidade
+     * @return o filtro das pessoas
+     */
+    public static Predicate<Pessoa> nacionalidade(String nacionalidade) {
+        return pessoa -> nacionalidade.equalsIgnoreCase(pessoa.getNacionalidade());
+    }
+
+    /**
+     * Retorna um filtro dos passageiros com um tipo de bilhete.
+     *
+     * @param tipoBilhete tipo de bilhete
+     * @return o filtro dos passageiros
+     */
+    public static Predicate<Passageiro> tipoBilhete(Passageiro.TipoBilhete tipoBilhete) {
+        return passageiro -> passageiro.getTipoBilhete() == tipoBilhete;
+    }
+
+    /**
+     * Retorna um filtro dos tripulantes com uma categoria.
+     *
+     * @param categoria categoria do tripulante
+     * @return o filtro dos tripulantes
+     */
+    public static Predicate<Tripulante> categoria(Tripulante.Categoria categoria) {
+        return tripulante -> tripulante.getCategoria() == categoria;
+    }
+
+    /**
+     * Avalia uma agregação sobre a lista de voos, em paralelo se a lista for maior do que o limiar sequencial.
+     */
+    private static <A> A avaliar(List<Voo> voos, Supplier<A> criar, BiConsumer<A, Voo> acumular,
+                                 BinaryOperator<A> juntar) {
+        if (voos.size() <= LIMIAR_SEQUENCIAL) {
+            A resultado = criar.get();
+            for (Voo voo : voos) {
+                acumular.accept(resultado, voo);
+            }
+            return resultado;
+        }
+
+        return ForkJoinPool.commonPool().invoke(new Tarefa<>(voos.spliterator(), criar, acumular, juntar));
+    }
+}
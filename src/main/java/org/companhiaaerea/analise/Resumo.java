@@ -0,0 +1,47 @@
+package org.companhiaaerea.analise;
+
+/**
+ * Resultado de uma agregação: número de valores, soma, mínimo e máximo.
+ *
+ * @param contagem número de valores agregados
+ * @param soma     soma dos valores
+ * @param minimo   menor valor, ou {@link Long#MAX_VALUE} se não existirem valores
+ * @param maximo   maior valor, ou {@link Long#MIN_VALUE} se não existirem valores
+ * @author Ricardo Pereira
+ */
+public record Resumo(long contagem, long soma, long minimo, long maximo) {
+    /**
+     * Resumo sem valores.
+     */
+    public static final Resumo VAZIO = new Resumo(0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    /**
+     * Retorna a média dos valores.
+     *
+     * @return a média, ou NaN se não existirem valores
+     */
+    public double media() {
+        return contagem == 0 ? Double.NaN : (double) soma / contagem;
+    }
+
+    /**
+     * Indica se o resumo não tem valores.
+     *
+     * @return true se não existirem valores, false caso contrário
+     */
+    public boolean isVazio() {
+        return contagem == 0;
+    }
+
+    /**
+     * Junta este resumo com outro. A operação é associativa e comutativa, por isso o resultado não depende da ordem
+     * pela qual os resumos parciais são juntados.
+     *
+     * @param outro resumo a juntar
+     * @return o resumo dos valores dos dois resumos
+     */
+    public Resumo juntar(Resumo outro) {
+        return new Resumo(contagem + outro.contagem, soma + outro.soma,
+                Math.min(minimo, outro.minimo), Math.max(maximo, outro.maximo));
+    }
+}
@@ -0,0 +1,127 @@
+package org.companhiaaerea.indices;
+
+/**
+ * Árvore de Fenwick (árvore binária indexada) de somas sobre posições inteiras, por exemplo dias desde a época.
+ * <p>
+ * Permite somar um valor numa posição e obter a soma de um intervalo de posições em O(log n). O intervalo de posições
+ * cresce conforme necessário (duplicando a capacidade), por isso não é preciso conhecer as posições com antecedência.
+ *
+ * @author Ricardo Pereira
+ */
+public class ArvoreFenwick {
+    /**
+     * Capacidade inicial da árvore.
+     */
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    /**
+     * Posição correspondente ao primeiro elemento da árvore.
+     */
+    private long base;
+
+    /**
+     * Valor de cada posição (usado para reconstruir a árvore quando a capacidade aumenta).
+     */
+    private long[] valores;
+
+    /**
+     * Somas parciais da árvore de Fenwick (índices a começar em 1).
+     */
+    private long[] arvore;
+
+    /**
+     * Soma um valor numa posição.
+     *
+     * @param posicao posição a alterar
+     * @param valor   valor a somar (pode ser negativo)
+     */
+    public void somar(long posicao, long valor) {
+        if (valores == null) {
+            base = posicao - CAPACIDADE_INICIAL / 2;
+            valores = new long[CAPACIDADE_INICIAL];
+            arvore = new long[CAPACIDADE_INICIAL + 1];
+        }
+
+        if (posicao < base || posicao >= base + valores.length) {
+            aumentar(posicao);
+        }
+
+        int indice = (int) (posicao - base);
+        valores[indice] += valor;
+
+        for (int i = indice + 1; i < arvore.length; i += i & -i) {
+            arvore[i] += valor;
+        }
+    }
+
+    /**
+     * Retorna a soma dos valores de todas as posições até à posição indicada (inclusive).
+     *
+     * @param posicao última posição a somar
+     * @return a soma dos valores
+     */
+    public long somaAte(long posicao) {
+        if (valores == null || posicao < base) return 0;
+
+        int i = (int) Math.min(posicao - base + 1, valores.length);
+        long soma = 0;
+
+        for (; i > 0; i -= i & -i) {
+            soma += arvore[i];
+        }
+
+        return soma;
+    }
+
+    /**
+     * Retorna a soma dos valores das posições de um intervalo.
+     *
+     * @param inicio primeira posição (inclusive)
+     * @param fim    última posição (inclusive)
+     * @return a soma dos valores, ou 0 se o intervalo estiver vazio
+     */
+    public long soma(long inicio, long fim) {
+        if (inicio > fim) return 0;
+        return somaAte(fim) - somaAte(inicio - 1);
+    }
+
+    /**
+     * Remove todos os valores da árvore.
+     */
+    public void limpar() {
+        valores = null;
+        arvore = null;
+    }
+
+    /**
+     * Aumenta a capacidade da árvore até incluir a posição indicada e reconstrói as somas parciais em O(n).
+     */
+    private void aumentar(long posicao) {
+        long inicio = Math.min(base, posicao);
+        long fim = Math.max(base + valores.length, posicao + 1);
+
+        long capacidade = valores.length;
+        while (capacidade < fim - inicio) capacidade *= 2;
+        if (capacidade > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Intervalo de posições demasiado grande: " + inicio + " a " + fim);
+        }
+
+        // Deixa espaço livre do lado para onde a árvore cresceu
+        long novaBase = posicao < base ? fim - capacidade : inicio;
+
+        long[] novosValores = new long[(int) capacidade];
+        System.arraycopy(valores, 0, novosValores, (int) (base - novaBase), valores.length);
+
+        long[] novaArvore = new long[novosValores.length + 1];
+        for (int i = 1; i < novaArvore.length; i++) {
+            novaArvore[i] += novosValores[i - 1];
+
+            int pai = i + (i & -i);
+            if (pai < novaArvore.length) novaArvore[pai] += novaArvore[i];
+        }
+
+        base = novaBase;
+        valores = novosValores;
+        arvore = novaArvore;
+    }
+}
@@ -0,0 +1,268 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.utils.CodecData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Cópia em colunas (um array de tipos primitivos por campo) dos dados dos voos usados nas estatísticas.
+ * <p>
+ * Em vez de percorrer os objetos {@link Voo} (e as suas datas e listas de passageiros), as estatísticas percorrem
+ * arrays contínuos: minutos de partida e de chegada, número de lugares, número de passageiros por tipo de bilhete e
+ * identificador do aeroporto de origem (as siglas são codificadas num dicionário). Cada voo ocupa uma
+ * linha; quando um voo é removido, a última linha passa para o seu lugar.
+ *
+ * @author Ricardo Pereira
+ */
+public class ColunasVoos implements Indice {
+    /**
+     * Capacidade inicial das colunas.
+     */
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    /**
+     * Resultado das estatísticas de ocupação de um intervalo de datas.
+     *
+     * @param numVoos              número de voos
+     * @param numLugares           número total de lugares dos voos
+     * @param passageirosExecutiva número de passageiros em classe executiva
+     * @param passageirosTuristica número de passageiros em classe turística
+     * @param voosPorOrigem        número de voos por sigla do aeroporto de origem (por ordem alfabética)
+     */
+    public record Ocupacao(int numVoos, long numLugares, long passageirosExecutiva, long passageirosTuristica,
+                           List<Contagem> voosPorOrigem) {
+        /**
+         * Retorna o número total de passageiros.
+         *
+         * @return o número de passageiros
+         */
+        public long passageiros() {
+            return passageirosExecutiva + passageirosTuristica;
+        }
+
+        /**
+         * Retorna a taxa de ocupação (passageiros a dividir por lugares).
+         *
+         * @return a taxa de ocupação entre 0 e 1, ou NaN se não existirem lugares
+         */
+        public double taxaOcupacao() {
+            return numLugares == 0 ? Double.NaN : (double) passageiros() / numLugares;
+        }
+    }
+
+    /**
+     * Número de voos de um aeroporto.
+     *
+     * @param sigla   sigla do aeroporto
+     * @param numVoos número de voos
+     */
+    public record Contagem(String sigla, int numVoos) {
+    }
+
+    /**
+     * Linha de cada voo.
+     */
+    private final IdentityHashMap<Voo, Integer> linhas = new IdentityHashMap<>();
+
+    /**
+     * Identificador de cada sigla de aeroporto.
+     */
+    private final HashMap<String, Integer> idsAeroportos = new HashMap<>();
+
+    /**
+     * Sigla de cada identificador de aeroporto.
+     */
+    private final ArrayList<String> siglas = new ArrayList<>();
+
+    /**
+     * Número de linhas ocupadas.
+     */
+    private int numLinhas;
+
+    /**
+     * Voo de cada linha.
+     */
+    private Voo[] voos = new Voo[CAPACIDADE_INICIAL];
+
+    /**
+     * Minuto de partida de cada voo (minutos desde a época).
+     */
+    private long[] partidas = new long[CAPACIDADE_INICIAL];
+
+    /**
+     * Minuto de chegada de cada voo (minutos desde a época).
+     */
+    private long[] chegadas = new long[CAPACIDADE_INICIAL];
+
+    /**
+     * Número de lugares (turística e executiva) do avião de cada voo.
+     */
+    private int[] lugares = new int[CAPACIDADE_INICIAL];
+
+    /**
+     * Número de passageiros em classe executiva de cada voo.
+     */
+    private int[] executiva = new int[CAPACIDADE_INICIAL];
+
+    /**
+     * Número de passageiros em classe turística de cada voo.
+     */
+    private int[] turistica = new int[CAPACIDADE_INICIAL];
+
+    /**
+     * Identificador do aeroporto de origem de cada voo.
+     */
+    private int[] origens = new int[CAPACIDADE_INICIAL];
+
+
+    @Override
+    public void adicionar(Voo voo) {
+        if (linhas.containsKey(voo)) return;
+        if (numLinhas == voos.length) aumentar();
+
+        int linha = numLinhas++;
+        linhas.put(voo, linha);
+
+        voos[linha] = voo;
+        partidas[linha] = CodecData.minutos(voo.getDataHoraPartida());
+        chegadas[linha] = CodecData.minutos(voo.getDataHoraChegada());
+        lugares[linha] = voo.getAviao().getNumLugaresTuristica() + voo.getAviao().getNumLugaresExecutiva();
+        origens[linha] = idAeroporto(voo.getAeroportoOrigem().getSigla());
+
+        executiva[linha] = 0;
+        turistica[linha] = 0;
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            contarPassageiro(linha, passageiro, 1);
+        }
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        Integer linha = linhas.remove(voo);
+        if (linha == null) return;
+
+        int ultima = --numLinhas;
+        if (linha != ultima) {
+            voos[linha] = voos[ultima];
+            partidas[linha] = partidas[ultima];
+            chegadas[linha] = chegadas[ultima];
+            lugares[linha] = lugares[ultima];
+            executiva[linha] = executiva[ultima];
+            turistica[linha] = turistica[ultima];
+            origens[linha] = origens[ultima];
+            linhas.put(voos[linha], linha);
+        }
+
+        voos[ultima] = null;
+    }
+
+    @Override
+    public void adicionarPassageiro(Voo voo, Passageiro passageiro) {
+        Integer linha = linhas.get(voo);
+        if (linha != null) contarPassageiro(linha, passageiro, 1);
+    }
+
+    @Override
+    public void removerPassageiro(Voo voo, Passageiro passageiro) {
+        Integer linha = linhas.get(voo);
+        if (linha != null) contarPassageiro(linha, passageiro, -1);
+    }
+
+    @Override
+    public void limpar() {
+        linhas.clear();
+        Arrays.fill(voos, 0, numLinhas, null);
+        numLinhas = 0;
+    }
+
+    /**
+     * Calcula as estatísticas de ocupação dos voos que partem no dia de início ou depois e chegam no dia de fim ou
+     * antes.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return as estatísticas de ocupação
+     */
+    public Ocupacao ocupacao(LocalDate dataInicio, LocalDate dataFim) {
+        return ocupacao(CodecData.minutos(dataInicio), CodecData.minutos(dataFim) + CodecData.MINUTOS_DIA);
+    }
+
+    /**
+     * Calcula as estatísticas de ocupação dos voos que partem e chegam dentro de um intervalo de minutos.
+     *
+     * @param inicio primeiro minuto do intervalo (inclusivo), em minutos desde a época
+     * @param fim    último minuto do intervalo (exclusivo), em minutos desde a época
+     * @return as estatísticas de ocupação
+     */
+    public Ocupacao ocupacao(long inicio, long fim) {
+        int numVoos = 0;
+        long numLugares = 0;
+        long totalExecutiva = 0;
+        long totalTuristica = 0;
+        int[] porOrigem = new int[siglas.size()];
+
+        for (int i = 0; i < numLinhas; i++) {
+            if (partidas[i] < inicio || chegadas[i] >= fim) continue;
+
+            numVoos++;
+            numLugares += lugares[i];
+            totalExecutiva += executiva[i];
+            totalTuristica += turistica[i];
+            porOrigem[origens[i]]++;
+        }
+
+        ArrayList<Contagem> voosPorOrigem = new ArrayList<>();
+        for (int id = 0; id < porOrigem.length; id++) {
+            if (porOrigem[id] > 0) voosPorOrigem.add(new Contagem(siglas.get(id), porOrigem[id]));
+        }
+        voosPorOrigem.sort((a, b) -> a.sigla().compareTo(b.sigla()));
+
+        return new Ocupacao(numVoos, numLugares, totalExecutiva, totalTuristica, voosPorOrigem);
+    }
+
+    /**
+     * Soma ou subtrai um passageiro à contagem do seu tipo de bilhete numa linha.
+     */
+    private void contarPassageiro(int linha, Passageiro passageiro, int valor) {
+        if (passageiro.getTipoBilhete() == Passageiro.TipoBilhete.EXECUTIVA) {
+            executiva[linha] += valor;
+        } else {
+            turistica[linha] += valor;
+        }
+    }
+
+    /**
+     * Retorna o identificador de uma sigla de aeroporto, atribuindo um novo se ainda não existir.
+     */
+    private int idAeroporto(String sigla) {
+        Integer id = idsAeroportos.get(sigla);
+        if (id != null) return id;
+
+        id = siglas.size();
+        siglas.add(sigla);
+        idsAeroportos.put(sigla, id);
+        return id;
+    }
+
+    /**
+     * Duplica a capacidade de todas as colunas.
+     */
+    private void aumentar() {
+        int capacidade = voos.length * 2;
+
+        voos = Arrays.copyOf(voos, capacidade);
+        partidas = Arrays.copyOf(partidas, capacidade);
+        chegadas = Arrays.copyOf(chegadas, capacidade);
+        lugares = Arrays.copyOf(lugares, capacidade);
+        executiva = Arrays.copyOf(executiva, capacidade);
+        turistica = Arrays.copyOf(turistica, capacidade);
+        origens = Arrays.copyOf(origens, capacidade);
+    }
+}
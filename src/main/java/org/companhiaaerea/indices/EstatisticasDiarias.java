@@ -0,0 +1,176 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.utils.CodecData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Contagens de voos e de passageiros por dia, para calcular totais e médias num intervalo de datas em O(log n).
+ * <p>
+ * Os voos e os passageiros são contados por dia de partida e por dia de chegada, em {@link ArvoreFenwick árvores de
+ * Fenwick} atualizadas a cada alteração. Um voo está num intervalo de datas se partir no primeiro dia ou depois e
+ * chegar no último dia ou antes; o número desses voos é obtido como:
+ * <pre>
+ * chegadas até ao fim − partidas antes do início + voos que partem antes do início e chegam depois do fim
+ * </pre>
+ * Os últimos são os voos que atravessam todo o intervalo, que só podem ter partido pouco antes do início (no máximo a
+ * duração do voo mais longo). São obtidos da {@link LinhaTemporal}, e normalmente são muito poucos ou nenhum.
+ *
+ * @author Ricardo Pereira
+ */
+public class EstatisticasDiarias implements Indice {
+    /**
+     * Índice temporal dos mesmos voos, usado para os voos que atravessam todo o intervalo.
+     */
+    private final LinhaTemporal linhaTemporal;
+
+    /**
+     * Número de voos por dia de partida.
+     */
+    private final ArvoreFenwick voosPartida = new ArvoreFenwick();
+
+    /**
+     * Número de voos por dia de chegada.
+     */
+    private final ArvoreFenwick voosChegada = new ArvoreFenwick();
+
+    /**
+     * Número de passageiros por dia de partida.
+     */
+    private final ArvoreFenwick passageirosPartida = new ArvoreFenwick();
+
+    /**
+     * Número de passageiros por dia de chegada.
+     */
+    private final ArvoreFenwick passageirosChegada = new ArvoreFenwick();
+
+    /**
+     * Duração, em minutos, do voo mais longo adicionado (não diminui quando os voos são removidos).
+     */
+    private long duracaoMaxima;
+
+    /**
+     * Cria as estatísticas diárias.
+     *
+     * @param linhaTemporal índice temporal com os mesmos voos
+     */
+    public EstatisticasDiarias(LinhaTemporal linhaTemporal) {
+        this.linhaTemporal = linhaTemporal;
+    }
+
+    @Override
+    public void adicionar(Voo voo) {
+        alterar(voo, 1, voo.getPassageiros().size());
+
+        long duracao = CodecData.minutos(voo.getDataHoraChegada()) - CodecData.minutos(voo.getDataHoraPartida());
+        duracaoMaxima = Math.max(duracaoMaxima, duracao);
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        alterar(voo, -1, -voo.getPassageiros().size());
+    }
+
+    @Override
+    public void adicionarPassageiro(Voo voo, Passageiro passageiro) {
+        alterar(voo, 0, 1);
+    }
+
+    @Override
+    public void removerPassageiro(Voo voo, Passageiro passageiro) {
+        alterar(voo, 0, -1);
+    }
+
+    @Override
+    public void limpar() {
+        voosPartida.limpar();
+        voosChegada.limpar();
+        passageirosPartida.limpar();
+        passageirosChegada.limpar();
+        duracaoMaxima = 0;
+    }
+
+    /**
+     * Retorna o número de voos que partem no dia de início ou depois e chegam no dia de fim ou antes.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return o número de voos
+     */
+    public long totalVoos(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) return 0;
+
+        return voosChegada.somaAte(dataFim.toEpochDay())
+                - voosPartida.somaAte(dataInicio.toEpochDay() - 1)
+                + voosAtravessam(dataInicio, dataFim).size();
+    }
+
+    /**
+     * Retorna o número de passageiros dos voos que partem no dia de início ou depois e chegam no dia de fim ou antes.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return o número de passageiros
+     */
+    public long totalPassageiros(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) return 0;
+
+        long total = passageirosChegada.somaAte(dataFim.toEpochDay())
+                - passageirosPartida.somaAte(dataInicio.toEpochDay() - 1);
+
+        for (Voo voo : voosAtravessam(dataInicio, dataFim)) {
+            total += voo.getPassageiros().size();
+        }
+
+        return total;
+    }
+
+    /**
+     * Retorna a média de passageiros por voo dos voos que partem no dia de início ou depois e chegam no dia de fim ou
+     * antes.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return a média de passageiros, ou NaN se não existirem voos no intervalo
+     */
+    public double mediaPassageiros(LocalDate dataInicio, LocalDate dataFim) {
+        long voos = totalVoos(dataInicio, dataFim);
+        return voos == 0 ? Double.NaN : (double) totalPassageiros(dataInicio, dataFim) / voos;
+    }
+
+    /**
+     * Retorna os voos que partem antes do dia de início e chegam depois do dia de fim.
+     */
+    private ArrayList<Voo> voosAtravessam(LocalDate dataInicio, LocalDate dataFim) {
+        long inicio = CodecData.minutos(dataInicio);
+        long fim = CodecData.minutos(dataFim) + CodecData.MINUTOS_DIA;
+
+        // Só os voos com duração maior do que o intervalo podem atravessá-lo
+        if (duracaoMaxima <= fim - inicio) return new ArrayList<>();
+
+        ArrayList<Voo> voos = linhaTemporal.partidasEntre(inicio - duracaoMaxima, inicio);
+        voos.removeIf(voo -> CodecData.minutos(voo.getDataHoraChegada()) < fim);
+        return voos;
+    }
+
+    /**
+     * Soma o número de voos e de passageiros indicados nos dias de partida e de chegada de um voo.
+     */
+    private void alterar(Voo voo, int numVoos, int numPassageiros) {
+        long diaPartida = voo.getDataHoraPartida().toLocalDate().toEpochDay();
+        long diaChegada = voo.getDataHoraChegada().toLocalDate().toEpochDay();
+
+        if (numVoos != 0) {
+            voosPartida.somar(diaPartida, numVoos);
+            voosChegada.somar(diaChegada, numVoos);
+        }
+
+        if (numPassageiros != 0) {
+            passageirosPartida.somar(diaPartida, numPassageiros);
+            passageirosChegada.somar(diaChegada, numPassageiros);
+        }
+    }
+}
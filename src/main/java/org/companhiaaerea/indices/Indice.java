@@ -0,0 +1,54 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+
+/**
+ * Índice secundário da lista de voos, mantido a par das alterações feitas à lista.
+ * <p>
+ * Sempre que um voo é adicionado ou removido da lista, ou um passageiro é adicionado ou removido de um voo, o índice é
+ * avisado através dos métodos desta interface.
+ * Quando a lista é substituída (por exemplo, ao ler um ficheiro), o índice é limpo e os voos são adicionados de novo.
+ *
+ * @author Ricardo Pereira
+ */
+public interface Indice {
+    /**
+     * Adiciona um voo ao índice.
+     *
+     * @param voo voo adicionado à lista
+     */
+    void adicionar(Voo voo);
+
+    /**
+     * Remove um voo do índice.
+     *
+     * @param voo voo removido da lista
+     */
+    void remover(Voo voo);
+
+    /**
+     * Adiciona ao índice um passageiro que foi adicionado a um voo que já está no índice.
+     * Por omissão, não faz nada (para os índices que não dependem dos passageiros).
+     *
+     * @param voo        voo alterado
+     * @param passageiro passageiro adicionado ao voo
+     */
+    default void adicionarPassageiro(Voo voo, Passageiro passageiro) {
+    }
+
+    /**
+     * Remove do índice um passageiro que foi removido de um voo que está no índice.
+     * Por omissão, não faz nada (para os índices que não dependem dos passageiros).
+     *
+     * @param voo        voo alterado
+     * @param passageiro passageiro removido do voo
+     */
+    default void removerPassageiro(Voo voo, Passageiro passageiro) {
+    }
+
+    /**
+     * Remove todos os voos do índice.
+     */
+    void limpar();
+}
@@ -0,0 +1,143 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Índice das reservas dos passageiros, por número de identificação e por nome.
+ * <p>
+ * Para cada passageiro guarda as suas reservas (o voo e o objeto {@link Passageiro} desse voo), o que permite saber em
+ * que voos está um passageiro sem percorrer todos os voos e todos os passageiros. As pesquisas por nome não distinguem
+ * maiúsculas de minúsculas. Cada reserva guarda a chave do índice por nome com que foi adicionada, por isso é removida
+ * pela própria reserva (o voo e o objeto {@link Passageiro}) mesmo que o nome do passageiro mude entretanto.
+ *
+ * @author Ricardo Pereira
+ */
+public class IndicePassageiros implements Indice {
+    /**
+     * Reserva de um passageiro num voo.
+     *
+     * @param voo        voo reservado
+     * @param passageiro passageiro no voo (com o tipo de bilhete e o lugar)
+     * @param chaveNome  chave do índice por nome, calculada quando a reserva foi adicionada
+     */
+    public record Reserva(Voo voo, Passageiro passageiro, String chaveNome) {
+    }
+
+    /**
+     * Reservas por número de identificação do passageiro.
+     */
+    private final HashMap<Integer, ArrayList<Reserva>> porIdentificacao = new HashMap<>();
+
+    /**
+     * Reservas por nome do passageiro (em minúsculas).
+     */
+    private final HashMap<String, ArrayList<Reserva>> porNome = new HashMap<>();
+
+    @Override
+    public void adicionar(Voo voo) {
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            adicionarPassageiro(voo, passageiro);
+        }
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            removerPassageiro(voo, passageiro);
+        }
+    }
+
+    @Override
+    public void adicionarPassageiro(Voo voo, Passageiro passageiro) {
+        Reserva reserva = new Reserva(voo, passageiro, chaveNome(passageiro.getNome()));
+
+        porIdentificacao.computeIfAbsent(passageiro.getNumIdentificacao(), id -> new ArrayList<>(2)).add(reserva);
+        porNome.computeIfAbsent(reserva.chaveNome(), nome -> new ArrayList<>(2)).add(reserva);
+    }
+
+    @Override
+    public void removerPassageiro(Voo voo, Passageiro passageiro) {
+        Reserva reserva = remover(porIdentificacao, passageiro.getNumIdentificacao(), voo, passageiro);
+
+        // A chave por nome é a da reserva, porque o nome do passageiro pode ter mudado depois de ser adicionado
+        if (reserva != null) remover(porNome, reserva.chaveNome(), voo, passageiro);
+    }
+
+    @Override
+    public void limpar() {
+        porIdentificacao.clear();
+        porNome.clear();
+    }
+
+    /**
+     * Retorna as reservas de um passageiro.
+     *
+     * @param numIdentificacao número de identificação do passageiro
+     * @return as reservas do passageiro, pela ordem em que foram adicionadas
+     */
+    public List<Reserva> reservas(int numIdentificacao) {
+        ArrayList<Reserva> reservas = porIdentificacao.get(numIdentificacao);
+        return reservas == null ? List.of() : Collections.unmodifiableList(reservas);
+    }
+
+    /**
+     * Retorna as reservas dos passageiros com o nome indicado.
+     *
+     * @param nome nome do passageiro
+     * @return as reservas dos passageiros com esse nome, pela ordem em que foram adicionadas
+     */
+    public List<Reserva> reservas(String nome) {
+        ArrayList<Reserva> reservas = porNome.get(chaveNome(nome));
+        return reservas == null ? List.of() : Collections.unmodifiableList(reservas);
+    }
+
+    /**
+     * Procura num voo o passageiro com o nome indicado.
+     *
+     * @param voo  voo onde procurar
+     * @param nome nome do passageiro
+     * @return o passageiro do voo, ou null se o voo não tiver nenhum passageiro com esse nome
+     */
+    public Passageiro procurar(Voo voo, String nome) {
+        for (Reserva reserva : reservas(nome)) {
+            if (reserva.voo() == voo) return reserva.passageiro();
+        }
+        return null;
+    }
+
+    /**
+     * Remove uma reserva da lista de reservas de uma chave, removendo a chave se a lista ficar vazia.
+     *
+     * @return a reserva removida, ou null se não existir
+     */
+    private static <K> Reserva remover(HashMap<K, ArrayList<Reserva>> mapa, K chave, Voo voo, Passageiro passageiro) {
+        ArrayList<Reserva> reservas = mapa.get(chave);
+        if (reservas == null) return null;
+
+        Reserva removida = null;
+        for (int i = 0; i < reservas.size(); i++) {
+            Reserva reserva = reservas.get(i);
+            if (reserva.voo() == voo && reserva.passageiro() == passageiro) {
+                removida = reservas.remove(i);
+                break;
+            }
+        }
+
+        if (reservas.isEmpty()) mapa.remove(chave);
+        return removida;
+    }
+
+    /**
+     * Retorna a chave usada no índice por nome (em minúsculas, independentemente da língua do sistema).
+     */
+    private static String chaveNome(String nome) {
+        return nome == null ? "" : nome.toLowerCase(Locale.ROOT);
+    }
+}
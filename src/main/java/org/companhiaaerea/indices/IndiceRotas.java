@@ -0,0 +1,102 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Índice dos voos por rota (sigla do aeroporto de origem e sigla do aeroporto de destino) e por aeroporto de origem.
+ * <p>
+ * Cada rota e cada aeroporto tem a sua {@link LinhaTemporal}, com os voos ordenados pela data e hora de partida.
+ * Uma pesquisa por rota numa data só percorre os voos dessa rota nesse intervalo de tempo.
+ *
+ * @author Ricardo Pereira
+ */
+public class IndiceRotas implements Indice {
+    /**
+     * Chave de uma rota.
+     *
+     * @param origem  sigla do aeroporto de origem
+     * @param destino sigla do aeroporto de destino
+     */
+    private record Rota(String origem, String destino) {
+    }
+
+    /**
+     * Voos de cada rota.
+     */
+    private final HashMap<Rota, LinhaTemporal> rotas = new HashMap<>();
+
+    /**
+     * Voos que partem de cada aeroporto, por sigla.
+     */
+    private final HashMap<String, LinhaTemporal> partidas = new HashMap<>();
+
+    @Override
+    public void adicionar(Voo voo) {
+        rotas.computeIfAbsent(rota(voo), rota -> new LinhaTemporal()).adicionar(voo);
+        partidas.computeIfAbsent(voo.getAeroportoOrigem().getSigla(), sigla -> new LinhaTemporal()).adicionar(voo);
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        Rota rota = rota(voo);
+        LinhaTemporal voosRota = rotas.get(rota);
+        if (voosRota != null) {
+            voosRota.remover(voo);
+            if (voosRota.isVazia()) rotas.remove(rota);
+        }
+
+        String sigla = voo.getAeroportoOrigem().getSigla();
+        LinhaTemporal voosAeroporto = partidas.get(sigla);
+        if (voosAeroporto != null) {
+            voosAeroporto.remover(voo);
+            if (voosAeroporto.isVazia()) partidas.remove(sigla);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        rotas.clear();
+        partidas.clear();
+    }
+
+    /**
+     * Retorna os voos de uma rota que partem e chegam nas datas indicadas.
+     *
+     * @param siglaOrigem  sigla do aeroporto de origem
+     * @param siglaDestino sigla do aeroporto de destino
+     * @param dataPartida  dia de partida
+     * @param dataChegada  dia de chegada
+     * @return os voos, pela ordem da data e hora de partida
+     */
+    public ArrayList<Voo> voosRota(String siglaOrigem, String siglaDestino, LocalDate dataPartida, LocalDate dataChegada) {
+        LinhaTemporal voosRota = rotas.get(new Rota(siglaOrigem, siglaDestino));
+        if (voosRota == null) return new ArrayList<>();
+
+        ArrayList<Voo> resultado = voosRota.partidasNoDia(dataPartida);
+        resultado.removeIf(voo -> !voo.getDataHoraChegada().toLocalDate().equals(dataChegada));
+        return resultado;
+    }
+
+    /**
+     * Retorna os voos que partem de um aeroporto no dia indicado.
+     *
+     * @param sigla sigla do aeroporto de origem
+     * @param data  dia de partida
+     * @return os voos, pela ordem da data e hora de partida
+     */
+    public ArrayList<Voo> partidas(String sigla, LocalDate data) {
+        LinhaTemporal voosAeroporto = partidas.get(sigla);
+        return voosAeroporto == null ? new ArrayList<>() : voosAeroporto.partidasNoDia(data);
+    }
+
+    /**
+     * Retorna a rota de um voo.
+     */
+    private static Rota rota(Voo voo) {
+        return new Rota(voo.getAeroportoOrigem().getSigla(), voo.getAeroportoDestino().getSigla());
+    }
+}
@@ -0,0 +1,126 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Índice dos voos de uma lista pelo número de voo e pela data de partida.
+ * <p>
+ * Guarda, para cada par (número de voo, data de partida), a posição do voo na lista, o que permite procurar e remover
+ * voos em tempo constante: a remoção troca o voo removido pelo último voo da lista, em vez de deslocar todos os voos
+ * seguintes. Por isso, a ordem da lista não é mantida depois de uma remoção.
+ * A lista só deve ser alterada através deste índice.
+ *
+ * @author Ricardo Pereira
+ */
+public class IndiceVoos {
+    /**
+     * Chave do índice: número de voo e data de partida.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     */
+    private record Chave(String numVoo, LocalDate data) {
+    }
+
+    /**
+     * Lista de voos indexada.
+     */
+    private final List<Voo> voos;
+
+    /**
+     * Posição de cada voo na lista, por número de voo e data de partida.
+     */
+    private final HashMap<Chave, Integer> posicoes;
+
+    /**
+     * Cria o índice de uma lista de voos. Se a lista tiver mais do que um voo com o mesmo número e data de partida,
+     * só o primeiro fica no índice.
+     *
+     * @param voos lista de voos a indexar
+     */
+    public IndiceVoos(List<Voo> voos) {
+        this.voos = voos;
+        this.posicoes = new HashMap<>(Math.max(16, (int) (voos.size() / 0.75f) + 1));
+
+        for (int i = 0; i < voos.size(); i++) {
+            posicoes.putIfAbsent(chave(voos.get(i)), i);
+        }
+    }
+
+    /**
+     * Procura um voo pelo número de voo e pela data de partida.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     * @return o voo, ou null se não existir
+     */
+    public Voo procurar(String numVoo, LocalDate data) {
+        Integer posicao = posicoes.get(new Chave(numVoo, data));
+        return posicao == null ? null : voos.get(posicao);
+    }
+
+    /**
+     * Verifica se existe um voo com o número de voo e a data de partida indicados.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     * @return true se o voo existir
+     */
+    public boolean contem(String numVoo, LocalDate data) {
+        return posicoes.containsKey(new Chave(numVoo, data));
+    }
+
+    /**
+     * Adiciona um voo ao fim da lista, se ainda não existir um voo com o mesmo número e data de partida.
+     *
+     * @param voo voo a adicionar
+     * @return true se o voo foi adicionado
+     */
+    public boolean adicionar(Voo voo) {
+        if (posicoes.putIfAbsent(chave(voo), voos.size()) != null) return false;
+
+        voos.add(voo);
+        return true;
+    }
+
+    /**
+     * Remove um voo da lista, trocando-o pelo último voo da lista.
+     *
+     * @param voo voo a remover
+     * @return true se o voo foi removido
+     */
+    public boolean remover(Voo voo) {
+        Chave chave = chave(voo);
+        Integer posicao = posicoes.get(chave);
+        if (posicao == null || voos.get(posicao) != voo) return false;
+
+        posicoes.remove(chave);
+
+        int ultima = voos.size() - 1;
+        Voo ultimo = voos.remove(ultima);
+
+        if (posicao != ultima) {
+            voos.set(posicao, ultimo);
+
+            // O último voo só está no índice se não for um duplicado de outro voo
+            Chave chaveUltimo = chave(ultimo);
+            Integer posicaoUltimo = posicoes.get(chaveUltimo);
+            if (posicaoUltimo != null && posicaoUltimo == ultima) {
+                posicoes.put(chaveUltimo, posicao);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Retorna a chave de um voo.
+     */
+    private static Chave chave(Voo voo) {
+        return new Chave(voo.getNumVoo(), voo.getDataHoraPartida().toLocalDate());
+    }
+}
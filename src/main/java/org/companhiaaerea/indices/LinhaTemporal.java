@@ -0,0 +1,110 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import static org.companhiaaerea.utils.CodecData.MINUTOS_DIA;
+import static org.companhiaaerea.utils.CodecData.minutos;
+
+/**
+ * Índice temporal dos voos, ordenado pela data e hora de partida.
+ * <p>
+ * As datas e horas são convertidas em minutos desde a época (UTC), guardados como chave de um {@link TreeMap}, o que
+ * permite obter os voos de um intervalo de tempo em O(log n + k) em vez de percorrer todos os voos. Os voos com a mesma
+ * data e hora de partida ficam na mesma entrada. Os resultados são retornados pela ordem da data e hora de partida.
+ *
+ * @author Ricardo Pereira
+ */
+public class LinhaTemporal implements Indice {
+    /**
+     * Voos por minuto de partida (minutos desde a época).
+     */
+    private final TreeMap<Long, ArrayList<Voo>> partidas = new TreeMap<>();
+
+    @Override
+    public void adicionar(Voo voo) {
+        partidas.computeIfAbsent(minutos(voo.getDataHoraPartida()), minuto -> new ArrayList<>(1)).add(voo);
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        long minuto = minutos(voo.getDataHoraPartida());
+
+        ArrayList<Voo> voos = partidas.get(minuto);
+        if (voos == null || !voos.remove(voo)) return;
+
+        if (voos.isEmpty()) partidas.remove(minuto);
+    }
+
+    @Override
+    public void limpar() {
+        partidas.clear();
+    }
+
+    /**
+     * Verifica se o índice não tem voos.
+     *
+     * @return true se o índice estiver vazio
+     */
+    public boolean isVazia() {
+        return partidas.isEmpty();
+    }
+
+    /**
+     * Retorna os voos que partem no intervalo de minutos indicado.
+     *
+     * @param inicio primeiro minuto do intervalo (inclusivo), em minutos desde a época
+     * @param fim    último minuto do intervalo (exclusivo), em minutos desde a época
+     * @return os voos, pela ordem da data e hora de partida
+     */
+    public ArrayList<Voo> partidasEntre(long inicio, long fim) {
+        ArrayList<Voo> resultado = new ArrayList<>();
+        if (inicio >= fim) return resultado;
+
+        for (ArrayList<Voo> voos : partidas.subMap(inicio, fim).values()) {
+            resultado.addAll(voos);
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Retorna os voos que partem no dia indicado.
+     *
+     * @param data dia de partida
+     * @return os voos, pela ordem da data e hora de partida
+     */
+    public ArrayList<Voo> partidasNoDia(LocalDate data) {
+        long inicio = minutos(data);
+        return partidasEntre(inicio, inicio + MINUTOS_DIA);
+    }
+
+    /**
+     * Retorna os voos que decorrem inteiramente entre duas datas: partem no dia de início ou depois, e chegam no dia
+     * de fim ou antes.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return os voos, pela ordem da data e hora de partida
+     */
+    public ArrayList<Voo> voosEntre(LocalDate dataInicio, LocalDate dataFim) {
+        long inicio = minutos(dataInicio);
+        long fim = minutos(dataFim) + MINUTOS_DIA;
+
+        // Um voo que chega até ao fim do intervalo também parte até ao fim do intervalo
+        ArrayList<Voo> resultado = new ArrayList<>();
+        if (inicio >= fim) return resultado;
+
+        for (ArrayList<Voo> voos : partidas.subMap(inicio, fim).values()) {
+            for (Voo voo : voos) {
+                if (minutos(voo.getDataHoraChegada()) < fim) resultado.add(voo);
+            }
+        }
+
+        return resultado;
+    }
+}
@@ -0,0 +1,412 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Árvore de segmentos com o maior número de passageiros de um voo em cada dia de partida, para obter os voos com mais
+ * passageiros num intervalo de datas sem percorrer todos os voos.
+ * <p>
+ * Cada folha da árvore corresponde a um dia e guarda o maior número de passageiros dos voos que partem nesse dia; cada
+ * nó interno guarda o maior valor dos seus filhos. Cada dia tem, por sua vez, uma árvore de segmentos com o número de
+ * passageiros de cada um dos seus voos ({@link Dia}), por isso adicionar ou remover um voo ou um passageiro atualiza um
+ * ponto das duas árvores, em tempo logarítmico no número de voos do dia e no número de dias, sem percorrer os voos do
+ * dia.
+ * <p>
+ * Os K voos com mais passageiros são obtidos por uma pesquisa do melhor primeiro: os nós do intervalo, e depois os nós
+ * das árvores dos dias, são explorados por ordem decrescente do seu valor, e só chegam aos voos os ramos cujo valor
+ * pode ainda pertencer aos K maiores. Como o valor de um nó é um limite superior para os seus voos, o resultado é
+ * exato mesmo excluindo os voos que chegam depois do fim do intervalo.
+ *
+ * @author Ricardo Pereira
+ */
+public class MaximosDiarios implements Indice {
+    /**
+     * Capacidade inicial da árvore, em dias (potência de 2).
+     */
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    /**
+     * Capacidade inicial da árvore de cada dia, em voos (potência de 2).
+     */
+    private static final int CAPACIDADE_INICIAL_DIA = 4;
+
+    /**
+     * Valor dos nós sem voos.
+     */
+    private static final int VAZIO = -1;
+
+    /**
+     * Candidato na pesquisa dos voos com mais passageiros: um nó da árvore dos dias, um nó da árvore de um dia ou um
+     * voo.
+     *
+     * @param valor número de passageiros (do voo, ou o maior do nó)
+     * @param no    nó da árvore dos dias (se o dia for null) ou da árvore do dia, ou 0 se o candidato for um voo
+     * @param dia   dia cuja árvore contém o nó, ou null se o nó for da árvore dos dias
+     * @param voo   voo, ou null se o candidato for um nó
+     */
+    private record Candidato(int valor, int no, Dia dia, Voo voo) {
+    }
+
+    /**
+     * Voos que partem num dia, numa árvore de segmentos com o número de passageiros de cada voo.
+     * <p>
+     * Cada voo ocupa uma posição (uma folha); ao remover um voo, o último voo passa para a sua posição, para que as
+     * posições ocupadas sejam sempre as primeiras.
+     */
+    private static final class Dia {
+        /**
+         * Posição de cada voo do dia.
+         */
+        private final HashMap<Voo, Integer> posicoes = new HashMap<>();
+
+        /**
+         * Voos do dia, por posição.
+         */
+        private Voo[] voos = new Voo[CAPACIDADE_INICIAL_DIA];
+
+        /**
+         * Nós da árvore: a raiz está na posição 1, os filhos do nó i nas posições 2i e 2i+1 e as folhas a partir da
+         * posição {@link #capacidade}.
+         */
+        private int[] arvore = novaArvore(CAPACIDADE_INICIAL_DIA);
+
+        /**
+         * Número de folhas da árvore (potência de 2).
+         */
+        private int capacidade = CAPACIDADE_INICIAL_DIA;
+
+        /**
+         * Número de voos do dia.
+         */
+        private int tamanho;
+
+        /**
+         * Adiciona um voo ao dia, se ainda não estiver no dia.
+         */
+        void adicionar(Voo voo) {
+            if (posicoes.containsKey(voo)) return;
+            if (tamanho == capacidade) aumentar();
+
+            voos[tamanho] = voo;
+            posicoes.put(voo, tamanho);
+            definir(tamanho++, voo.getPassageiros().size());
+        }
+
+        /**
+         * Remove um voo do dia.
+         *
+         * @return true se o voo estava no dia
+         */
+        boolean remover(Voo voo) {
+            Integer posicao = posicoes.remove(voo);
+            if (posicao == null) return false;
+
+            int ultima = --tamanho;
+            if (posicao != ultima) {
+                Voo movido = voos[ultima];
+                voos[posicao] = movido;
+                posicoes.put(movido, posicao);
+                definir(posicao, arvore[capacidade + ultima]);
+            }
+
+            voos[ultima] = null;
+            definir(ultima, VAZIO);
+            return true;
+        }
+
+        /**
+         * Atualiza o número de passageiros de um voo do dia.
+         *
+         * @return true se o voo está no dia
+         */
+        boolean atualizar(Voo voo) {
+            Integer posicao = posicoes.get(voo);
+            if (posicao == null) return false;
+
+            definir(posicao, voo.getPassageiros().size());
+            return true;
+        }
+
+        /**
+         * Retorna o maior número de passageiros dos voos do dia, ou {@link #VAZIO} se o dia não tiver voos.
+         */
+        int maximo() {
+            return arvore[1];
+        }
+
+        /**
+         * Indica se o dia não tem voos.
+         */
+        boolean isVazio() {
+            return tamanho == 0;
+        }
+
+        /**
+         * Define o valor da folha de uma posição e recalcula os nós acima dela.
+         */
+        private void definir(int posicao, int valor) {
+            int no = posicao + capacidade;
+            arvore[no] = valor;
+
+            for (no >>= 1; no >= 1; no >>= 1) {
+                arvore[no] = Math.max(arvore[2 * no], arvore[2 * no + 1]);
+            }
+        }
+
+        /**
+         * Duplica a capacidade da árvore e reconstrói os nós internos.
+         */
+        private void aumentar() {
+            int novaCapacidade = 2 * capacidade;
+
+            int[] novaArvore = novaArvore(novaCapacidade);
+            System.arraycopy(arvore, capacidade, novaArvore, novaCapacidade, capacidade);
+            for (int no = novaCapacidade - 1; no >= 1; no--) {
+                novaArvore[no] = Math.max(novaArvore[2 * no], novaArvore[2 * no + 1]);
+            }
+
+            voos = Arrays.copyOf(voos, novaCapacidade);
+            arvore = novaArvore;
+            capacidade = novaCapacidade;
+        }
+
+        /**
+         * Cria uma árvore vazia com a capacidade indicada.
+         */
+        private static int[] novaArvore(int capacidade) {
+            int[] arvore = new int[2 * capacidade];
+            Arrays.fill(arvore, VAZIO);
+            return arvore;
+        }
+    }
+
+    /**
+     * Ordem dos candidatos: maior valor primeiro; com o mesmo valor, os nós antes dos voos (para que todos os voos com
+     * esse valor sejam conhecidos) e os voos pela data e hora de partida.
+     */
+    private static final Comparator<Candidato> ORDEM = Comparator
+            .comparingInt(Candidato::valor).reversed()
+            .thenComparing(candidato -> candidato.voo() != null)
+            .thenComparing(candidato -> candidato.voo() == null ? null : candidato.voo().getDataHoraPartida(),
+                    Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()));
+
+    /**
+     * Voos por dia de partida (dias desde a época).
+     */
+    private final HashMap<Long, Dia> voosPorDia = new HashMap<>();
+
+    /**
+     * Dia correspondente à primeira folha da árvore.
+     */
+    private long base;
+
+    /**
+     * Número de folhas da árvore (potência de 2).
+     */
+    private int capacidade;
+
+    /**
+     * Nós da árvore: a raiz está na posição 1, os filhos do nó i nas posições 2i e 2i+1 e as folhas a partir da
+     * posição {@link #capacidade}.
+     */
+    private int[] arvore;
+
+    @Override
+    public void adicionar(Voo voo) {
+        long dia = dia(voo);
+
+        Dia voos = voosPorDia.computeIfAbsent(dia, d -> new Dia());
+        voos.adicionar(voo);
+        atualizar(dia, voos.maximo());
+    }
+
+    @Override
+    public void remover(Voo voo) {
+        long dia = dia(voo);
+
+        Dia voos = voosPorDia.get(dia);
+        if (voos == null || !voos.remover(voo)) return;
+
+        if (voos.isVazio()) voosPorDia.remove(dia);
+        atualizar(dia, voos.maximo());
+    }
+
+    @Override
+    public void adicionarPassageiro(Voo voo, Passageiro passageiro) {
+        atualizarVoo(voo);
+    }
+
+    @Override
+    public void removerPassageiro(Voo voo, Passageiro passageiro) {
+        atualizarVoo(voo);
+    }
+
+    @Override
+    public void limpar() {
+        voosPorDia.clear();
+        arvore = null;
+    }
+
+    /**
+     * Retorna o voo com mais passageiros entre os que partem no dia de início ou depois e chegam no dia de fim ou antes.
+     * Se existirem vários, retorna o que parte primeiro.
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @return o voo com mais passageiros, ou null se não existirem voos no intervalo
+     */
+    public Voo maisPassageiros(LocalDate dataInicio, LocalDate dataFim) {
+        ArrayList<Voo> voos = maisPassageiros(dataInicio, dataFim, 1);
+        return voos.isEmpty() ? null : voos.get(0);
+    }
+
+    /**
+     * Retorna os K voos com mais passageiros entre os que partem no dia de início ou depois e chegam no dia de fim ou
+     * antes, por ordem decrescente do número de passageiros (e, com o mesmo número, pela data e hora de partida).
+     *
+     * @param dataInicio primeiro dia do intervalo
+     * @param dataFim    último dia do intervalo
+     * @param k          número máximo de voos a retornar
+     * @return os voos com mais passageiros (menos de K se o intervalo não tiver voos suficientes)
+     */
+    public ArrayList<Voo> maisPassageiros(LocalDate dataInicio, LocalDate dataFim, int k) {
+        ArrayList<Voo> resultado = new ArrayList<>(Math.max(0, Math.min(k, 64)));
+        if (arvore == null || k <= 0 || dataInicio.isAfter(dataFim)) return resultado;
+
+        long inicio = Math.max(dataInicio.toEpochDay(), base);
+        long fim = Math.min(dataFim.toEpochDay(), base + capacidade - 1);
+        if (inicio > fim) return resultado;
+
+        LocalDateTime limiteChegada = dataFim.plusDays(1).atStartOfDay();
+        PriorityQueue<Candidato> candidatos = new PriorityQueue<>(ORDEM);
+
+        // Nós que cobrem exatamente o intervalo de dias
+        for (int l = (int) (inicio - base) + capacidade, r = (int) (fim - base) + capacidade + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) adicionarNo(candidatos, l++);
+            if ((r & 1) == 1) adicionarNo(candidatos, --r);
+        }
+
+        while (resultado.size() < k && !candidatos.isEmpty()) {
+            Candidato candidato = candidatos.poll();
+
+            Dia dia = candidato.dia();
+            int no = candidato.no();
+
+            if (candidato.voo() != null) {
+                resultado.add(candidato.voo());
+            } else if (dia == null && no < capacidade) {
+                adicionarNo(candidatos, 2 * no);
+                adicionarNo(candidatos, 2 * no + 1);
+            } else if (dia == null) {
+                // Folha de um dia: continua na raiz da árvore do dia
+                Dia voos = voosPorDia.get(base + no - capacidade);
+                candidatos.add(new Candidato(voos.maximo(), 1, voos, null));
+            } else if (no < dia.capacidade) {
+                adicionarNo(candidatos, dia, 2 * no);
+                adicionarNo(candidatos, dia, 2 * no + 1);
+            } else {
+                // Folha de um voo: só conta se chegar até ao fim do intervalo
+                Voo voo = dia.voos[no - dia.capacidade];
+                if (voo.getDataHoraChegada().isBefore(limiteChegada)) {
+                    candidatos.add(new Candidato(candidato.valor(), 0, null, voo));
+                }
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Adiciona um nó da árvore dos dias aos candidatos, se tiver voos.
+     */
+    private void adicionarNo(PriorityQueue<Candidato> candidatos, int no) {
+        if (arvore[no] != VAZIO) candidatos.add(new Candidato(arvore[no], no, null, null));
+    }
+
+    /**
+     * Adiciona um nó da árvore de um dia aos candidatos, se tiver voos.
+     */
+    private static void adicionarNo(PriorityQueue<Candidato> candidatos, Dia dia, int no) {
+        if (dia.arvore[no] != VAZIO) candidatos.add(new Candidato(dia.arvore[no], no, dia, null));
+    }
+
+    /**
+     * Atualiza o número de passageiros de um voo na árvore do seu dia e, se o voo estiver no índice, a folha do dia.
+     */
+    private void atualizarVoo(Voo voo) {
+        long dia = dia(voo);
+
+        Dia voos = voosPorDia.get(dia);
+        if (voos == null || !voos.atualizar(voo)) return;
+
+        atualizar(dia, voos.maximo());
+    }
+
+    /**
+     * Define o maior número de passageiros de um dia e recalcula os nós acima da sua folha.
+     */
+    private void atualizar(long dia, int maximo) {
+        if (arvore == null) {
+            capacidade = CAPACIDADE_INICIAL;
+            base = dia - capacidade / 2;
+            arvore = new int[2 * capacidade];
+            Arrays.fill(arvore, VAZIO);
+        }
+
+        if (dia < base || dia >= base + capacidade) {
+            aumentar(dia);
+        }
+
+        int no = (int) (dia - base) + capacidade;
+        arvore[no] = maximo;
+
+        for (no >>= 1; no >= 1; no >>= 1) {
+            arvore[no] = Math.max(arvore[2 * no], arvore[2 * no + 1]);
+        }
+    }
+
+    /**
+     * Aumenta a capacidade da árvore até incluir o dia indicado e reconstrói os nós internos.
+     */
+    private void aumentar(long dia) {
+        long inicio = Math.min(base, dia);
+        long fim = Math.max(base + capacidade, dia + 1);
+
+        long novaCapacidade = capacidade;
+        while (novaCapacidade < fim - inicio) novaCapacidade *= 2;
+        if (novaCapacidade > (1 << 29)) {
+            throw new IllegalArgumentException("Intervalo de dias demasiado grande: " + inicio + " a " + fim);
+        }
+
+        // Deixa espaço livre do lado para onde a árvore cresceu
+        long novaBase = dia < base ? fim - novaCapacidade : inicio;
+
+        int[] novaArvore = new int[2 * (int) novaCapacidade];
+        Arrays.fill(novaArvore, VAZIO);
+        System.arraycopy(arvore, capacidade, novaArvore, (int) (novaCapacidade + base - novaBase), capacidade);
+
+        for (int no = (int) novaCapacidade - 1; no >= 1; no--) {
+            novaArvore[no] = Math.max(novaArvore[2 * no], novaArvore[2 * no + 1]);
+        }
+
+        base = novaBase;
+        capacidade = (int) novaCapacidade;
+        arvore = novaArvore;
+    }
+
+    /**
+     * Retorna o dia de partida de um voo (dias desde a época).
+     */
+    private static long dia(Voo voo) {
+        return voo.getDataHoraPartida().toLocalDate().toEpochDay();
+    }
+}
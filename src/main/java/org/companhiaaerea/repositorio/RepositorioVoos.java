@@ -0,0 +1,203 @@
+package org.companhiaaerea.repositorio;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositório dos voos em memória. Todas as alterações aos voos (adicionar e remover voos e passageiros, ou substituir
+ * todos os voos depois de ler um ficheiro) passam pelo repositório, que mantém os índices atualizados.
+ *
+ * @author Ricardo Pereira
+ */
+public interface RepositorioVoos {
+    /**
+     * Consulta sobre os voos ou os índices do repositório.
+     *
+     * @param <T> tipo do resultado
+     * @param <E> tipo da exceção que a consulta pode lançar
+     */
+    @FunctionalInterface
+    interface Consulta<T, E extends Exception> {
+        /**
+         * Executa a consulta.
+         *
+         * @return o resultado da consulta
+         * @throws E se a consulta falhar
+         */
+        T executar() throws E;
+    }
+
+    /**
+     * Registo das alterações feitas ao repositório (por exemplo, o diário do ficheiro de voos).
+     * <p>
+     * Cada alteração é registada durante a própria alteração, antes de ser visível nas consultas, por isso as alterações
+     * ao mesmo voo são registadas pela ordem em que são feitas e uma consulta vê sempre todas as alterações já
+     * registadas. Os métodos não devem lançar exceções nem alterar o repositório.
+     */
+    interface RegistoAlteracoes {
+        /**
+         * Registo que ignora as alterações.
+         */
+        RegistoAlteracoes NENHUM = new RegistoAlteracoes() {
+            @Override
+            public void vooAdicionado(Voo voo) {
+            }
+
+            @Override
+            public void vooRemovido(Voo voo) {
+            }
+
+            @Override
+            public void passageiroAdicionado(Voo voo, Passageiro passageiro) {
+            }
+
+            @Override
+            public void passageiroRemovido(Voo voo, Passageiro passageiro) {
+            }
+        };
+
+        /**
+         * Regista a adição de um voo.
+         *
+         * @param voo voo adicionado
+         */
+        void vooAdicionado(Voo voo);
+
+        /**
+         * Regista a remoção de um voo.
+         *
+         * @param voo voo removido
+         */
+        void vooRemovido(Voo voo);
+
+        /**
+         * Regista a adição de um passageiro a um voo.
+         *
+         * @param voo        voo alterado
+         * @param passageiro passageiro adicionado
+         */
+        void passageiroAdicionado(Voo voo, Passageiro passageiro);
+
+        /**
+         * Regista a remoção de um passageiro de um voo.
+         *
+         * @param voo        voo alterado
+         * @param passageiro passageiro removido
+         */
+        void passageiroRemovido(Voo voo, Passageiro passageiro);
+    }
+
+    /**
+     * Adiciona um voo, se ainda não existir um voo com o mesmo número e data de partida.
+     *
+     * @param voo voo a adicionar
+     * @return true se o voo foi adicionado, false se já existir um voo com o mesmo número e data de partida
+     */
+    boolean adicionar(Voo voo);
+
+    /**
+     * Remove um voo.
+     *
+     * @param voo voo a remover
+     * @return true se o voo foi removido, false se não estiver no repositório
+     */
+    boolean remover(Voo voo);
+
+    /**
+     * Procura um voo pelo número de voo e pela data de partida.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     * @return o voo, ou null se não existir
+     */
+    Voo procurar(String numVoo, LocalDate data);
+
+    /**
+     * Verifica se existe um voo com o número de voo e a data de partida indicados.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     * @return true se o voo existir
+     */
+    default boolean contem(String numVoo, LocalDate data) {
+        return procurar(numVoo, data) != null;
+    }
+
+    /**
+     * Adiciona um passageiro a um voo, reservando o seu lugar ({@link Voo#reservar(Passageiro)}).
+     *
+     * @param voo        voo a alterar
+     * @param passageiro passageiro a adicionar
+     * @return true se o passageiro foi adicionado, false se o voo não estiver no repositório ou o lugar não estiver
+     * livre
+     */
+    boolean adicionarPassageiro(Voo voo, Passageiro passageiro);
+
+    /**
+     * Adiciona vários passageiros a um voo numa única alteração, reservando os seus lugares. Os passageiros cujo lugar
+     * não esteja livre não são adicionados.
+     *
+     * @param voo         voo a alterar
+     * @param passageiros passageiros a adicionar
+     * @return os passageiros adicionados, pela ordem da lista (vazia se o voo não estiver no repositório)
+     */
+    List<Passageiro> adicionarPassageiros(Voo voo, List<Passageiro> passageiros);
+
+    /**
+     * Remove um passageiro de um voo, libertando o seu lugar.
+     *
+     * @param voo        voo a alterar
+     * @param passageiro passageiro a remover
+     * @return true se o passageiro foi removido, false se o voo não estiver no repositório ou o passageiro não estiver
+     * no voo
+     */
+    boolean removerPassageiro(Voo voo, Passageiro passageiro);
+
+    /**
+     * Substitui todos os voos do repositório (por exemplo, depois de ler um ficheiro). Se a lista tiver mais do que um
+     * voo com o mesmo número e data de partida, só o primeiro é adicionado. A substituição não é registada no
+     * {@link RegistoAlteracoes registo de alterações}.
+     *
+     * @param voos novos voos
+     */
+    void substituir(List<Voo> voos);
+
+    /**
+     * Retorna uma cópia da lista de voos, pela ordem em que foram adicionados, que pode ser percorrida enquanto o
+     * repositório é alterado.
+     *
+     * @return a lista de voos
+     */
+    ArrayList<Voo> voos();
+
+    /**
+     * Retorna o número de voos.
+     *
+     * @return o número de voos
+     */
+    int tamanho();
+
+    /**
+     * Verifica se o repositório não tem voos.
+     *
+     * @return true se não existirem voos
+     */
+    default boolean isVazio() {
+        return tamanho() == 0;
+    }
+
+    /**
+     * Executa uma consulta sobre os voos ou os índices sem que sejam alterados durante a consulta.
+     *
+     * @param consulta consulta a executar
+     * @param <T>      tipo do resultado
+     * @param <E>      tipo da exceção que a consulta pode lançar
+     * @return o resultado da consulta
+     * @throws E se a consulta falhar
+     */
+    <T, E extends Exception> T consultar(Consulta<T, E> consulta) throws E;
+}
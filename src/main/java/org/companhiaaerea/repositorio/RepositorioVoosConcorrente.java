@@ -0,0 +1,435 @@
+package org.companhiaaerea.repositorio;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.indices.Indice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Repositório de voos que pode ser usado por várias threads ao mesmo tempo.
+ * <p>
+ * Os voos são distribuídos por {@value #NUM_FAIXAS} faixas pelo hash da chave (número de voo e data de partida), cada
+ * uma com o seu {@link ReentrantReadWriteLock}. Uma alteração só obtém o lock de escrita da faixa do voo alterado: a
+ * tabela dos voos e a ordem em que foram adicionados são mapas concorrentes, os lugares são reservados sem locks
+ * ({@link Voo#reservar(Passageiro)}) e a alteração é registada no {@link RegistoAlteracoes registo de alterações}
+ * ainda com o lock da faixa, por isso as alterações ao mesmo voo são registadas pela ordem em que são feitas.
+ * Alterações a voos de faixas diferentes nunca esperam umas pelas outras.
+ * <p>
+ * Os índices secundários ({@link Indice}) não suportam acessos concorrentes, por isso não são atualizados durante as
+ * alterações: cada alteração é acrescentada a uma fila de alterações pendentes, que é aplicada aos índices no início
+ * da consulta seguinte. As consultas ({@link #consultar(Consulta)}) obtêm os locks de leitura de todas as faixas, por
+ * isso esperam pelas alterações em curso e veem os voos e os índices com exatamente as mesmas alterações. Quando a
+ * fila chega a {@value #MAX_PENDENTES} alterações sem consultas, a alteração seguinte aplica-a.
+ * <p>
+ * Ao aplicar a fila, os índices leem o estado atual dos voos. Por isso as alterações de passageiros de um voo
+ * adicionado na mesma fila são ignoradas (já estão incluídas quando o voo é adicionado), e um voo removido só pode
+ * voltar a ser adicionado depois de a sua remoção ter sido aplicada.
+ *
+ * @author Ricardo Pereira
+ */
+public class RepositorioVoosConcorrente implements RepositorioVoos {
+    /**
+     * Número de faixas de locks (potência de 2).
+     */
+    static final int NUM_FAIXAS = 64;
+
+    /**
+     * Número de alterações pendentes a partir do qual uma alteração as aplica aos índices.
+     */
+    static final int MAX_PENDENTES = 4096;
+
+    /**
+     * Chave dos voos: número de voo e data de partida.
+     *
+     * @param numVoo número do voo
+     * @param data   data de partida do voo
+     */
+    private record Chave(String numVoo, LocalDate data) {
+    }
+
+    /**
+     * Voo da tabela e a sua posição na ordem em que os voos foram adicionados.
+     *
+     * @param voo   voo
+     * @param ordem número de ordem do voo
+     */
+    private record Entrada(Voo voo, long ordem) {
+    }
+
+    /**
+     * Tipo de uma alteração pendente.
+     */
+    private enum Tipo {
+        /**
+         * Voo adicionado.
+         */
+        ADICIONAR_VOO,
+
+        /**
+         * Voo removido.
+         */
+        REMOVER_VOO,
+
+        /**
+         * Passageiro adicionado a um voo.
+         */
+        ADICIONAR_PASSAGEIRO,
+
+        /**
+         * Passageiro removido de um voo.
+         */
+        REMOVER_PASSAGEIRO
+    }
+
+    /**
+     * Alteração ainda não aplicada aos índices.
+     *
+     * @param tipo       tipo da alteração
+     * @param voo        voo alterado
+     * @param passageiro passageiro adicionado ou removido, ou null nas alterações de voos
+     */
+    private record Alteracao(Tipo tipo, Voo voo, Passageiro passageiro) {
+    }
+
+    /**
+     * Voos por número de voo e data de partida.
+     */
+    private final ConcurrentHashMap<Chave, Entrada> voos = new ConcurrentHashMap<>();
+
+    /**
+     * Voos pela ordem em que foram adicionados.
+     */
+    private final ConcurrentSkipListMap<Long, Voo> ordem = new ConcurrentSkipListMap<>();
+
+    /**
+     * Número de ordem do próximo voo adicionado.
+     */
+    private final AtomicLong proximaOrdem = new AtomicLong();
+
+    /**
+     * Locks das faixas de chaves: de escrita para as alterações, de leitura para as consultas.
+     */
+    private final ReentrantReadWriteLock[] faixas = new ReentrantReadWriteLock[NUM_FAIXAS];
+
+    /**
+     * Alterações ainda não aplicadas aos índices, pela ordem em que foram feitas.
+     */
+    private final ConcurrentLinkedQueue<Alteracao> pendentes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Número de alterações pendentes.
+     */
+    private final AtomicInteger numPendentes = new AtomicInteger();
+
+    /**
+     * Voos removidos cuja remoção ainda não foi aplicada aos índices.
+     */
+    private final Set<Voo> remocoesPendentes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lock da aplicação das alterações pendentes, para que só uma das consultas simultâneas as aplique. É sempre
+     * obtido depois dos locks das faixas.
+     */
+    private final ReentrantLock lockIndices = new ReentrantLock();
+
+    /**
+     * Índices secundários, avisados sempre que um voo ou um passageiro é adicionado ou removido.
+     */
+    private final List<Indice> indices;
+
+    /**
+     * Registo das alterações.
+     */
+    private final RegistoAlteracoes registo;
+
+    /**
+     * Cria um repositório vazio, sem registo de alterações.
+     *
+     * @param indices índices secundários a manter atualizados
+     */
+    public RepositorioVoosConcorrente(List<Indice> indices) {
+        this(indices, RegistoAlteracoes.NENHUM);
+    }
+
+    /**
+     * Cria um repositório vazio.
+     *
+     * @param indices índices secundários a manter atualizados
+     * @param registo registo das alterações
+     */
+    public RepositorioVoosConcorrente(List<Indice> indices, RegistoAlteracoes registo) {
+        this.indices = List.copyOf(indices);
+        this.registo = registo;
+
+        for (int i = 0; i < NUM_FAIXAS; i++) {
+            faixas[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public boolean adicionar(Voo voo) {
+        Chave chave = chave(voo);
+        Lock faixa = faixa(chave).writeLock();
+
+        // Um voo removido só volta a ser adicionado depois de a remoção chegar aos índices
+        while (remocoesPendentes.contains(voo)) aplicarPendentes();
+
+        faixa.lock();
+        try {
+            if (voos.containsKey(chave) || remocoesPendentes.contains(voo)) return false;
+
+            long numOrdem = proximaOrdem.getAndIncrement();
+            voos.put(chave, new Entrada(voo, numOrdem));
+            ordem.put(numOrdem, voo);
+
+            pendente(Tipo.ADICIONAR_VOO, voo, null);
+            registo.vooAdicionado(voo);
+        } finally {
+            faixa.unlock();
+        }
+
+        aplicarSeNecessario();
+        return true;
+    }
+
+    @Override
+    public boolean remover(Voo voo) {
+        Chave chave = chave(voo);
+        Lock faixa = faixa(chave).writeLock();
+
+        faixa.lock();
+        try {
+            Entrada entrada = voos.get(chave);
+            if (entrada == null || entrada.voo() != voo) return false;
+
+            voos.remove(chave);
+            ordem.remove(entrada.ordem());
+
+            remocoesPendentes.add(voo);
+            pendente(Tipo.REMOVER_VOO, voo, null);
+            registo.vooRemovido(voo);
+        } finally {
+            faixa.unlock();
+        }
+
+        aplicarSeNecessario();
+        return true;
+    }
+
+    @Override
+    public Voo procurar(String numVoo, LocalDate data) {
+        Entrada entrada = voos.get(new Chave(numVoo, data));
+        return entrada == null ? null : entrada.voo();
+    }
+
+    @Override
+    public boolean adicionarPassageiro(Voo voo, Passageiro passageiro) {
+        Lock faixa = faixa(chave(voo)).writeLock();
+
+        faixa.lock();
+        try {
+            if (!contem(voo) || !voo.reservar(passageiro)) return false;
+
+            pendente(Tipo.ADICIONAR_PASSAGEIRO, voo, passageiro);
+            registo.passageiroAdicionado(voo, passageiro);
+        } finally {
+            faixa.unlock();
+        }
+
+        aplicarSeNecessario();
+        return true;
+    }
+
+    @Override
+    public List<Passageiro> adicionarPassageiros(Voo voo, List<Passageiro> passageiros) {
+        Lock faixa = faixa(chave(voo)).writeLock();
+        ArrayList<Passageiro> adicionados = new ArrayList<>(passageiros.size());
+
+        faixa.lock();
+        try {
+            if (!contem(voo)) return adicionados;
+
+            for (Passageiro passageiro : passageiros) {
+                if (!voo.reservar(passageiro)) continue;
+
+                adicionados.add(passageiro);
+                pendente(Tipo.ADICIONAR_PASSAGEIRO, voo, passageiro);
+                registo.passageiroAdicionado(voo, passageiro);
+            }
+        } finally {
+            faixa.unlock();
+        }
+
+        aplicarSeNecessario();
+        return adicionados;
+    }
+
+    @Override
+    public boolean removerPassageiro(Voo voo, Passageiro passageiro) {
+        Lock faixa = faixa(chave(voo)).writeLock();
+
+        faixa.lock();
+        try {
+            if (!contem(voo) || !voo.cancelarReserva(passageiro)) return false;
+
+            pendente(Tipo.REMOVER_PASSAGEIRO, voo, passageiro);
+            registo.passageiroRemovido(voo, passageiro);
+        } finally {
+            faixa.unlock();
+        }
+
+        aplicarSeNecessario();
+        return true;
+    }
+
+    @Override
+    public void substituir(List<Voo> novosVoos) {
+        int bloqueadas = 0;
+        try {
+            // Com todas as faixas bloqueadas, nenhuma consulta está a aplicar a fila aos índices
+            for (; bloqueadas < NUM_FAIXAS; bloqueadas++) faixas[bloqueadas].writeLock().lock();
+
+            voos.clear();
+            ordem.clear();
+            pendentes.clear();
+            numPendentes.set(0);
+            remocoesPendentes.clear();
+            for (Indice indice : indices) indice.limpar();
+
+            for (Voo voo : novosVoos) {
+                long numOrdem = proximaOrdem.getAndIncrement();
+                if (voos.putIfAbsent(chave(voo), new Entrada(voo, numOrdem)) != null) continue;
+
+                ordem.put(numOrdem, voo);
+                for (Indice indice : indices) indice.adicionar(voo);
+            }
+        } finally {
+            while (bloqueadas > 0) faixas[--bloqueadas].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Voo> voos() {
+        return new ArrayList<>(ordem.values());
+    }
+
+    @Override
+    public int tamanho() {
+        return voos.size();
+    }
+
+    @Override
+    public <T, E extends Exception> T consultar(Consulta<T, E> consulta) throws E {
+        int bloqueadas = 0;
+        try {
+            for (; bloqueadas < NUM_FAIXAS; bloqueadas++) faixas[bloqueadas].readLock().lock();
+
+            aplicarFila();
+            return consulta.executar();
+        } finally {
+            while (bloqueadas > 0) faixas[--bloqueadas].readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica se um voo está no repositório. Tem de ser chamado com o lock da faixa do voo.
+     */
+    private boolean contem(Voo voo) {
+        Entrada entrada = voos.get(chave(voo));
+        return entrada != null && entrada.voo() == voo;
+    }
+
+    /**
+     * Acrescenta uma alteração à fila das alterações pendentes. Tem de ser chamado com o lock da faixa do voo.
+     */
+    private void pendente(Tipo tipo, Voo voo, Passageiro passageiro) {
+        pendentes.add(new Alteracao(tipo, voo, passageiro));
+        numPendentes.incrementAndGet();
+    }
+
+    /**
+     * Aplica as alterações pendentes aos índices se já forem pelo menos {@value #MAX_PENDENTES}. Tem de ser chamado
+     * sem o lock de nenhuma faixa.
+     */
+    private void aplicarSeNecessario() {
+        if (numPendentes.get() >= MAX_PENDENTES) aplicarPendentes();
+    }
+
+    /**
+     * Aplica as alterações pendentes aos índices, com os locks de leitura de todas as faixas.
+     */
+    private void aplicarPendentes() {
+        consultar(() -> null);
+    }
+
+    /**
+     * Aplica as alterações pendentes aos índices, pela ordem em que foram feitas. Tem de ser chamado com os locks de
+     * todas as faixas, por isso não há alterações em curso e os voos já incluem todas as alterações da fila.
+     */
+    private void aplicarFila() {
+        if (pendentes.isEmpty()) return;
+
+        lockIndices.lock();
+        try {
+            // Voos adicionados nesta aplicação: o seu estado atual já inclui as alterações de passageiros seguintes
+            Set<Voo> adicionados = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (Alteracao alteracao; (alteracao = pendentes.poll()) != null; ) {
+                Voo voo = alteracao.voo();
+
+                switch (alteracao.tipo()) {
+                    case ADICIONAR_VOO -> {
+                        adicionados.add(voo);
+                        for (Indice indice : indices) indice.adicionar(voo);
+                    }
+                    case REMOVER_VOO -> {
+                        adicionados.remove(voo);
+                        remocoesPendentes.remove(voo);
+                        for (Indice indice : indices) indice.remover(voo);
+                    }
+                    case ADICIONAR_PASSAGEIRO -> {
+                        if (adicionados.contains(voo)) continue;
+                        for (Indice indice : indices) indice.adicionarPassageiro(voo, alteracao.passageiro());
+                    }
+                    case REMOVER_PASSAGEIRO -> {
+                        if (adicionados.contains(voo)) continue;
+                        for (Indice indice : indices) indice.removerPassageiro(voo, alteracao.passageiro());
+                    }
+                }
+            }
+
+            numPendentes.set(0);
+        } finally {
+            lockIndices.unlock();
+        }
+    }
+
+    /**
+     * Retorna a chave de um voo.
+     */
+    private static Chave chave(Voo voo) {
+        return new Chave(voo.getNumVoo(), voo.getDataHoraPartida().toLocalDate());
+    }
+
+    /**
+     * Retorna o lock da faixa de uma chave.
+     */
+    private ReentrantReadWriteLock faixa(Chave chave) {
+        int hash = chave.hashCode();
+        return faixas[(hash ^ (hash >>> 16)) & (NUM_FAIXAS - 1)];
+    }
+}
@@ -0,0 +1,294 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.Voo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Classe que lê ficheiros de voos no formato de texto em paralelo.
+ * <p>
+ * O ficheiro é dividido em intervalos de bytes alinhados com o fim das linhas, que são lidos em paralelo numa
+ * {@link ForkJoinPool}. Os voos de cada intervalo são depois juntados pela ordem original do ficheiro.
+ * As linhas de cabeçalho do início do ficheiro (a tabela de pessoas do formato de texto versão 2) são lidas antes dos
+ * voos, de forma sequencial. Ficheiros pequenos são lidos sequencialmente.
+ *
+ * @author Ricardo Pereira
+ */
+public class CarregadorParalelo {
+    /**
+     * Propriedade de sistema que define o número de threads usadas na leitura (por omissão, o número de processadores).
+     */
+    public static final String PROPRIEDADE_THREADS = "companhiaaerea.threads";
+
+    /**
+     * Tamanho mínimo, em bytes, a partir do qual o ficheiro é lido em paralelo.
+     */
+    static final long TAMANHO_MINIMO_PARALELO = 8L * 1024 * 1024;
+
+    /**
+     * Tamanho máximo de cada intervalo do ficheiro, em bytes.
+     */
+    private static final long TAMANHO_MAXIMO_INTERVALO = 256L * 1024 * 1024;
+
+    /**
+     * Número de intervalos por thread, para equilibrar a carga entre threads.
+     */
+    private static final int INTERVALOS_POR_THREAD = 4;
+
+    /**
+     * Retorna o número de threads a usar, definido pela propriedade {@value #PROPRIEDADE_THREADS}.
+     *
+     * @return o número de threads a usar na leitura
+     */
+    public static int numThreads() {
+        return Math.max(1, Integer.getInteger(PROPRIEDADE_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Lê uma lista de voos de um ficheiro de texto, usando o número de threads configurado.
+     *
+     * @param path caminho do ficheiro
+     * @return a lista de voos, pela ordem do ficheiro
+     * @throws IOException se ocorrer um erro a ler o ficheiro ou uma linha não estiver no formato esperado
+     */
+    public static ArrayList<Voo> ler(Path path) throws IOException {
+        return ler(path, numThreads());
+    }
+
+    /**
+     * Lê uma lista de voos de um ficheiro de texto, usando o número de threads indicado.
+     * Se o ficheiro for pequeno ou for indicada apenas uma thread, a leitura é sequencial.
+     *
+     * @param path       caminho do ficheiro
+     * @param numThreads número de threads a usar
+     * @return a lista de voos, pela ordem do ficheiro
+     * @throws IOException se ocorrer um erro a ler o ficheiro ou uma linha não estiver no formato esperado
+     */
+    public static ArrayList<Voo> ler(Path path, int numThreads) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+
+            if (numThreads <= 1 || tamanho < TAMANHO_MINIMO_PARALELO) {
+                return File.lerTexto(path);
+            }
+
+            long inicioVoos = lerCabecalho(canal, tamanho);
+            boolean referencias = inicioVoos > 0;
+
+            long[] limites = dividir(canal, inicioVoos, tamanho, numThreads);
+            int numIntervalos = limites.length - 1;
+
+            List<ArrayList<Voo>> resultados = new ArrayList<>(Collections.nCopies(numIntervalos, null));
+
+            ForkJoinPool pool = new ForkJoinPool(numThreads);
+            try {
+                pool.invoke(new TarefaLeitura(canal, limites, referencias, resultados, 0, numIntervalos));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+
+            int total = 0;
+            for (ArrayList<Voo> resultado : resultados) total += resultado.size();
+
+            ArrayList<Voo> vooList = new ArrayList<>(total);
+            for (ArrayList<Voo> resultado : resultados) vooList.addAll(resultado);
+
+            return vooList;
+        }
+    }
+
+    /**
+     * Lê as linhas de cabeçalho do início do ficheiro (as que começam por {@value File#INICIO_CABECALHO}).
+     *
+     * @return a posição a seguir à última linha de cabeçalho, ou 0 se o ficheiro não tiver cabeçalho
+     */
+    private static long lerCabecalho(FileChannel canal, long tamanho) throws IOException {
+        ByteBuffer primeiro = ByteBuffer.allocate(1);
+        long fim = 0;
+
+        while (fim < tamanho) {
+            primeiro.clear();
+            if (canal.read(primeiro, fim) <= 0 || primeiro.get(0) != File.INICIO_CABECALHO) break;
+            fim = procurarInicioLinha(canal, fim, tamanho);
+        }
+
+        if (fim == 0) return 0;
+
+        MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, 0, fim);
+        CharBuffer caracteres = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+
+        LeitorRegistos leitor = new LeitorRegistos(
+                caracteres.array(),
+                caracteres.arrayOffset() + caracteres.position(),
+                caracteres.arrayOffset() + caracteres.limit()
+        );
+
+        while (leitor.proximaLinha()) {
+            File.lerCabecalho(leitor);
+        }
+
+        return fim;
+    }
+
+    /**
+     * Divide a parte do ficheiro entre as posições indicadas em intervalos de bytes, cada um a começar no início de
+     * uma linha.
+     *
+     * @return as posições dos limites dos intervalos (o primeiro é o início e o último é o tamanho do ficheiro)
+     */
+    private static long[] dividir(FileChannel canal, long inicio, long tamanho, int numThreads) throws IOException {
+        long tamanhoVoos = tamanho - inicio;
+        int numIntervalos = (int) Math.max(
+                (long) numThreads * INTERVALOS_POR_THREAD,
+                tamanhoVoos / TAMANHO_MAXIMO_INTERVALO + 1
+        );
+
+        long[] limites = new long[numIntervalos + 1];
+        limites[0] = inicio;
+        int n = 1;
+
+        for (int i = 1; i < numIntervalos; i++) {
+            long posicao = Math.max(inicio + tamanhoVoos * i / numIntervalos, limites[n - 1]);
+            long inicioLinha = procurarInicioLinha(canal, posicao, tamanho);
+
+            if (inicioLinha > limites[n - 1] && inicioLinha < tamanho) {
+                limites[n++] = inicioLinha;
+            }
+        }
+
+        limites[n++] = tamanho;
+
+        long[] resultado = new long[n];
+        System.arraycopy(limites, 0, resultado, 0, n);
+        return resultado;
+    }
+
+    /**
+     * Procura a posição a seguir ao primeiro '\n' a partir da posição indicada.
+     *
+     * @return a posição do início da linha seguinte, ou o tamanho do ficheiro se não existir
+     */
+    private static long procurarInicioLinha(FileChannel canal, long posicao, long tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+
+        while (posicao < tamanho) {
+            buffer.clear();
+            int lidos = canal.read(buffer, posicao);
+            if (lidos <= 0) break;
+
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') return posicao + i + 1;
+            }
+            posicao += lidos;
+        }
+
+        return tamanho;
+    }
+
+    /**
+     * Tarefa que lê um conjunto de intervalos do ficheiro, dividindo-se em subtarefas até restar um único intervalo.
+     */
+    private static class TarefaLeitura extends RecursiveAction {
+        /**
+         * Versão da serialização.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Canal do ficheiro a ler.
+         */
+        private final transient FileChannel canal;
+
+        /**
+         * Limites de todos os intervalos do ficheiro.
+         */
+        private final long[] limites;
+
+        /**
+         * Indica se os voos referem as pessoas pelo número de identificação (formato de texto versão 2).
+         */
+        private final boolean referencias;
+
+        /**
+         * Resultados de todos os intervalos, pela ordem do ficheiro (cada tarefa só altera a posição do seu intervalo).
+         */
+        private final transient List<ArrayList<Voo>> resultados;
+
+        /**
+         * Primeiro intervalo desta tarefa (inclusivo).
+         */
+        private final int de;
+
+        /**
+         * Último intervalo desta tarefa (exclusivo).
+         */
+        private final int ate;
+
+        TarefaLeitura(FileChannel canal, long[] limites, boolean referencias, List<ArrayList<Voo>> resultados, int de, int ate) {
+            this.canal = canal;
+            this.limites = limites;
+            this.referencias = referencias;
+            this.resultados = resultados;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de > 1) {
+                int meio = (de + ate) >>> 1;
+                invokeAll(
+                        new TarefaLeitura(canal, limites, referencias, resultados, de, meio),
+                        new TarefaLeitura(canal, limites, referencias, resultados, meio, ate)
+                );
+                return;
+            }
+
+            try {
+                resultados.set(de, lerIntervalo(limites[de], limites[de + 1]));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Lê os voos de um intervalo do ficheiro.
+         */
+        private ArrayList<Voo> lerIntervalo(long inicio, long fim) throws IOException {
+            MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+            CharBuffer caracteres = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+
+            LeitorRegistos leitor = new LeitorRegistos(
+                    caracteres.array(),
+                    caracteres.arrayOffset() + caracteres.position(),
+                    caracteres.arrayOffset() + caracteres.limit()
+            );
+
+            ArrayList<Voo> vooList = new ArrayList<>();
+            try {
+                while (leitor.proximaLinha()) {
+                    vooList.add(File.lerVoo(leitor, referencias));
+                }
+            } catch (IOException e) {
+                throw new IOException("Erro no bloco que começa no byte " + inicio + ": " + e.getMessage(), e);
+            }
+
+            return vooList;
+        }
+    }
+}
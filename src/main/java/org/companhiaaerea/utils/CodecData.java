@@ -0,0 +1,266 @@
+package org.companhiaaerea.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Classe com a conversão das datas e horas nos formatos fixos usados pela aplicação: dd/MM/aaaa e dd/MM/aaaa HH:mm na
+ * consola, e ISO-8601 (aaaa-MM-dd e aaaa-MM-ddTHH:mm, com segundos opcionais) nos ficheiros, no diário e na API HTTP.
+ * <p>
+ * As datas são interpretadas diretamente a partir de um intervalo de caracteres, sem criar strings intermédias nem
+ * {@link java.time.format.DateTimeFormatter}, e são convertidas diretamente para dias e minutos desde a época (UTC), a
+ * representação usada pelos índices e pelo ficheiro binário. Os métodos que retornam dias ou minutos retornam
+ * {@link #INVALIDA} se o texto não for uma data válida, e os que retornam objetos retornam null, para que quem os chama
+ * decida como apresentar o erro.
+ *
+ * @author Ricardo Pereira
+ */
+public class CodecData {
+    /**
+     * Número de minutos de um dia.
+     */
+    public static final long MINUTOS_DIA = 24 * 60;
+
+    /**
+     * Valor retornado, em dias ou minutos, quando o texto não é uma data válida.
+     */
+    public static final long INVALIDA = Long.MIN_VALUE;
+
+    /**
+     * Dias de um ciclo de 400 anos do calendário gregoriano.
+     */
+    private static final long DIAS_CICLO = 146_097;
+
+    /**
+     * Dias entre 1 de março do ano 0 e 1 de janeiro de 1970.
+     */
+    private static final long DIAS_ATE_EPOCA = 719_468;
+
+    /**
+     * Converte uma data do calendário em dias desde a época.
+     *
+     * @param ano ano (0 a 9999)
+     * @param mes mês (1 a 12)
+     * @param dia dia do mês
+     * @return os dias desde a época, ou {@link #INVALIDA} se a data não existir
+     */
+    public static long diaEpoca(int ano, int mes, int dia) {
+        if (ano < 0 || mes < 1 || mes > 12 || dia < 1 || dia > diasMes(ano, mes)) return INVALIDA;
+
+        // Os anos começam em março, para que o dia 29 de fevereiro seja o último dia do ano
+        int anoMarco = mes <= 2 ? ano - 1 : ano;
+        int ciclo = Math.floorDiv(anoMarco, 400);
+        int anoCiclo = anoMarco - ciclo * 400;
+        int diaAno = (153 * (mes > 2 ? mes - 3 : mes + 9) + 2) / 5 + dia - 1;
+        int diaCiclo = anoCiclo * 365 + anoCiclo / 4 - anoCiclo / 100 + diaAno;
+
+        return ciclo * DIAS_CICLO + diaCiclo - DIAS_ATE_EPOCA;
+    }
+
+    /**
+     * Converte uma data em minutos desde a época, no início do dia.
+     *
+     * @param data data a converter
+     * @return os minutos desde a época
+     */
+    public static long minutos(LocalDate data) {
+        return data.toEpochDay() * MINUTOS_DIA;
+    }
+
+    /**
+     * Converte uma data e hora em minutos desde a época, ignorando os segundos.
+     *
+     * @param dataHora data e hora a converter
+     * @return os minutos desde a época
+     */
+    public static long minutos(LocalDateTime dataHora) {
+        return dataHora.toLocalDate().toEpochDay() * MINUTOS_DIA + dataHora.getHour() * 60 + dataHora.getMinute();
+    }
+
+    /**
+     * Converte minutos desde a época numa data e hora.
+     *
+     * @param minutos minutos desde a época
+     * @return a data e hora correspondente
+     */
+    public static LocalDateTime dataHora(long minutos) {
+        int minutoDia = (int) Math.floorMod(minutos, MINUTOS_DIA);
+        return LocalDate.ofEpochDay(Math.floorDiv(minutos, MINUTOS_DIA)).atTime(minutoDia / 60, minutoDia % 60);
+    }
+
+    /**
+     * Interpreta uma data no formato ISO-8601 (aaaa-MM-dd).
+     *
+     * @param caracteres caracteres com a data
+     * @param inicio     posição do primeiro carácter da data
+     * @param fim        posição a seguir ao último carácter da data
+     * @return os dias desde a época, ou {@link #INVALIDA} se o texto não for uma data válida
+     */
+    public static long diaIso(char[] caracteres, int inicio, int fim) {
+        if (fim - inicio != 10 || caracteres[inicio + 4] != '-' || caracteres[inicio + 7] != '-') return INVALIDA;
+
+        return diaEpoca(
+                digitos(caracteres, inicio, inicio + 4),
+                digitos(caracteres, inicio + 5, inicio + 7),
+                digitos(caracteres, inicio + 8, inicio + 10)
+        );
+    }
+
+    /**
+     * Interpreta uma data no formato dd/MM/aaaa.
+     *
+     * @param caracteres caracteres com a data
+     * @param inicio     posição do primeiro carácter da data
+     * @param fim        posição a seguir ao último carácter da data
+     * @return os dias desde a época, ou {@link #INVALIDA} se o texto não for uma data válida
+     */
+    public static long diaPt(char[] caracteres, int inicio, int fim) {
+        if (fim - inicio != 10 || caracteres[inicio + 2] != '/' || caracteres[inicio + 5] != '/') return INVALIDA;
+
+        return diaEpoca(
+                digitos(caracteres, inicio + 6, inicio + 10),
+                digitos(caracteres, inicio + 3, inicio + 5),
+                digitos(caracteres, inicio, inicio + 2)
+        );
+    }
+
+    /**
+     * Interpreta uma data e hora no formato dd/MM/aaaa HH:mm.
+     *
+     * @param caracteres caracteres com a data e hora
+     * @param inicio     posição do primeiro carácter da data e hora
+     * @param fim        posição a seguir ao último carácter da data e hora
+     * @return os minutos desde a época, ou {@link #INVALIDA} se o texto não for uma data e hora válida
+     */
+    public static long minutosPt(char[] caracteres, int inicio, int fim) {
+        if (fim - inicio != 16 || caracteres[inicio + 10] != ' ') return INVALIDA;
+
+        long dia = diaPt(caracteres, inicio, inicio + 10);
+        int minutoDia = minutoDia(caracteres, inicio + 11);
+        if (dia == INVALIDA || minutoDia < 0) return INVALIDA;
+
+        return dia * MINUTOS_DIA + minutoDia;
+    }
+
+    /**
+     * Interpreta uma data e hora no formato ISO-8601 (aaaa-MM-ddTHH:mm, com segundos e frações de segundo opcionais),
+     * tal como é produzido por {@link LocalDateTime#toString()}.
+     *
+     * @param caracteres caracteres com a data e hora
+     * @param inicio     posição do primeiro carácter da data e hora
+     * @param fim        posição a seguir ao último carácter da data e hora
+     * @return a data e hora, ou null se o texto não for uma data e hora válida
+     */
+    public static LocalDateTime dataHoraIso(char[] caracteres, int inicio, int fim) {
+        int comprimento = fim - inicio;
+        if (comprimento < 16 || caracteres[inicio + 10] != 'T') return null;
+
+        long dia = diaIso(caracteres, inicio, inicio + 10);
+        int minutoDia = minutoDia(caracteres, inicio + 11);
+        if (dia == INVALIDA || minutoDia < 0) return null;
+
+        int segundos = 0;
+        int nanos = 0;
+
+        if (comprimento > 16) {
+            if (comprimento < 19 || caracteres[inicio + 16] != ':') return null;
+            segundos = digitos(caracteres, inicio + 17, inicio + 19);
+            if (segundos < 0 || segundos > 59) return null;
+
+            if (comprimento > 19) {
+                if (comprimento < 21 || comprimento > 29 || caracteres[inicio + 19] != '.') return null;
+                nanos = digitos(caracteres, inicio + 20, fim);
+                if (nanos < 0) return null;
+                for (int i = comprimento - 20; i < 9; i++) nanos *= 10;
+            }
+        }
+
+        return LocalDate.ofEpochDay(dia).atTime(minutoDia / 60, minutoDia % 60, segundos, nanos);
+    }
+
+    /**
+     * Interpreta uma data no formato ISO-8601 (aaaa-MM-dd).
+     *
+     * @param texto texto com a data
+     * @return a data, ou null se o texto não for uma data válida
+     */
+    public static LocalDate dataIso(String texto) {
+        return data(diaIso(texto.toCharArray(), 0, texto.length()));
+    }
+
+    /**
+     * Interpreta uma data no formato dd/MM/aaaa.
+     *
+     * @param texto texto com a data
+     * @return a data, ou null se o texto não for uma data válida
+     */
+    public static LocalDate dataPt(String texto) {
+        return data(diaPt(texto.toCharArray(), 0, texto.length()));
+    }
+
+    /**
+     * Interpreta uma data e hora no formato ISO-8601 (aaaa-MM-ddTHH:mm, com segundos opcionais).
+     *
+     * @param texto texto com a data e hora
+     * @return a data e hora, ou null se o texto não for uma data e hora válida
+     */
+    public static LocalDateTime dataHoraIso(String texto) {
+        return dataHoraIso(texto.toCharArray(), 0, texto.length());
+    }
+
+    /**
+     * Interpreta uma data e hora no formato dd/MM/aaaa HH:mm.
+     *
+     * @param texto texto com a data e hora
+     * @return a data e hora, ou null se o texto não for uma data e hora válida
+     */
+    public static LocalDateTime dataHoraPt(String texto) {
+        long minutos = minutosPt(texto.toCharArray(), 0, texto.length());
+        return minutos == INVALIDA ? null : dataHora(minutos);
+    }
+
+    /**
+     * Converte dias desde a época numa data, ou em null se forem {@link #INVALIDA}.
+     */
+    private static LocalDate data(long dia) {
+        return dia == INVALIDA ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Interpreta uma hora no formato HH:mm, a começar na posição indicada.
+     *
+     * @return o minuto do dia, ou -1 se a hora for inválida
+     */
+    private static int minutoDia(char[] caracteres, int inicio) {
+        if (caracteres[inicio + 2] != ':') return -1;
+
+        int hora = digitos(caracteres, inicio, inicio + 2);
+        int minuto = digitos(caracteres, inicio + 3, inicio + 5);
+        if (hora < 0 || hora > 23 || minuto < 0 || minuto > 59) return -1;
+
+        return hora * 60 + minuto;
+    }
+
+    /**
+     * Converte os dígitos no intervalo indicado (no máximo 9) num número.
+     *
+     * @return o número, ou -1 se algum carácter não for um dígito
+     */
+    private static int digitos(char[] caracteres, int inicio, int fim) {
+        int valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            int digito = caracteres[i] - '0';
+            if (digito < 0 || digito > 9) return -1;
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    /**
+     * Retorna o número de dias de um mês.
+     */
+    private static int diasMes(int ano, int mes) {
+        if (mes == 2) return (ano % 4 == 0 && (ano % 100 != 0 || ano % 400 == 0)) ? 29 : 28;
+        return mes == 4 || mes == 6 || mes == 9 || mes == 11 ? 30 : 31;
+    }
+}
@@ -3,6 +3,7 @@ package org.companhiaaerea.utils;
 import org.companhiaaerea.Tripulante;
 
 import java.util.Scanner;
+import java.util.regex.Pattern;
 
 /**
  * Classe Console que contém métodos estáticos para interação com o utilizador através do terminal.
@@ -45,14 +46,30 @@ public class Console {
      * @return a String lida e validada do utilizador
      */
     public static String lerString(String mensagem, String regex, String mensagemErro) {
-        String valor;
-        do {
-            valor = lerString(mensagem);
-            if (!valor.matches(regex)) {
-                System.out.println(mensagemErro);
-            }
-        } while (!valor.matches(regex));
-        return valor;
+        Pattern padrao = Validacao.padrao(regex);
+        while (true) {
+            String valor = lerString(mensagem);
+            if (padrao.matcher(valor).matches()) return valor;
+
+            System.out.println(mensagemErro);
+        }
+    }
+
+    /**
+     * Método que lê uma String do utilizador, validando a entrada com uma regra de validação
+     *
+     * @param mensagem     mensagem a ser exibida para o utilizador
+     * @param regra        regra de validação da entrada
+     * @param mensagemErro mensagem a ser exibida caso a entrada seja inválida
+     * @return a String lida e validada do utilizador
+     */
+    public static String lerString(String mensagem, Validacao.Regra regra, String mensagemErro) {
+        while (true) {
+            String valor = lerString(mensagem);
+            if (regra.valida(valor)) return valor;
+
+            System.out.println(mensagemErro);
+        }
     }
 
     /**
@@ -63,7 +80,19 @@ public class Console {
      * @return o inteiro lido e validado do utilizador
      */
     public static int lerInt(String mensagem, String mensagemErro) {
-        return Integer.parseInt(lerString(mensagem, "[0-9]+", mensagemErro));
+        return Integer.parseInt(lerString(mensagem, Validacao.Regra.NUMERO, mensagemErro));
+    }
+
+    /**
+     * Método que lê um inteiro do utilizador, validando a entrada com uma regra de validação
+     *
+     * @param mensagem     mensagem a ser exibida para o utilizador
+     * @param regra        regra de validação da entrada
+     * @param mensagemErro mensagem a ser exibida caso a entrada seja inválida
+     * @return o inteiro lido e validado do utilizador
+     */
+    public static int lerInt(String mensagem, Validacao.Regra regra, String mensagemErro) {
+        return Integer.parseInt(lerString(mensagem, regra, mensagemErro));
     }
 
     /**
@@ -0,0 +1,442 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.indices.IndiceVoos;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.companhiaaerea.utils.File.PATH_PASTA;
+
+/**
+ * Diário de alterações de um ficheiro de voos.
+ * <p>
+ * Em vez de reescrever o ficheiro inteiro a cada alteração, cada alteração (adicionar ou remover um voo, adicionar ou
+ * remover um passageiro) é acrescentada ao fim do diário, um registo por linha. Ao ler o ficheiro de voos, as alterações
+ * do diário são aplicadas por ordem. Quando o diário ultrapassa o tamanho limite, o ficheiro de voos é reescrito com
+ * todas as alterações e o diário é esvaziado (compactação).
+ * <p>
+ * Como o ficheiro de voos é gravado em segundo plano ({@link GravadorFicheiros}), na compactação o diário atual passa
+ * primeiro a diário anterior e só é apagado depois de o ficheiro de voos estar gravado. Até lá, a leitura aplica os dois.
+ * <p>
+ * A aplicação das alterações é idempotente: voltar a aplicar um registo que já está refletido nos voos não tem efeito.
+ * <p>
+ * Os registos são feitos pelo repositório durante cada alteração
+ * ({@link org.companhiaaerea.repositorio.RepositorioVoos.RegistoAlteracoes}), e alterações a voos diferentes podem ser
+ * registadas ao mesmo tempo. Cada registo é formatado pela thread que o faz e acrescentado a uma fila; a thread que
+ * obtém o lock de escrita escreve todos os registos da fila de uma vez, e as outras não esperam por ela. A compactação
+ * e o fecho do diário são feitos numa consulta ao repositório, quando não há alterações em curso.
+ *
+ * @author Ricardo Pereira
+ */
+public class Diario {
+    /**
+     * Extensão dos ficheiros de diário.
+     */
+    public static final String EXTENSAO = ".diario";
+
+    /**
+     * Extensão do diário anterior, que aguarda a gravação do ficheiro de voos para ser apagado.
+     */
+    public static final String EXTENSAO_ANTERIOR = ".diario.anterior";
+
+    /**
+     * Propriedade de sistema que define o tamanho, em bytes, a partir do qual o diário é compactado.
+     */
+    public static final String PROPRIEDADE_LIMITE = "companhiaaerea.diario.limite";
+
+    /**
+     * Tamanho por omissão, em bytes, a partir do qual o diário é compactado.
+     */
+    static final long LIMITE_POR_OMISSAO = 4L * 1024 * 1024;
+
+    /**
+     * Tipo de registo: voo adicionado.
+     */
+    public static final String ADICIONAR_VOO = "+V";
+
+    /**
+     * Tipo de registo: voo removido.
+     */
+    public static final String REMOVER_VOO = "-V";
+
+    /**
+     * Tipo de registo: passageiro adicionado a um voo.
+     */
+    public static final String ADICIONAR_PASSAGEIRO = "+P";
+
+    /**
+     * Tipo de registo: passageiro removido de um voo.
+     */
+    public static final String REMOVER_PASSAGEIRO = "-P";
+
+    /**
+     * Alteração a registar num diário.
+     */
+    @FunctionalInterface
+    public interface Alteracao {
+        /**
+         * Escreve a alteração no diário.
+         *
+         * @param diario diário onde a alteração é registada
+         * @throws IOException se ocorrer um erro a escrever no diário
+         */
+        void registar(Diario diario) throws IOException;
+    }
+
+    /**
+     * Nome (sem extensão) do ficheiro de voos a que o diário pertence.
+     */
+    private final String nomeFicheiro;
+
+    /**
+     * Caminho do ficheiro do diário.
+     */
+    private final Path path;
+
+    /**
+     * Tamanho a partir do qual o diário é compactado.
+     */
+    private final long limite;
+
+    /**
+     * Writer usado para acrescentar registos ao diário.
+     */
+    private BufferedWriter writer;
+
+    /**
+     * Registos formatados que ainda não foram escritos no diário, pela ordem em que foram feitos.
+     */
+    private final ConcurrentLinkedQueue<String> pendentes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Lock da escrita no diário.
+     */
+    private final ReentrantLock lockEscrita = new ReentrantLock();
+
+    /**
+     * Cria um diário para o ficheiro de voos indicado.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     */
+    private Diario(String nomeFicheiro) {
+        this.nomeFicheiro = nomeFicheiro;
+        this.path = pathDiario(nomeFicheiro);
+        this.limite = Long.getLong(PROPRIEDADE_LIMITE, LIMITE_POR_OMISSAO);
+    }
+
+    /**
+     * Retorna o caminho do diário de um ficheiro de voos.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     * @return o caminho do diário
+     */
+    public static Path pathDiario(String nomeFicheiro) {
+        return Path.of(PATH_PASTA, nomeFicheiro + EXTENSAO);
+    }
+
+    /**
+     * Retorna o caminho do diário anterior de um ficheiro de voos.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     * @return o caminho do diário anterior
+     */
+    public static Path pathDiarioAnterior(String nomeFicheiro) {
+        return Path.of(PATH_PASTA, nomeFicheiro + EXTENSAO_ANTERIOR);
+    }
+
+    /**
+     * Abre (ou cria) o diário de um ficheiro de voos, para acrescentar registos.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     * @return o diário aberto
+     * @throws IOException se ocorrer um erro a abrir o diário
+     */
+    public static Diario abrir(String nomeFicheiro) throws IOException {
+        Diario diario = new Diario(nomeFicheiro);
+        diario.writer = Files.newBufferedWriter(diario.path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return diario;
+    }
+
+    /**
+     * Retorna o nome (sem extensão) do ficheiro de voos a que o diário pertence.
+     *
+     * @return o nome do ficheiro de voos
+     */
+    public String getNomeFicheiro() {
+        return nomeFicheiro;
+    }
+
+    /**
+     * Regista a adição de um voo.
+     *
+     * @param voo voo adicionado
+     * @throws IOException se ocorrer um erro a escrever no diário
+     */
+    public void registarAdicaoVoo(Voo voo) throws IOException {
+        StringWriter registo = new StringWriter();
+        registo.write(ADICIONAR_VOO + ";");
+        File.escreverVoo(voo, registo);
+        terminarRegisto(registo);
+    }
+
+    /**
+     * Regista a remoção de um voo.
+     *
+     * @param voo voo removido
+     * @throws IOException se ocorrer um erro a escrever no diário
+     */
+    public void registarRemocaoVoo(Voo voo) throws IOException {
+        StringWriter registo = new StringWriter();
+        registo.write(REMOVER_VOO + ";");
+        escreverChave(voo, registo);
+        terminarRegisto(registo);
+    }
+
+    /**
+     * Regista a adição de um passageiro a um voo.
+     *
+     * @param voo        voo alterado
+     * @param passageiro passageiro adicionado
+     * @throws IOException se ocorrer um erro a escrever no diário
+     */
+    public void registarAdicaoPassageiro(Voo voo, Passageiro passageiro) throws IOException {
+        StringWriter registo = new StringWriter();
+        registo.write(ADICIONAR_PASSAGEIRO + ";");
+        escreverChave(voo, registo);
+        File.escreverPassageiro(passageiro, registo);
+        terminarRegisto(registo);
+    }
+
+    /**
+     * Regista a remoção de um passageiro de um voo.
+     *
+     * @param voo        voo alterado
+     * @param passageiro passageiro removido
+     * @throws IOException se ocorrer um erro a escrever no diário
+     */
+    public void registarRemocaoPassageiro(Voo voo, Passageiro passageiro) throws IOException {
+        StringWriter registo = new StringWriter();
+        registo.write(REMOVER_PASSAGEIRO + ";");
+        escreverChave(voo, registo);
+        registo.write(passageiro.getNumIdentificacao() + ";");
+        terminarRegisto(registo);
+    }
+
+    /**
+     * Verifica se o diário já ultrapassou o tamanho limite e deve ser compactado.
+     *
+     * @return true se o diário deve ser compactado
+     * @throws IOException se ocorrer um erro a ler o tamanho do diário
+     */
+    public boolean precisaCompactar() throws IOException {
+        return Files.size(path) >= limite;
+    }
+
+    /**
+     * Compacta o diário: agenda a gravação do ficheiro de voos com a lista atual (mantendo o seu formato) e passa a
+     * registar as alterações seguintes num diário vazio.
+     *
+     * @param vooList lista atual de voos, que já inclui todas as alterações registadas
+     * @throws IOException se ocorrer um erro a mudar de diário
+     */
+    public void compactar(List<Voo> vooList) throws IOException {
+        Path pathFicheiro = Path.of(PATH_PASTA, nomeFicheiro + File.EXTENSAO);
+        boolean binario = Files.exists(pathFicheiro) && FicheiroBinario.isBinario(pathFicheiro);
+
+        lockEscrita.lock();
+        try {
+            escreverFila();
+            writer.close();
+            guardarFicheiro(nomeFicheiro, vooList, binario);
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } finally {
+            lockEscrita.unlock();
+        }
+    }
+
+    /**
+     * Agenda a gravação de um ficheiro de voos em segundo plano. O diário existente do ficheiro passa a diário anterior,
+     * que é apagado quando o ficheiro estiver gravado (porque o ficheiro já inclui essas alterações).
+     * O diário do ficheiro não pode estar aberto para escrita.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     * @param vooList      lista de voos a guardar
+     * @param binario      true para o formato binário, false para o formato de texto
+     * @throws IOException se ocorrer um erro a mudar de diário
+     */
+    public static void guardarFicheiro(String nomeFicheiro, List<Voo> vooList, boolean binario) throws IOException {
+        Path pathDiario = pathDiario(nomeFicheiro);
+        Path pathAnterior = pathDiarioAnterior(nomeFicheiro);
+
+        // Se ainda existir um diário anterior, espera que a gravação que o vai apagar termine
+        if (Files.exists(pathAnterior)) GravadorFicheiros.aguardar();
+
+        if (Files.exists(pathDiario)) {
+            if (Files.exists(pathAnterior)) {
+                // A gravação anterior falhou, junta os dois diários
+                Files.write(pathAnterior, Files.readAllBytes(pathDiario), StandardOpenOption.APPEND);
+                Files.delete(pathDiario);
+            } else {
+                Files.move(pathDiario, pathAnterior, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        GravadorFicheiros.agendar(
+                Path.of(PATH_PASTA, nomeFicheiro + File.EXTENSAO),
+                vooList,
+                binario,
+                () -> Files.deleteIfExists(pathAnterior)
+        );
+    }
+
+    /**
+     * Fecha o diário.
+     *
+     * @throws IOException se ocorrer um erro a fechar o diário
+     */
+    public void fechar() throws IOException {
+        lockEscrita.lock();
+        try {
+            escreverFila();
+            writer.close();
+        } finally {
+            lockEscrita.unlock();
+        }
+    }
+
+    /**
+     * Aplica à lista de voos as alterações registadas nos diários (anterior e atual) de um ficheiro de voos.
+     *
+     * @param nomeFicheiro nome (sem extensão) do ficheiro de voos
+     * @param vooList      lista de voos lida do ficheiro, a alterar
+     * @throws IOException se ocorrer um erro a ler os diários
+     */
+    public static void reproduzir(String nomeFicheiro, List<Voo> vooList) throws IOException {
+        IndiceVoos indice = new IndiceVoos(vooList);
+        reproduzir(pathDiarioAnterior(nomeFicheiro), indice);
+        reproduzir(pathDiario(nomeFicheiro), indice);
+    }
+
+    /**
+     * Aplica à lista de voos, por ordem, as alterações registadas num diário.
+     * Se o diário não existir, a lista não é alterada. Se um registo estiver incompleto (por exemplo, porque o programa
+     * terminou a meio da escrita), esse registo e os seguintes são ignorados.
+     *
+     * @param pathDiario caminho do diário
+     * @param vooList    lista de voos a alterar
+     * @throws IOException se ocorrer um erro a ler o diário
+     */
+    public static void reproduzir(Path pathDiario, List<Voo> vooList) throws IOException {
+        reproduzir(pathDiario, new IndiceVoos(vooList));
+    }
+
+    /**
+     * Aplica à lista de voos de um índice, por ordem, as alterações registadas num diário.
+     */
+    private static void reproduzir(Path pathDiario, IndiceVoos indice) throws IOException {
+        if (!Files.exists(pathDiario)) return;
+
+        try (Reader reader = Files.newBufferedReader(pathDiario, StandardCharsets.UTF_8)) {
+            LeitorRegistos leitor = new LeitorRegistos(reader);
+
+            while (leitor.proximaLinha()) {
+                try {
+                    aplicar(leitor, indice);
+                } catch (IOException e) {
+                    System.out.println("Registo inválido no diário, as alterações seguintes foram ignoradas: " + e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica o registo da linha atual do leitor à lista de voos.
+     */
+    private static void aplicar(LeitorRegistos leitor, IndiceVoos indice) throws IOException {
+        if (leitor.consumirSe(ADICIONAR_VOO)) {
+            indice.adicionar(File.lerVoo(leitor));
+        } else if (leitor.consumirSe(REMOVER_VOO)) {
+            Voo voo = procurar(indice, leitor.lerString(), leitor.lerDataHora());
+            if (voo != null) {
+                indice.remover(voo);
+            }
+        } else if (leitor.consumirSe(ADICIONAR_PASSAGEIRO)) {
+            Voo voo = procurar(indice, leitor.lerString(), leitor.lerDataHora());
+            Passageiro passageiro = File.lerPassageiro(leitor);
+            if (voo != null && voo.procurarPassageiro(passageiro.getNumIdentificacao()) == null) {
+                voo.getPassageiros().add(passageiro);
+            }
+        } else if (leitor.consumirSe(REMOVER_PASSAGEIRO)) {
+            Voo voo = procurar(indice, leitor.lerString(), leitor.lerDataHora());
+            int numIdentificacao = leitor.lerInt();
+            if (voo != null) {
+                Passageiro passageiro = voo.procurarPassageiro(numIdentificacao);
+                if (passageiro != null) voo.getPassageiros().remove(passageiro);
+            }
+        } else {
+            throw new IOException("Linha " + leitor.getNumLinha() + ": tipo de registo desconhecido.");
+        }
+    }
+
+    /**
+     * Procura um voo pelo número e pela data e hora de partida.
+     */
+    private static Voo procurar(IndiceVoos indice, String numVoo, LocalDateTime dataHoraPartida) {
+        Voo voo = indice.procurar(numVoo, dataHoraPartida.toLocalDate());
+        return voo != null && voo.getDataHoraPartida().equals(dataHoraPartida) ? voo : null;
+    }
+
+    /**
+     * Escreve os campos que identificam um voo (número e data e hora de partida).
+     */
+    private static void escreverChave(Voo voo, Writer registo) throws IOException {
+        registo.write(voo.getNumVoo() + ";");
+        registo.write(voo.getDataHoraPartida().toString() + ";");
+    }
+
+    /**
+     * Termina um registo, acrescenta-o à fila e escreve a fila no ficheiro, se nenhuma outra thread o estiver a fazer.
+     * Depois de largar o lock, a thread volta a verificar a fila, por isso um registo acrescentado enquanto outra
+     * thread escrevia não fica por escrever.
+     */
+    private void terminarRegisto(StringWriter registo) throws IOException {
+        registo.write(System.lineSeparator());
+        pendentes.add(registo.toString());
+
+        while (!pendentes.isEmpty() && lockEscrita.tryLock()) {
+            try {
+                escreverFila();
+            } finally {
+                lockEscrita.unlock();
+            }
+        }
+    }
+
+    /**
+     * Escreve no ficheiro todos os registos da fila. Tem de ser chamado com o lock de escrita.
+     */
+    private void escreverFila() throws IOException {
+        String registo = pendentes.poll();
+        if (registo == null) return;
+
+        for (; registo != null; registo = pendentes.poll()) writer.write(registo);
+        writer.flush();
+    }
+}
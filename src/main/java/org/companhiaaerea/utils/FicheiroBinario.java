@@ -0,0 +1,587 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Classe que contém os métodos para guardar e ler voos no formato binário.
+ * <p>
+ * O ficheiro começa com um cabeçalho fixo de 16 bytes (identificador "VOOB", versão, número de voos e número de pessoas).
+ * A partir da versão 2, seguem-se os registos das pessoas (os dados de cada passageiro e tripulante, uma única vez), com
+ * um cabeçalho fixo de 12 bytes (comprimento do registo, tipo de pessoa e um campo reservado). Cada voo é guardado num
+ * registo com um cabeçalho fixo de 12 bytes (comprimento do registo, número de passageiros e número de tripulantes),
+ * seguido dos campos do voo; na versão 2 os voos referem as pessoas pelo número de identificação. As strings são guardadas com o comprimento em bytes (2 bytes) seguido
+ * dos bytes em UTF-8, as datas como dias desde a época (int) e as datas com hora como segundos desde a época em UTC (long).
+ * A leitura é feita através de um {@link MappedByteBuffer}, sem passar por conversões de texto.
+ * Os lugares dos passageiros seguem a mesma disposição do formato de texto ({@link File#VERSAO_TEXTO}).
+ *
+ * @author Ricardo Pereira
+ */
+public class FicheiroBinario {
+    /**
+     * Identificador do formato binário ("VOOB"), guardado nos primeiros 4 bytes do ficheiro.
+     */
+    public static final int IDENTIFICADOR = 0x564F4F42;
+
+    /**
+     * Versão atual do formato binário.
+     */
+    public static final int VERSAO = 2;
+
+    /**
+     * Primeira versão com os registos das pessoas separados dos voos.
+     */
+    private static final int VERSAO_PESSOAS = 2;
+
+    /**
+     * Tipo de pessoa dos registos de passageiros.
+     */
+    private static final int PESSOA_PASSAGEIRO = 0;
+
+    /**
+     * Tipo de pessoa dos registos de tripulantes.
+     */
+    private static final int PESSOA_TRIPULANTE = 1;
+
+    /**
+     * Tamanho do cabeçalho do ficheiro, em bytes.
+     */
+    static final int TAMANHO_CABECALHO = 16;
+
+    /**
+     * Tamanho do cabeçalho de cada registo de voo, em bytes.
+     */
+    static final int TAMANHO_CABECALHO_REGISTO = 12;
+
+    /**
+     * Comprimento usado para representar uma string nula.
+     */
+    private static final int STRING_NULA = 0xFFFF;
+
+    /**
+     * Valor usado para representar uma data nula.
+     */
+    private static final long DATA_NULA = Long.MIN_VALUE;
+
+    /**
+     * Tamanho máximo da região do ficheiro mapeada em memória de cada vez.
+     */
+    private static final long TAMANHO_JANELA = 256L * 1024 * 1024;
+
+    /**
+     * Tamanho do buffer de escrita.
+     */
+    private static final int TAMANHO_BUFFER = 1024 * 1024;
+
+    /**
+     * Verifica se um ficheiro está no formato binário, lendo o identificador do cabeçalho.
+     *
+     * @param path caminho do ficheiro
+     * @return true se o ficheiro começar com o identificador do formato binário
+     * @throws IOException se ocorrer um erro a ler o ficheiro
+     */
+    public static boolean isBinario(Path path) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(4);
+            while (cabecalho.hasRemaining()) {
+                if (canal.read(cabecalho) < 0) return false;
+            }
+            return cabecalho.getInt(0) == IDENTIFICADOR;
+        }
+    }
+
+    /**
+     * Guarda uma lista de voos num ficheiro no formato binário.
+     *
+     * @param vooList lista de voos a guardar
+     * @param path    caminho do ficheiro
+     * @throws IOException se ocorrer um erro a escrever o ficheiro
+     */
+    public static void escrever(List<Voo> vooList, Path path) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            escrever(vooList, canal);
+        }
+    }
+
+    /**
+     * Escreve uma lista de voos no formato binário para um canal.
+     *
+     * @param vooList lista de voos a escrever
+     * @param canal   canal de destino
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escrever(List<Voo> vooList, FileChannel canal) throws IOException {
+        ByteBuffer saida = ByteBuffer.allocate(TAMANHO_BUFFER);
+        ByteBuffer registo = ByteBuffer.allocate(64 * 1024);
+
+        LinkedHashMap<Integer, Passageiro> passageiros = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Tripulante> tripulantes = new LinkedHashMap<>();
+        File.recolherPessoas(vooList, passageiros, tripulantes);
+
+        saida.putInt(IDENTIFICADOR);
+        saida.putInt(VERSAO);
+        saida.putInt(vooList.size());
+        saida.putInt(passageiros.size() + tripulantes.size());
+
+        for (Passageiro passageiro : passageiros.values()) {
+            registo = codificarRegisto(registo, PESSOA_PASSAGEIRO, 0, buffer -> {
+                putPessoa(buffer, passageiro);
+                putString(buffer, passageiro.getEmail());
+            });
+            adicionarRegisto(canal, saida, registo);
+        }
+
+        for (Tripulante tripulante : tripulantes.values()) {
+            registo = codificarRegisto(registo, PESSOA_TRIPULANTE, 0, buffer -> putTripulante(buffer, tripulante));
+            adicionarRegisto(canal, saida, registo);
+        }
+
+        for (Voo voo : vooList) {
+            registo = codificarRegisto(registo, voo.getPassageiros().size(), voo.getTripulacao().size(), buffer -> codificarVoo(voo, buffer));
+            adicionarRegisto(canal, saida, registo);
+        }
+
+        escreverTudo(canal, saida);
+    }
+
+    /**
+     * Acrescenta um registo codificado ao buffer de escrita, escrevendo o buffer no canal quando fica cheio.
+     */
+    private static void adicionarRegisto(FileChannel canal, ByteBuffer saida, ByteBuffer registo) throws IOException {
+        registo.flip();
+
+        if (registo.remaining() > saida.remaining()) {
+            escreverTudo(canal, saida);
+        }
+
+        if (registo.remaining() > saida.remaining()) {
+            // Registo maior do que o buffer de escrita, escreve diretamente
+            while (registo.hasRemaining()) canal.write(registo);
+        } else {
+            saida.put(registo);
+        }
+    }
+
+    /**
+     * Lê uma lista de voos de um ficheiro no formato binário.
+     *
+     * @param path caminho do ficheiro
+     * @return a lista de voos lida
+     * @throws IOException se o ficheiro não estiver no formato binário ou ocorrer um erro a ler
+     */
+    public static ArrayList<Voo> ler(Path path) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+
+            if (tamanho < TAMANHO_CABECALHO) {
+                throw new IOException("Ficheiro binário inválido: " + path);
+            }
+
+            MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(TAMANHO_JANELA, tamanho));
+            long inicioJanela = 0;
+
+            if (janela.getInt() != IDENTIFICADOR) {
+                throw new IOException("Ficheiro binário inválido: " + path);
+            }
+
+            int versao = janela.getInt();
+            if (versao < 1 || versao > VERSAO) {
+                throw new IOException("Versão do ficheiro binário não suportada: " + versao);
+            }
+
+            boolean referencias = versao >= VERSAO_PESSOAS;
+            int numVoos = janela.getInt();
+            int numPessoas = referencias ? janela.getInt() : 0;
+            if (!referencias) janela.getInt(); // reservado na versão 1
+
+            ArrayList<Voo> vooList = new ArrayList<>(numVoos);
+
+            // Os registos das pessoas vêm antes dos registos dos voos
+            for (int i = 0; i < numPessoas + numVoos; i++) {
+                // Volta a mapear a janela se o registo seguinte não estiver completo dentro dela
+                if (janela.remaining() < TAMANHO_CABECALHO_REGISTO
+                        || janela.remaining() < janela.getInt(janela.position())
+                ) {
+                    long posicao = inicioJanela + janela.position();
+                    long comprimento = Math.max(TAMANHO_JANELA, lerComprimentoRegisto(canal, posicao));
+                    janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(comprimento, tamanho - posicao));
+                    inicioJanela = posicao;
+                }
+
+                if (i < numPessoas) {
+                    descodificarPessoa(janela);
+                } else {
+                    vooList.add(descodificarVoo(janela, referencias));
+                }
+            }
+
+            return vooList;
+        }
+    }
+
+    /**
+     * Codifica um registo binário: o cabeçalho do registo seguido dos campos escritos pela codificação indicada.
+     *
+     * @param registo     buffer onde o registo é escrito
+     * @param campo1      segundo campo do cabeçalho (número de passageiros ou tipo de pessoa)
+     * @param campo2      terceiro campo do cabeçalho (número de tripulantes ou reservado)
+     * @param codificacao escrita dos campos do registo
+     * @return o buffer com o registo (um novo buffer, caso o original não tenha capacidade suficiente)
+     */
+    private static ByteBuffer codificarRegisto(ByteBuffer registo, int campo1, int campo2, Consumer<ByteBuffer> codificacao) {
+        while (true) {
+            registo.clear();
+            try {
+                registo.position(TAMANHO_CABECALHO_REGISTO);
+                codificacao.accept(registo);
+
+                registo.putInt(0, registo.position());
+                registo.putInt(4, campo1);
+                registo.putInt(8, campo2);
+
+                return registo;
+            } catch (java.nio.BufferOverflowException e) {
+                registo = ByteBuffer.allocate(registo.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Escreve os campos de um voo no buffer, com as pessoas referidas pelo número de identificação.
+     */
+    private static void codificarVoo(Voo voo, ByteBuffer registo) {
+        putString(registo, voo.getNumVoo());
+
+        putString(registo, voo.getAviao().getNumRegisto());
+        putString(registo, voo.getAviao().getMarcaModelo());
+        registo.putInt(voo.getAviao().getNumLugaresTuristica());
+        registo.putInt(voo.getAviao().getNumLugaresExecutiva());
+
+        putAeroporto(registo, voo.getAeroportoOrigem());
+        putAeroporto(registo, voo.getAeroportoDestino());
+
+        putDataHora(registo, voo.getDataHoraPartida());
+        putDataHora(registo, voo.getDataHoraChegada());
+
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            registo.putInt(passageiro.getNumIdentificacao());
+            registo.put((byte) passageiro.getTipoBilhete().ordinal());
+            putString(registo, passageiro.getLugarReservado());
+        }
+
+        for (Tripulante tripulante : voo.getTripulacao()) {
+            registo.putInt(tripulante.getNumIdentificacao());
+        }
+    }
+
+    /**
+     * Descodifica um registo binário de uma pessoa, a partir da posição atual do buffer, e coloca a pessoa no
+     * {@link RegistoPessoas}.
+     *
+     * @param buffer buffer posicionado no início do registo
+     */
+    private static void descodificarPessoa(ByteBuffer buffer) {
+        buffer.getInt(); // comprimento do registo
+        int tipo = buffer.getInt();
+        buffer.getInt(); // reservado
+
+        if (tipo == PESSOA_PASSAGEIRO) {
+            Passageiro passageiro = new Passageiro();
+            getPessoa(buffer, passageiro);
+            passageiro.setEmail(getString(buffer));
+            RegistoPessoas.registarPassageiro(passageiro);
+        } else {
+            RegistoPessoas.registarTripulante(getTripulante(buffer));
+        }
+    }
+
+    /**
+     * Descodifica um registo binário num voo, a partir da posição atual do buffer.
+     *
+     * @param buffer      buffer posicionado no início do registo
+     * @param referencias true se as pessoas forem referidas pelo número de identificação (versão 2)
+     * @return o voo descodificado
+     * @throws IOException se o voo referir uma pessoa desconhecida
+     */
+    private static Voo descodificarVoo(ByteBuffer buffer, boolean referencias) throws IOException {
+        buffer.getInt(); // comprimento do registo
+        int numPassageiros = buffer.getInt();
+        int numTripulantes = buffer.getInt();
+
+        Voo voo = new Voo();
+        voo.setNumVoo(getString(buffer));
+
+        voo.setAviao(getAviao(buffer));
+
+        voo.setAeroportoOrigem(getAeroporto(buffer));
+        voo.setAeroportoDestino(getAeroporto(buffer));
+
+        voo.setDataHoraPartida(getDataHora(buffer));
+        voo.setDataHoraChegada(getDataHora(buffer));
+
+        ArrayList<Passageiro> passageiros = new ArrayList<>(numPassageiros);
+        for (int i = 0; i < numPassageiros; i++) {
+            if (referencias) {
+                int numIdentificacao = buffer.getInt();
+                Passageiro passageiro = RegistoPessoas.novoPassageiro(
+                        numIdentificacao,
+                        Passageiro.TipoBilhete.values()[buffer.get()],
+                        getString(buffer)
+                );
+                if (passageiro == null) throw new IOException("Passageiro desconhecido: " + numIdentificacao);
+                passageiros.add(passageiro);
+                continue;
+            }
+
+            Passageiro passageiro = new Passageiro();
+            getPessoa(buffer, passageiro);
+            passageiro.setEmail(getString(buffer));
+            passageiro.setTipoBilhete(Passageiro.TipoBilhete.values()[buffer.get()]);
+            passageiro.setLugarReservado(getString(buffer));
+            passageiros.add(RegistoPessoas.registarPassageiro(passageiro));
+        }
+        voo.setPassageiros(passageiros);
+
+        ArrayList<Tripulante> tripulacao = new ArrayList<>(numTripulantes);
+        for (int i = 0; i < numTripulantes; i++) {
+            if (referencias) {
+                int numIdentificacao = buffer.getInt();
+                Tripulante tripulante = RegistoPessoas.getTripulante(numIdentificacao);
+                if (tripulante == null) throw new IOException("Tripulante desconhecido: " + numIdentificacao);
+                tripulacao.add(tripulante);
+                continue;
+            }
+
+            tripulacao.add(RegistoPessoas.registarTripulante(getTripulante(buffer)));
+        }
+        voo.setTripulacao(tripulacao);
+
+        return voo;
+    }
+
+    /**
+     * Escreve os dados de um tripulante no buffer.
+     */
+    private static void putTripulante(ByteBuffer buffer, Tripulante tripulante) {
+        putPessoa(buffer, tripulante);
+        buffer.putInt(tripulante.getNumLicensa());
+        putData(buffer, tripulante.getDataValidadeLicensa());
+        putString(buffer, tripulante.getAnotacoes());
+        buffer.put((byte) tripulante.getCategoria().ordinal());
+    }
+
+    /**
+     * Lê os dados de um tripulante do buffer.
+     */
+    private static Tripulante getTripulante(ByteBuffer buffer) {
+        Tripulante tripulante = new Tripulante();
+        getPessoa(buffer, tripulante);
+        tripulante.setNumLicensa(buffer.getInt());
+        tripulante.setDataValidadeLicensa(getData(buffer));
+        tripulante.setAnotacoes(getString(buffer));
+        tripulante.setCategoria(Tripulante.Categoria.values()[buffer.get()]);
+        return tripulante;
+    }
+
+    /**
+     * Escreve os dados de um aeroporto no buffer.
+     */
+    private static void putAeroporto(ByteBuffer buffer, Aeroporto aeroporto) {
+        putString(buffer, aeroporto.getSigla());
+        putString(buffer, aeroporto.getPais());
+        putString(buffer, aeroporto.getCidadeMaisProxima());
+    }
+
+    /**
+     * Lê os dados de um aeroporto do buffer, usando o aeroporto do {@link Catalogo} se a sigla já for conhecida com
+     * os mesmos dados. Se os dados forem diferentes, prevalecem os do ficheiro.
+     */
+    private static Aeroporto getAeroporto(ByteBuffer buffer) {
+        String sigla = getString(buffer);
+
+        Aeroporto aeroporto = Catalogo.getAeroporto(sigla);
+        if (aeroporto == null) {
+            return Catalogo.definirAeroporto(new Aeroporto(sigla, getString(buffer), getString(buffer)));
+        }
+
+        String pais = getString(buffer, aeroporto.getPais());
+        String cidadeMaisProxima = getString(buffer, aeroporto.getCidadeMaisProxima());
+
+        // getString(buffer, conhecido) retorna o próprio texto do catálogo quando é igual
+        if (pais == aeroporto.getPais() && cidadeMaisProxima == aeroporto.getCidadeMaisProxima()) {
+            return aeroporto;
+        }
+
+        return Catalogo.definirAeroporto(new Aeroporto(sigla, pais, cidadeMaisProxima));
+    }
+
+    /**
+     * Lê os dados de um avião do buffer, usando o avião do {@link Catalogo} se o número de registo já for conhecido
+     * com os mesmos dados. Se os dados forem diferentes, prevalecem os do ficheiro.
+     */
+    private static Aviao getAviao(ByteBuffer buffer) {
+        String numRegisto = getString(buffer);
+
+        Aviao aviao = Catalogo.getAviao(numRegisto);
+        if (aviao == null) {
+            return Catalogo.definirAviao(new Aviao(numRegisto, getString(buffer), buffer.getInt(), buffer.getInt()));
+        }
+
+        String marcaModelo = getString(buffer, aviao.getMarcaModelo());
+        int numLugaresTuristica = buffer.getInt();
+        int numLugaresExecutiva = buffer.getInt();
+
+        // getString(buffer, conhecido) retorna o próprio texto do catálogo quando é igual
+        if (marcaModelo == aviao.getMarcaModelo() && numLugaresTuristica == aviao.getNumLugaresTuristica()
+                && numLugaresExecutiva == aviao.getNumLugaresExecutiva()) {
+            return aviao;
+        }
+
+        return Catalogo.definirAviao(new Aviao(numRegisto, marcaModelo, numLugaresTuristica, numLugaresExecutiva));
+    }
+
+    /**
+     * Escreve os dados comuns a todas as pessoas no buffer.
+     */
+    private static void putPessoa(ByteBuffer buffer, Pessoa pessoa) {
+        buffer.putInt(pessoa.getNumIdentificacao());
+        putString(buffer, pessoa.getNome());
+        putString(buffer, pessoa.getNacionalidade());
+        putString(buffer, pessoa.getMorada());
+        buffer.putInt(pessoa.getTelefone());
+        putData(buffer, pessoa.getDataNascimento());
+    }
+
+    /**
+     * Lê os dados comuns a todas as pessoas do buffer.
+     */
+    private static void getPessoa(ByteBuffer buffer, Pessoa pessoa) {
+        pessoa.setNumIdentificacao(buffer.getInt());
+        pessoa.setNome(getString(buffer));
+        pessoa.setNacionalidade(getString(buffer));
+        pessoa.setMorada(getString(buffer));
+        pessoa.setTelefone(buffer.getInt());
+        pessoa.setDataNascimento(getData(buffer));
+    }
+
+    /**
+     * Escreve uma string no buffer, precedida do seu comprimento em bytes.
+     */
+    private static void putString(ByteBuffer buffer, String valor) {
+        if (valor == null) {
+            buffer.putShort((short) STRING_NULA);
+            return;
+        }
+
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= STRING_NULA) {
+            throw new IllegalArgumentException("Texto demasiado longo para o formato binário: " + valor.substring(0, 32) + "...");
+        }
+
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Lê uma string do buffer.
+     */
+    private static String getString(ByteBuffer buffer) {
+        int comprimento = Short.toUnsignedInt(buffer.getShort());
+        if (comprimento == STRING_NULA) return null;
+
+        byte[] bytes = new byte[comprimento];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lê uma string do buffer, sem criar uma nova string se for igual ao texto indicado.
+     * A comparação é feita diretamente nos bytes quando o texto só tem caracteres ASCII.
+     *
+     * @return o texto indicado, se a string for igual, ou a string lida
+     */
+    private static String getString(ByteBuffer buffer, String conhecido) {
+        int inicio = buffer.position();
+        int comprimento = Short.toUnsignedInt(buffer.getShort(inicio));
+
+        if (conhecido != null && comprimento == conhecido.length()) {
+            int posicao = inicio + Short.BYTES;
+            int i = 0;
+            while (i < comprimento && buffer.get(posicao + i) == conhecido.charAt(i)) i++;
+
+            if (i == comprimento) {
+                buffer.position(posicao + comprimento);
+                return conhecido;
+            }
+        }
+
+        String lida = getString(buffer);
+        return conhecido != null && conhecido.equals(lida) ? conhecido : lida;
+    }
+
+    /**
+     * Escreve uma data no buffer, como dias desde a época.
+     */
+    private static void putData(ByteBuffer buffer, LocalDate data) {
+        buffer.putInt(data == null ? Integer.MIN_VALUE : (int) data.toEpochDay());
+    }
+
+    /**
+     * Lê uma data do buffer.
+     */
+    private static LocalDate getData(ByteBuffer buffer) {
+        int dia = buffer.getInt();
+        return dia == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Escreve uma data e hora no buffer, como segundos desde a época em UTC.
+     */
+    private static void putDataHora(ByteBuffer buffer, LocalDateTime dataHora) {
+        buffer.putLong(dataHora == null ? DATA_NULA : dataHora.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Lê uma data e hora do buffer.
+     */
+    private static LocalDateTime getDataHora(ByteBuffer buffer) {
+        long segundos = buffer.getLong();
+        return segundos == DATA_NULA ? null : LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Lê o comprimento do registo que começa numa posição do ficheiro.
+     */
+    private static int lerComprimentoRegisto(FileChannel canal, long posicao) throws IOException {
+        ByteBuffer comprimento = ByteBuffer.allocate(4);
+        while (comprimento.hasRemaining()) {
+            if (canal.read(comprimento, posicao + comprimento.position()) < 0) {
+                throw new IOException("Registo incompleto na posição " + posicao);
+            }
+        }
+        return comprimento.getInt(0);
+    }
+
+    /**
+     * Escreve todo o conteúdo do buffer no canal e limpa o buffer.
+     */
+    private static void escreverTudo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) canal.write(buffer);
+        buffer.clear();
+    }
+}
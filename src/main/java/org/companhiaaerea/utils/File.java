@@ -1,13 +1,17 @@
 package org.companhiaaerea.utils;
 
 import org.companhiaaerea.*;
+import org.companhiaaerea.repositorio.RepositorioVoos;
 
 import java.io.*;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 
-import static org.companhiaaerea.Main.voos;
 import static org.companhiaaerea.utils.Console.lerString;
 
 /**
@@ -27,14 +31,71 @@ public class File {
     public static final String PATH_PASTA = USER_HOME + "/companhia_aerea";
 
     /**
-     * Método para guardar a lista de voos num ficheiro.
+     * Extensão dos ficheiros de voos.
+     */
+    public static final String EXTENSAO = ".voos";
+
+    /**
+     * Campo que separa os passageiros dos tripulantes numa linha de voo.
+     */
+    public static final String SEPARADOR_TRIPULACAO = "PilotoTripulante";
+
+    /**
+     * Início das linhas de cabeçalho do formato de texto (identificação do formato e tabela de pessoas).
+     */
+    public static final char INICIO_CABECALHO = '#';
+
+    /**
+     * Primeiro campo da linha que identifica o formato de texto com tabela de pessoas.
+     */
+    static final String IDENTIFICADOR_TEXTO = "#VOOS";
+
+    /**
+     * Versão atual do formato de texto.
+     * Na versão 1 (sem cabeçalho) os dados de cada pessoa são repetidos em todos os voos. Na versão 2 os dados de cada
+     * pessoa são escritos uma única vez no cabeçalho e os voos referem as pessoas pelo número de identificação.
+     * <p>
+     * Em todas as versões (e no formato binário), os lugares dos passageiros seguem a disposição de
+     * {@link MapaLugares}: os lugares são numerados A01 a A99, B01, ..., e os primeiros, tantos quantos os lugares de
+     * classe executiva do avião, são da classe executiva; os seguintes são da classe turística. As novas reservas seguem
+     * sempre esta disposição. Os ficheiros de versões anteriores podem ter passageiros noutros lugares do formato AXX:
+     * esses voos são lidos e os lugares em conflito (inexistentes, repetidos ou de outra classe) são apenas avisados.
+     */
+    public static final int VERSAO_TEXTO = 2;
+
+    /**
+     * Primeiro campo das linhas de cabeçalho com os dados pessoais de um passageiro.
+     */
+    static final String REGISTO_PASSAGEIRO = "#P";
+
+    /**
+     * Primeiro campo das linhas de cabeçalho com os dados de um tripulante.
+     */
+    static final String REGISTO_TRIPULANTE = "#T";
+
+    /**
+     * Tipos de bilhete, guardados para evitar criar um novo array em cada leitura.
+     */
+    private static final Passageiro.TipoBilhete[] TIPOS_BILHETE = Passageiro.TipoBilhete.values();
+
+    /**
+     * Categorias de tripulante, guardadas para evitar criar um novo array em cada leitura.
+     */
+    private static final Tripulante.Categoria[] CATEGORIAS = Tripulante.Categoria.values();
+
+    /**
+     * Método para guardar os voos de um repositório num ficheiro.
+     * Se o ficheiro já existir, mantém o formato (texto ou binário) indicado pelo seu cabeçalho.
+     * Caso contrário, pergunta ao utilizador o formato a usar.
+     * A gravação é feita em segundo plano ({@link GravadorFicheiros}), por isso o método retorna logo.
      *
-     * @param vooList lista de voos a guardar
+     * @param repositorio repositório com os voos a guardar
+     * @return o nome do ficheiro guardado (sem extensão), ou null se não foi guardado
      */
-    public static void guardarEmFicheiro(ArrayList<Voo> vooList) {
-        if (voos.isEmpty()) {
+    public static String guardarEmFicheiro(RepositorioVoos repositorio) {
+        if (repositorio.isVazio()) {
             System.out.println("Não existem voos para guardar.");
-            return;
+            return null;
         }
 
         String nomeFicheiro = lerString("Insira o nome do ficheiro: ");
@@ -47,157 +108,594 @@ public class File {
                 pasta = new java.io.File("");
                 if (!pasta.mkdirs()) {
                     System.out.println("Erro a criar pasta.");
-                    return;
+                    return null;
                 }
             }
 
-            String pathFicheiro = PATH_PASTA + "/" + nomeFicheiro + ".voos";
-            java.io.File ficheiro = new java.io.File(pathFicheiro);
-
-            BufferedWriter writer = new BufferedWriter(new FileWriter(ficheiro));
-            for (Voo voo : vooList) {
-                writer.write(voo.getNumVoo() + ";");
-
-                writer.write(voo.getAviao().getNumRegisto() + ";");
-                writer.write(voo.getAviao().getMarcaModelo() + ";");
-                writer.write(voo.getAviao().getNumLugaresTuristica() + ";");
-                writer.write(voo.getAviao().getNumLugaresExecutiva() + ";");
-
-                writer.write(voo.getAeroportoOrigem().getSigla() + ";");
-                writer.write(voo.getAeroportoOrigem().getPais() + ";");
-                writer.write(voo.getAeroportoOrigem().getCidadeMaisProxima() + ";");
-
-                writer.write(voo.getAeroportoDestino().getSigla() + ";");
-                writer.write(voo.getAeroportoDestino().getPais() + ";");
-                writer.write(voo.getAeroportoDestino().getCidadeMaisProxima() + ";");
-
-                writer.write(voo.getDataHoraPartida().toString() + ";");
-                writer.write(voo.getDataHoraChegada().toString() + ";");
-
-                for (Passageiro passageiro : voo.getPassageiros()) {
-                    writer.write(passageiro.getNumIdentificacao() + ";");
-                    writer.write(passageiro.getNome() + ";");
-                    writer.write(passageiro.getNacionalidade() + ";");
-                    writer.write(passageiro.getMorada() + ";");
-                    writer.write(passageiro.getTelefone() + ";");
-                    writer.write(passageiro.getDataNascimento().toString() + ";");
-                    writer.write(passageiro.getEmail() + ";");
-                    writer.write(passageiro.getTipoBilhete() + ";");
-                    writer.write(passageiro.getLugarReservado() + ";");
-                }
-
-                writer.write("PilotoTripulante" + ";");
-
-                for (Tripulante tripulante : voo.getTripulacao()) {
-                    writer.write(tripulante.getNumIdentificacao() + ";");
-                    writer.write(tripulante.getNome() + ";");
-                    writer.write(tripulante.getNacionalidade() + ";");
-                    writer.write(tripulante.getMorada() + ";");
-                    writer.write(tripulante.getTelefone() + ";");
-                    writer.write(tripulante.getDataNascimento().toString() + ";");
-                    writer.write(tripulante.getNumLicensa() + ";");
-                    writer.write(tripulante.getDataValidadeLicensa().toString() + ";");
-                    writer.write(tripulante.getAnotacoes() + ";");
-                    writer.write(tripulante.getCategoria() + ";");
-                }
-
-                writer.newLine();
+            Path pathFicheiro = Path.of(PATH_PASTA, nomeFicheiro + EXTENSAO);
+
+            boolean binario;
+            if (Files.exists(pathFicheiro)) {
+                binario = FicheiroBinario.isBinario(pathFicheiro);
+            } else {
+                binario = lerString(
+                        "Insira o formato do ficheiro (1 - Texto, 2 - Binário): ",
+                        "[1-2]",
+                        "O formato deve ser 1 ou 2."
+                ).equals("2");
             }
 
-            writer.close();
+            // O ficheiro é gravado em segundo plano e passa a incluir as alterações do diário existente;
+            // os voos são copiados sem alterações em curso
+            repositorio.consultar(() -> {
+                Diario.guardarFicheiro(nomeFicheiro, repositorio.voos(), binario);
+                return null;
+            });
 
-            System.out.println("Ficheiro guardado com sucesso!");
+            System.out.println("O ficheiro está a ser guardado.");
+            return nomeFicheiro;
         } catch (IOException e) {
             System.out.println("Erro a guardar ficheiro: " + e);
         }
+
+        return null;
+    }
+
+    /**
+     * Guarda uma lista de voos num ficheiro no formato de texto.
+     *
+     * @param vooList lista de voos a guardar
+     * @param path    caminho do ficheiro
+     * @throws IOException se ocorrer um erro a escrever o ficheiro
+     */
+    public static void escreverTexto(List<Voo> vooList, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            escreverTexto(vooList, writer);
+        }
+    }
+
+    /**
+     * Escreve uma lista de voos no formato de texto (versão {@value #VERSAO_TEXTO}), com os campos separados por ";".
+     * O ficheiro começa com as linhas de cabeçalho: a identificação do formato e os dados de cada pessoa, escritos uma
+     * única vez. Seguem-se os voos, um por linha, que referem os passageiros e tripulantes pelo número de identificação.
+     *
+     * @param vooList lista de voos a escrever
+     * @param writer  destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escreverTexto(List<Voo> vooList, BufferedWriter writer) throws IOException {
+        LinkedHashMap<Integer, Passageiro> passageiros = new LinkedHashMap<>();
+        LinkedHashMap<Integer, Tripulante> tripulantes = new LinkedHashMap<>();
+        recolherPessoas(vooList, passageiros, tripulantes);
+
+        escreverCabecalho(passageiros.values(), tripulantes.values(), writer);
+
+        for (Voo voo : vooList) {
+            escreverLinhaVoo(voo, writer);
+        }
+    }
+
+    /**
+     * Escreve as linhas de cabeçalho do formato de texto (versão {@value #VERSAO_TEXTO}): a identificação do formato
+     * e os dados de cada pessoa. Os voos escritos a seguir ({@link #escreverLinhaVoo}) só podem referir estas pessoas.
+     *
+     * @param passageiros passageiros, um por número de identificação
+     * @param tripulantes tripulantes, um por número de identificação
+     * @param writer      destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escreverCabecalho(Collection<Passageiro> passageiros, Collection<Tripulante> tripulantes, BufferedWriter writer) throws IOException {
+        writer.write(IDENTIFICADOR_TEXTO + ";" + VERSAO_TEXTO + ";");
+        writer.newLine();
+
+        for (Passageiro passageiro : passageiros) {
+            writer.write(REGISTO_PASSAGEIRO + ";");
+            escreverPessoa(passageiro, writer);
+            writer.write(passageiro.getEmail() + ";");
+            writer.newLine();
+        }
+
+        for (Tripulante tripulante : tripulantes) {
+            writer.write(REGISTO_TRIPULANTE + ";");
+            escreverTripulante(tripulante, writer);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Escreve a linha de um voo no formato de texto (versão {@value #VERSAO_TEXTO}), que refere os passageiros e
+     * tripulantes pelo número de identificação.
+     *
+     * @param voo    voo a escrever
+     * @param writer destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escreverLinhaVoo(Voo voo, BufferedWriter writer) throws IOException {
+        escreverDadosVoo(voo, writer);
+
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            writer.write(passageiro.getNumIdentificacao() + ";");
+            writer.write(passageiro.getTipoBilhete() + ";");
+            writer.write(passageiro.getLugarReservado() + ";");
+        }
+
+        writer.write(SEPARADOR_TRIPULACAO + ";");
+
+        for (Tripulante tripulante : voo.getTripulacao()) {
+            writer.write(tripulante.getNumIdentificacao() + ";");
+        }
+
+        writer.newLine();
+    }
+
+    /**
+     * Recolhe as pessoas (passageiros e tripulantes) de uma lista de voos, uma vez por número de identificação.
+     * Se a mesma pessoa aparecer em vários voos, são usados os dados da primeira ocorrência.
+     *
+     * @param vooList     lista de voos
+     * @param passageiros mapa onde são colocados os passageiros, por número de identificação
+     * @param tripulantes mapa onde são colocados os tripulantes, por número de identificação
+     */
+    static void recolherPessoas(List<Voo> vooList, LinkedHashMap<Integer, Passageiro> passageiros, LinkedHashMap<Integer, Tripulante> tripulantes) {
+        for (Voo voo : vooList) {
+            for (Passageiro passageiro : voo.getPassageiros()) {
+                passageiros.putIfAbsent(passageiro.getNumIdentificacao(), passageiro);
+            }
+            for (Tripulante tripulante : voo.getTripulacao()) {
+                tripulantes.putIfAbsent(tripulante.getNumIdentificacao(), tripulante);
+            }
+        }
+    }
+
+    /**
+     * Escreve os campos de um voo no formato de texto com os dados completos de cada pessoa (versão 1, usada no
+     * {@link Diario}), sem terminar a linha.
+     *
+     * @param voo    voo a escrever
+     * @param writer destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escreverVoo(Voo voo, Writer writer) throws IOException {
+        escreverDadosVoo(voo, writer);
+
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            escreverPassageiro(passageiro, writer);
+        }
+
+        writer.write(SEPARADOR_TRIPULACAO + ";");
+
+        for (Tripulante tripulante : voo.getTripulacao()) {
+            escreverTripulante(tripulante, writer);
+        }
+    }
+
+    /**
+     * Escreve os campos de um voo, do avião e dos aeroportos no formato de texto, sem as pessoas.
+     */
+    private static void escreverDadosVoo(Voo voo, Writer writer) throws IOException {
+        writer.write(voo.getNumVoo() + ";");
+
+        writer.write(voo.getAviao().getNumRegisto() + ";");
+        writer.write(voo.getAviao().getMarcaModelo() + ";");
+        writer.write(voo.getAviao().getNumLugaresTuristica() + ";");
+        writer.write(voo.getAviao().getNumLugaresExecutiva() + ";");
+
+        writer.write(voo.getAeroportoOrigem().getSigla() + ";");
+        writer.write(voo.getAeroportoOrigem().getPais() + ";");
+        writer.write(voo.getAeroportoOrigem().getCidadeMaisProxima() + ";");
+
+        writer.write(voo.getAeroportoDestino().getSigla() + ";");
+        writer.write(voo.getAeroportoDestino().getPais() + ";");
+        writer.write(voo.getAeroportoDestino().getCidadeMaisProxima() + ";");
+
+        writer.write(voo.getDataHoraPartida().toString() + ";");
+        writer.write(voo.getDataHoraChegada().toString() + ";");
+    }
+
+    /**
+     * Escreve os campos de um tripulante no formato de texto.
+     */
+    private static void escreverTripulante(Tripulante tripulante, Writer writer) throws IOException {
+        escreverPessoa(tripulante, writer);
+        writer.write(tripulante.getNumLicensa() + ";");
+        writer.write(tripulante.getDataValidadeLicensa().toString() + ";");
+        writer.write(tripulante.getAnotacoes() + ";");
+        writer.write(tripulante.getCategoria() + ";");
+    }
+
+    /**
+     * Escreve os campos comuns a todas as pessoas no formato de texto.
+     */
+    private static void escreverPessoa(Pessoa pessoa, Writer writer) throws IOException {
+        writer.write(pessoa.getNumIdentificacao() + ";");
+        writer.write(pessoa.getNome() + ";");
+        writer.write(pessoa.getNacionalidade() + ";");
+        writer.write(pessoa.getMorada() + ";");
+        writer.write(pessoa.getTelefone() + ";");
+        writer.write(pessoa.getDataNascimento().toString() + ";");
+    }
+
+    /**
+     * Escreve os campos de um passageiro no formato de texto.
+     *
+     * @param passageiro passageiro a escrever
+     * @param writer     destino da escrita
+     * @throws IOException se ocorrer um erro a escrever
+     */
+    public static void escreverPassageiro(Passageiro passageiro, Writer writer) throws IOException {
+        escreverPessoa(passageiro, writer);
+        writer.write(passageiro.getEmail() + ";");
+        writer.write(passageiro.getTipoBilhete() + ";");
+        writer.write(passageiro.getLugarReservado() + ";");
+    }
+
+    /**
+     * Guarda uma lista de voos num ficheiro, no formato indicado, de forma atómica ({@link GravadorFicheiros}).
+     *
+     * @param vooList lista de voos a guardar
+     * @param path    caminho do ficheiro
+     * @param binario true para o formato binário, false para o formato de texto
+     * @throws IOException se ocorrer um erro a escrever o ficheiro
+     */
+    public static void escrever(List<Voo> vooList, Path path, boolean binario) throws IOException {
+        GravadorFicheiros.escrever(vooList, path, binario);
     }
 
     /**
      * Lê uma lista de voos de um arquivo especificado pelo nome do ficheiro.
-     * O ficheiro deve estar no formato especificado, contendo informações sobre voo, avião, aeroportos, passageiros e tripulação, separadas por ";".
+     * O formato (texto ou binário) é determinado pelo cabeçalho do ficheiro.
+     * Os ficheiros de texto grandes são lidos em paralelo ({@link CarregadorParalelo}).
+     * Se existir um diário ({@link Diario}) para o ficheiro, as alterações nele registadas são aplicadas aos voos lidos.
+     * No formato de texto, o ficheiro contém informações sobre voo, avião, aeroportos, passageiros e tripulação, separadas por ";".
+     * As pessoas lidas ficam no {@link RegistoPessoas}, partilhadas por todos os voos; as pessoas de ficheiros
+     * carregados antes são esquecidas, porque os voos lidos substituem os voos carregados.
      *
      * @param fileName o nome do ficheiro a ser lido.
      * @return uma lista de objeto Voo, populados com as informações lidas do arquivo.
      */
     public static ArrayList<Voo> readVooListFromFile(String fileName) {
-        String pathFicheiro = PATH_PASTA + "/" + fileName;
+        Path pathFicheiro = Path.of(PATH_PASTA, fileName);
+
+        // Garante que não há uma gravação pendente para o ficheiro
+        GravadorFicheiros.aguardar();
+
+        RegistoPessoas.limpar();
 
-        ArrayList<Voo> vooList = new ArrayList<>();
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(pathFicheiro));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                int index = 0;
-
-                Voo voo = new Voo();
-                voo.setNumVoo(parts[index++]);
-
-                Aviao aviao = new Aviao();
-                aviao.setNumRegisto(parts[index++]);
-                aviao.setMarcaModelo(parts[index++]);
-                aviao.setNumLugaresTuristica(Integer.parseInt(parts[index++]));
-                aviao.setNumLugaresExecutiva(Integer.parseInt(parts[index++]));
-                voo.setAviao(aviao);
-
-                Aeroporto aeroportoOrigem = new Aeroporto();
-                aeroportoOrigem.setSigla(parts[index++]);
-                aeroportoOrigem.setPais(parts[index++]);
-                aeroportoOrigem.setCidadeMaisProxima(parts[index++]);
-                voo.setAeroportoOrigem(aeroportoOrigem);
-
-                Aeroporto aeroportoDestino = new Aeroporto();
-                aeroportoDestino.setSigla(parts[index++]);
-                aeroportoDestino.setPais(parts[index++]);
-                aeroportoDestino.setCidadeMaisProxima(parts[index++]);
-                voo.setAeroportoDestino(aeroportoDestino);
-
-                voo.setDataHoraPartida(LocalDateTime.parse(parts[index++]));
-                voo.setDataHoraChegada(LocalDateTime.parse(parts[index++]));
-
-                ArrayList<Passageiro> passageiros = new ArrayList<>();
-                while (!parts[index].equals("PilotoTripulante")) {
-                    Passageiro passageiro = new Passageiro();
-
-                    passageiro.setNumIdentificacao(Integer.parseInt(parts[index++]));
-                    passageiro.setNome(parts[index++]);
-                    passageiro.setNacionalidade(parts[index++]);
-                    passageiro.setMorada(parts[index++]);
-                    passageiro.setTelefone(Integer.parseInt(parts[index++]));
-                    passageiro.setDataNascimento(LocalDate.parse(parts[index++]));
-                    passageiro.setEmail(parts[index++]);
-                    passageiro.setTipoBilhete(Passageiro.TipoBilhete.valueOf(parts[index++]));
-                    passageiro.setLugarReservado(parts[index++]);
-                    passageiros.add(passageiro);
-                }
-                voo.setPassageiros(passageiros);
-
-                ArrayList<Tripulante> tripulacao = new ArrayList<>();
-
-                index++;
-
-                while (index < parts.length) {
-                    Tripulante tripulante = new Tripulante();
-                    tripulante.setNumIdentificacao(Integer.parseInt(parts[index++]));
-                    tripulante.setNome(parts[index++]);
-                    tripulante.setNacionalidade(parts[index++]);
-                    tripulante.setMorada(parts[index++]);
-                    tripulante.setTelefone(Integer.parseInt(parts[index++]));
-                    tripulante.setDataNascimento(LocalDate.parse(parts[index++]));
-                    tripulante.setNumLicensa(Integer.parseInt(parts[index++]));
-                    tripulante.setDataValidadeLicensa(LocalDate.parse(parts[index++]));
-                    tripulante.setAnotacoes(parts[index++]);
-                    tripulante.setCategoria(Enum.valueOf(Tripulante.Categoria.class, parts[index++]));
-                    tripulacao.add(tripulante);
-                }
-                voo.setTripulacao(tripulacao);
-                vooList.add(voo);
-            }
-            reader.close();
+            return lerComDiario(fileName, true);
         } catch (IOException e) {
             e.printStackTrace();
         }
 
+        return new ArrayList<>();
+    }
+
+    /**
+     * Lê os voos de um ficheiro e aplica-lhes as alterações registadas nos diários (anterior e atual) do ficheiro.
+     * Os voos com campos inválidos são removidos e os lugares fora da disposição atual são avisados.
+     *
+     * @param fileName o nome do ficheiro a ser lido
+     * @param paralelo true para ler os ficheiros de texto grandes em paralelo ({@link CarregadorParalelo}), false
+     *                 para ler tudo na thread atual (necessário com um {@link Isolamento})
+     * @return a lista de voos lida
+     * @throws IOException se ocorrer um erro a ler o ficheiro ou os diários
+     */
+    private static ArrayList<Voo> lerComDiario(String fileName, boolean paralelo) throws IOException {
+        Path pathFicheiro = Path.of(PATH_PASTA, fileName);
+
+        ArrayList<Voo> vooList;
+        if (FicheiroBinario.isBinario(pathFicheiro)) {
+            vooList = FicheiroBinario.ler(pathFicheiro);
+        } else {
+            vooList = paralelo ? CarregadorParalelo.ler(pathFicheiro) : lerTexto(pathFicheiro);
+        }
+
+        // Aplica as alterações registadas no diário depois da última vez que o ficheiro foi guardado
+        Diario.reproduzir(nomeSemExtensao(fileName), vooList);
+
+        // Os voos com campos inválidos (por exemplo, de um ficheiro corrompido) não chegam aos índices
+        Validacao.removerInvalidos(vooList);
+
+        // Os lugares fora da disposição atual (ficheiros antigos) não impedem a leitura, apenas são avisados
+        Validacao.avisarConflitos(vooList);
+
         return vooList;
     }
+
+    /**
+     * Lê os voos de um ficheiro (como {@link #readVooListFromFile(String)}) e substitui com eles os voos de um
+     * repositório.
+     *
+     * @param fileName    o nome do ficheiro a ser lido.
+     * @param repositorio o repositório onde ficam os voos lidos.
+     */
+    public static void carregarFicheiro(String fileName, RepositorioVoos repositorio) {
+        repositorio.substituir(readVooListFromFile(fileName));
+    }
+
+    /**
+     * Lê uma lista de voos de um ficheiro no formato de texto (versão 1 ou 2).
+     *
+     * @param path caminho do ficheiro
+     * @return a lista de voos lida
+     * @throws IOException se ocorrer um erro a ler o ficheiro ou uma linha não estiver no formato esperado
+     */
+    public static ArrayList<Voo> lerTexto(Path path) throws IOException {
+        ArrayList<Voo> vooList = new ArrayList<>();
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            LeitorRegistos leitor = new LeitorRegistos(reader);
+            boolean referencias = false;
+
+            while (leitor.proximaLinha()) {
+                if (leitor.comecaPor(INICIO_CABECALHO)) {
+                    lerCabecalho(leitor);
+                    referencias = true;
+                } else {
+                    vooList.add(lerVoo(leitor, referencias));
+                }
+            }
+        }
+
+        return vooList;
+    }
+
+    /**
+     * Lê uma linha de cabeçalho do formato de texto (versão 2): a identificação do formato, ou os dados de um
+     * passageiro ou de um tripulante, que são colocados no {@link RegistoPessoas}.
+     *
+     * @param leitor leitor posicionado numa linha de cabeçalho
+     * @throws IOException se a linha não estiver no formato esperado ou a versão não for suportada
+     */
+    public static void lerCabecalho(LeitorRegistos leitor) throws IOException {
+        if (leitor.consumirSe(IDENTIFICADOR_TEXTO)) {
+            int versao = leitor.lerInt();
+            if (versao > VERSAO_TEXTO) {
+                throw new IOException("Versão do ficheiro de texto não suportada: " + versao);
+            }
+        } else if (leitor.consumirSe(REGISTO_PASSAGEIRO)) {
+            Passageiro passageiro = new Passageiro();
+            lerPessoa(leitor, passageiro);
+            passageiro.setEmail(leitor.lerString());
+            RegistoPessoas.registarPassageiro(passageiro);
+        } else if (leitor.consumirSe(REGISTO_TRIPULANTE)) {
+            RegistoPessoas.registarTripulante(lerTripulante(leitor));
+        } else {
+            throw new IOException("Linha " + leitor.getNumLinha() + ": tipo de registo desconhecido.");
+        }
+    }
+
+    /**
+     * Lê um voo com os dados completos de cada pessoa (versão 1) a partir da linha atual de um leitor de registos.
+     *
+     * @param leitor leitor posicionado numa linha de voo
+     * @return o voo lido
+     * @throws IOException se a linha não estiver no formato esperado
+     * @see #lerVoo(LeitorRegistos, boolean)
+     */
+    public static Voo lerVoo(LeitorRegistos leitor) throws IOException {
+        return lerVoo(leitor, false);
+    }
+
+    /**
+     * Lê um voo a partir da linha atual de um leitor de registos.
+     * A linha contém os dados do voo, do avião e dos aeroportos, seguidos dos passageiros, do separador
+     * "PilotoTripulante" e dos tripulantes. Na versão 2 do formato, as pessoas são referidas pelo número de
+     * identificação (os passageiros com o tipo de bilhete e o lugar) e os seus dados são obtidos do
+     * {@link RegistoPessoas}.
+     *
+     * @param leitor      leitor posicionado numa linha de voo
+     * @param referencias true se as pessoas forem referidas pelo número de identificação (versão 2)
+     * @return o voo lido
+     * @throws IOException se a linha não estiver no formato esperado ou referir uma pessoa desconhecida
+     */
+    public static Voo lerVoo(LeitorRegistos leitor, boolean referencias) throws IOException {
+        Voo voo = new Voo();
+        voo.setNumVoo(leitor.lerString());
+
+        voo.setAviao(lerAviao(leitor));
+        voo.setAeroportoOrigem(lerAeroporto(leitor));
+        voo.setAeroportoDestino(lerAeroporto(leitor));
+
+        voo.setDataHoraPartida(leitor.lerDataHora());
+        voo.setDataHoraChegada(leitor.lerDataHora());
+
+        ArrayList<Passageiro> passageiros = new ArrayList<>();
+        while (!leitor.consumirSe(SEPARADOR_TRIPULACAO)) {
+            passageiros.add(referencias ? lerReferenciaPassageiro(leitor) : lerPassageiro(leitor));
+        }
+        voo.setPassageiros(passageiros);
+
+        ArrayList<Tripulante> tripulacao = new ArrayList<>();
+        while (leitor.temCampos()) {
+            tripulacao.add(referencias ? lerReferenciaTripulante(leitor) : RegistoPessoas.registarTripulante(lerTripulante(leitor)));
+        }
+        voo.setTripulacao(tripulacao);
+
+        return voo;
+    }
+
+    /**
+     * Lê um passageiro referido pelo número de identificação, seguido do tipo de bilhete e do lugar.
+     */
+    private static Passageiro lerReferenciaPassageiro(LeitorRegistos leitor) throws IOException {
+        int numIdentificacao = leitor.lerInt();
+
+        Passageiro passageiro = RegistoPessoas.novoPassageiro(numIdentificacao, leitor.lerEnum(TIPOS_BILHETE), leitor.lerString());
+        if (passageiro == null) {
+            throw new IOException("Linha " + leitor.getNumLinha() + ": passageiro desconhecido (" + numIdentificacao + ").");
+        }
+
+        return passageiro;
+    }
+
+    /**
+     * Lê um tripulante referido pelo número de identificação.
+     */
+    private static Tripulante lerReferenciaTripulante(LeitorRegistos leitor) throws IOException {
+        int numIdentificacao = leitor.lerInt();
+
+        Tripulante tripulante = RegistoPessoas.getTripulante(numIdentificacao);
+        if (tripulante == null) {
+            throw new IOException("Linha " + leitor.getNumLinha() + ": tripulante desconhecido (" + numIdentificacao + ").");
+        }
+
+        return tripulante;
+    }
+
+    /**
+     * Lê os campos de um tripulante a partir da posição atual de um leitor de registos.
+     */
+    private static Tripulante lerTripulante(LeitorRegistos leitor) throws IOException {
+        Tripulante tripulante = new Tripulante();
+        lerPessoa(leitor, tripulante);
+        tripulante.setNumLicensa(leitor.lerInt());
+        tripulante.setDataValidadeLicensa(leitor.lerData());
+        tripulante.setAnotacoes(leitor.lerString());
+        tripulante.setCategoria(leitor.lerEnum(CATEGORIAS));
+        return tripulante;
+    }
+
+    /**
+     * Lê os campos comuns a todas as pessoas a partir da posição atual de um leitor de registos.
+     */
+    private static void lerPessoa(LeitorRegistos leitor, Pessoa pessoa) throws IOException {
+        pessoa.setNumIdentificacao(leitor.lerInt());
+        pessoa.setNome(leitor.lerString());
+        pessoa.setNacionalidade(leitor.lerString());
+        pessoa.setMorada(leitor.lerString());
+        pessoa.setTelefone(leitor.lerInt());
+        pessoa.setDataNascimento(leitor.lerData());
+    }
+
+    /**
+     * Lê um avião a partir da posição atual de um leitor de registos, usando o avião do {@link Catalogo} se o número
+     * de registo já for conhecido com os mesmos dados. Se os dados forem diferentes, prevalecem os do ficheiro
+     * ({@link Catalogo#definirAviao(Aviao)}).
+     *
+     * @param leitor leitor posicionado no primeiro campo do avião
+     * @return o avião do catálogo
+     * @throws IOException se os campos não estiverem no formato esperado
+     */
+    private static Aviao lerAviao(LeitorRegistos leitor) throws IOException {
+        String numRegisto = leitor.lerString();
+
+        Aviao aviao = Catalogo.getAviao(numRegisto);
+        if (aviao == null) {
+            return Catalogo.definirAviao(new Aviao(numRegisto, leitor.lerString(), leitor.lerInt(), leitor.lerInt()));
+        }
+
+        String marcaModelo = leitor.lerString(aviao.getMarcaModelo());
+        int numLugaresTuristica = leitor.lerInt();
+        int numLugaresExecutiva = leitor.lerInt();
+
+        // lerString(conhecido) retorna o próprio texto do catálogo quando o campo é igual
+        if (marcaModelo == aviao.getMarcaModelo() && numLugaresTuristica == aviao.getNumLugaresTuristica()
+                && numLugaresExecutiva == aviao.getNumLugaresExecutiva()) {
+            return aviao;
+        }
+
+        return Catalogo.definirAviao(new Aviao(numRegisto, marcaModelo, numLugaresTuristica, numLugaresExecutiva));
+    }
+
+    /**
+     * Lê um aeroporto a partir da posição atual de um leitor de registos, usando o aeroporto do {@link Catalogo} se a
+     * sigla já for conhecida com os mesmos dados. Se os dados forem diferentes, prevalecem os do ficheiro
+     * ({@link Catalogo#definirAeroporto(Aeroporto)}).
+     *
+     * @param leitor leitor posicionado no primeiro campo do aeroporto
+     * @return o aeroporto do catálogo
+     * @throws IOException se os campos não estiverem no formato esperado
+     */
+    private static Aeroporto lerAeroporto(LeitorRegistos leitor) throws IOException {
+        String sigla = leitor.lerString();
+
+        Aeroporto aeroporto = Catalogo.getAeroporto(sigla);
+        if (aeroporto == null) {
+            return Catalogo.definirAeroporto(new Aeroporto(sigla, leitor.lerString(), leitor.lerString()));
+        }
+
+        String pais = leitor.lerString(aeroporto.getPais());
+        String cidadeMaisProxima = leitor.lerString(aeroporto.getCidadeMaisProxima());
+
+        // lerString(conhecido) retorna o próprio texto do catálogo quando o campo é igual
+        if (pais == aeroporto.getPais() && cidadeMaisProxima == aeroporto.getCidadeMaisProxima()) {
+            return aeroporto;
+        }
+
+        return Catalogo.definirAeroporto(new Aeroporto(sigla, pais, cidadeMaisProxima));
+    }
+
+    /**
+     * Lê um passageiro com os dados completos (versão 1) a partir da posição atual de um leitor de registos.
+     * Se o passageiro já for conhecido, passa a partilhar os dados pessoais do {@link RegistoPessoas}.
+     *
+     * @param leitor leitor posicionado no primeiro campo do passageiro
+     * @return o passageiro lido
+     * @throws IOException se os campos não estiverem no formato esperado
+     */
+    public static Passageiro lerPassageiro(LeitorRegistos leitor) throws IOException {
+        Passageiro passageiro = new Passageiro();
+
+        lerPessoa(leitor, passageiro);
+        passageiro.setEmail(leitor.lerString());
+        passageiro.setTipoBilhete(leitor.lerEnum(TIPOS_BILHETE));
+        passageiro.setLugarReservado(leitor.lerString());
+
+        return RegistoPessoas.registarPassageiro(passageiro);
+    }
+
+    /**
+     * Converte um ficheiro de voos para o outro formato (texto para binário ou binário para texto).
+     * O ficheiro convertido é guardado na mesma pasta, com o nome indicado, de forma atómica ({@link GravadorFicheiros}).
+     * <p>
+     * Os voos são lidos como em {@link #readVooListFromFile(String)}, com as alterações dos diários do ficheiro, mas num
+     * {@link Isolamento}, por isso as pessoas e o catálogo dos voos carregados não são alterados. Se o ficheiro
+     * convertido já tiver um diário, a conversão é recusada, porque esse diário seria aplicado ao ficheiro convertido
+     * na próxima leitura.
+     *
+     * @param fileName       o nome do ficheiro a converter
+     * @param nomeConvertido o nome (sem extensão) do ficheiro convertido
+     */
+    public static void converterFicheiro(String fileName, String nomeConvertido) {
+        Path origem = Path.of(PATH_PASTA, fileName);
+        Path destino = Path.of(PATH_PASTA, nomeConvertido + EXTENSAO);
+
+        // Garante que não há uma gravação pendente para os ficheiros
+        GravadorFicheiros.aguardar();
+
+        if (Files.exists(Diario.pathDiario(nomeConvertido)) || Files.exists(Diario.pathDiarioAnterior(nomeConvertido))) {
+            System.out.println("O ficheiro " + nomeConvertido + EXTENSAO + " tem um diário de alterações. Escolha outro nome.");
+            return;
+        }
+
+        try {
+            boolean binario = FicheiroBinario.isBinario(origem);
+
+            ArrayList<Voo> vooList;
+            Isolamento isolamento = Isolamento.iniciar();
+            try {
+                vooList = lerComDiario(fileName, false);
+            } finally {
+                isolamento.close();
+            }
+
+            GravadorFicheiros.escrever(vooList, destino, !binario);
+            System.out.println(binario
+                    ? "Ficheiro convertido para texto com sucesso!"
+                    : "Ficheiro convertido para binário com sucesso!");
+        } catch (IOException e) {
+            System.out.println("Erro a converter ficheiro: " + e);
+        }
+    }
+
+    /**
+     * Retorna o nome de um ficheiro de voos sem a extensão.
+     *
+     * @param fileName o nome do ficheiro
+     * @return o nome sem a extensão {@value #EXTENSAO}
+     */
+    public static String nomeSemExtensao(String fileName) {
+        return fileName.endsWith(EXTENSAO) ? fileName.substring(0, fileName.length() - EXTENSAO.length()) : fileName;
+    }
 }
@@ -0,0 +1,246 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.Voo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe que guarda ficheiros de voos de forma atómica, numa thread em segundo plano.
+ * <p>
+ * Cada ficheiro é primeiro escrito num ficheiro temporário na mesma pasta, que é sincronizado com o disco através do
+ * {@link FileChannel} e depois renomeado atomicamente por cima do ficheiro de destino. Assim, se o programa terminar a
+ * meio da escrita, o ficheiro de destino mantém a versão anterior completa.
+ * <p>
+ * Os pedidos de gravação são tratados por uma única thread. Se chegar um novo pedido para um ficheiro que ainda está à
+ * espera de ser gravado, os dois pedidos são juntados num só e apenas a versão mais recente é escrita.
+ *
+ * @author Ricardo Pereira
+ */
+public class GravadorFicheiros {
+    /**
+     * Extensão dos ficheiros temporários.
+     */
+    static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    /**
+     * Escrita do conteúdo de um ficheiro para um canal.
+     */
+    @FunctionalInterface
+    public interface Escrita {
+        /**
+         * Escreve o conteúdo do ficheiro.
+         *
+         * @param canal canal do ficheiro temporário
+         * @throws IOException se ocorrer um erro a escrever
+         */
+        void escrever(FileChannel canal) throws IOException;
+    }
+
+    /**
+     * Ação a executar depois de um ficheiro ser gravado com sucesso.
+     */
+    @FunctionalInterface
+    public interface AposGravar {
+        /**
+         * Executa a ação.
+         *
+         * @throws IOException se ocorrer um erro na ação
+         */
+        void executar() throws IOException;
+    }
+
+    /**
+     * Pedido de gravação de um ficheiro de voos.
+     *
+     * @param vooList    cópia da lista de voos a guardar
+     * @param binario    true para o formato binário, false para o formato de texto
+     * @param aposGravar ação a executar depois de o ficheiro ser gravado, ou null
+     */
+    private record Pedido(List<Voo> vooList, boolean binario, AposGravar aposGravar) {
+    }
+
+    /**
+     * Objeto usado para sincronizar o acesso aos pedidos pendentes.
+     */
+    private static final Object LOCK = new Object();
+
+    /**
+     * Pedidos à espera de serem gravados, por ficheiro de destino e pela ordem de chegada.
+     */
+    private static final LinkedHashMap<Path, Pedido> pendentes = new LinkedHashMap<>();
+
+    /**
+     * Indica se a thread de gravação está a gravar um ficheiro.
+     */
+    private static boolean aGravar;
+
+    /**
+     * Thread de gravação, criada no primeiro pedido.
+     */
+    private static Thread thread;
+
+    /**
+     * Agenda a gravação de uma lista de voos num ficheiro, em segundo plano.
+     * A lista é copiada antes de o método retornar, por isso pode ser alterada logo a seguir.
+     *
+     * @param path       caminho do ficheiro de destino
+     * @param vooList    lista de voos a guardar
+     * @param binario    true para o formato binário, false para o formato de texto
+     * @param aposGravar ação a executar depois de o ficheiro ser gravado com sucesso, ou null
+     */
+    public static void agendar(Path path, List<Voo> vooList, boolean binario, AposGravar aposGravar) {
+        Pedido pedido = new Pedido(copiar(vooList), binario, aposGravar);
+
+        synchronized (LOCK) {
+            // Substitui um pedido pendente para o mesmo ficheiro (apenas a versão mais recente é gravada)
+            pendentes.remove(path);
+            pendentes.put(path, pedido);
+
+            if (thread == null) {
+                thread = new Thread(GravadorFicheiros::executar, "gravador-ficheiros");
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * Espera até que todos os pedidos de gravação pendentes estejam concluídos.
+     */
+    public static void aguardar() {
+        synchronized (LOCK) {
+            while (aGravar || !pendentes.isEmpty()) {
+                try {
+                    LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escreve um ficheiro de forma atómica: escreve num ficheiro temporário, sincroniza-o com o disco e renomeia-o
+     * por cima do ficheiro de destino.
+     *
+     * @param path    caminho do ficheiro de destino
+     * @param escrita escrita do conteúdo do ficheiro
+     * @throws IOException se ocorrer um erro a escrever ou a renomear o ficheiro
+     */
+    public static void escreverAtomicamente(Path path, Escrita escrita) throws IOException {
+        Path temporario = path.resolveSibling(path.getFileName() + EXTENSAO_TEMPORARIA);
+
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                escrita.escrever(canal);
+                canal.force(true);
+            }
+
+            Files.move(temporario, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * Escreve uma lista de voos num ficheiro de forma atómica, no formato indicado.
+     *
+     * @param vooList lista de voos a guardar
+     * @param path    caminho do ficheiro de destino
+     * @param binario true para o formato binário, false para o formato de texto
+     * @throws IOException se ocorrer um erro a escrever o ficheiro
+     */
+    public static void escrever(List<Voo> vooList, Path path, boolean binario) throws IOException {
+        escreverAtomicamente(path, canal -> {
+            if (binario) {
+                FicheiroBinario.escrever(vooList, canal);
+                return;
+            }
+
+            // O writer não é fechado para não fechar o canal antes de ser sincronizado
+            BufferedWriter writer = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8));
+            File.escreverTexto(vooList, writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Ciclo da thread de gravação: grava os pedidos pendentes, pela ordem de chegada.
+     */
+    private static void executar() {
+        while (true) {
+            Path path;
+            Pedido pedido;
+
+            synchronized (LOCK) {
+                while (pendentes.isEmpty()) {
+                    try {
+                        LOCK.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                Iterator<Map.Entry<Path, Pedido>> iterator = pendentes.entrySet().iterator();
+                Map.Entry<Path, Pedido> proximo = iterator.next();
+                iterator.remove();
+
+                path = proximo.getKey();
+                pedido = proximo.getValue();
+                aGravar = true;
+            }
+
+            try {
+                escrever(pedido.vooList(), path, pedido.binario());
+                if (pedido.aposGravar() != null) pedido.aposGravar().executar();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Erro a guardar ficheiro " + path.getFileName() + ": " + e);
+            } finally {
+                synchronized (LOCK) {
+                    aGravar = false;
+                    LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia a lista de voos (incluindo as listas de passageiros e tripulantes de cada voo), para que possa ser gravada
+     * enquanto a original continua a ser alterada.
+     */
+    private static List<Voo> copiar(List<Voo> vooList) {
+        ArrayList<Voo> copia = new ArrayList<>(vooList.size());
+
+        for (Voo voo : vooList) {
+            copia.add(new Voo(
+                    voo.getNumVoo(),
+                    voo.getAviao(),
+                    voo.getAeroportoOrigem(),
+                    voo.getAeroportoDestino(),
+                    voo.getDataHoraPartida(),
+                    voo.getDataHoraChegada(),
+                    new ArrayList<>(voo.getPassageiros()),
+                    new ArrayList<>(voo.getTripulacao())
+            ));
+        }
+
+        return copia;
+    }
+}
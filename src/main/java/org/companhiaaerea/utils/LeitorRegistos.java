@@ -0,0 +1,389 @@
+package org.companhiaaerea.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Leitor de registos de texto com campos separados por ";", um registo por linha.
+ * <p>
+ * Os caracteres são lidos para um buffer interno e os campos são interpretados diretamente a partir das posições
+ * nesse buffer: números e datas são convertidos sem criar strings intermédias, e só são criadas strings para os campos
+ * que são realmente texto. Cada linha fica inteira no buffer enquanto está a ser lida (o buffer cresce se for preciso).
+ *
+ * @author Ricardo Pereira
+ */
+public class LeitorRegistos {
+    /**
+     * Separador dos campos de um registo.
+     */
+    public static final char SEPARADOR = ';';
+
+    /**
+     * Tamanho inicial do buffer quando se lê de um {@link Reader}.
+     */
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    /**
+     * Origem dos caracteres, ou null se todos os caracteres já estiverem no buffer.
+     */
+    private final Reader reader;
+
+    /**
+     * Buffer com os caracteres lidos.
+     */
+    private char[] buffer;
+
+    /**
+     * Posição do próximo campo a ler.
+     */
+    private int posicao;
+
+    /**
+     * Posição do fim da linha atual (exclusiva, sem o '\r' final).
+     */
+    private int fimLinha;
+
+    /**
+     * Posição a partir da qual começa a próxima linha.
+     */
+    private int inicioProximaLinha;
+
+    /**
+     * Posição do fim dos caracteres válidos no buffer.
+     */
+    private int limite;
+
+    /**
+     * Indica se a origem já não tem mais caracteres.
+     */
+    private boolean fimOrigem;
+
+    /**
+     * Número da linha atual (começa em 1), para as mensagens de erro.
+     */
+    private int numLinha;
+
+    /**
+     * Cria um leitor de registos que lê os caracteres de um {@link Reader}.
+     *
+     * @param reader origem dos caracteres
+     */
+    public LeitorRegistos(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[TAMANHO_BUFFER];
+    }
+
+    /**
+     * Cria um leitor de registos sobre um intervalo de caracteres já em memória.
+     *
+     * @param buffer buffer com os caracteres
+     * @param inicio posição do primeiro caractere
+     * @param fim    posição a seguir ao último caractere
+     */
+    public LeitorRegistos(char[] buffer, int inicio, int fim) {
+        this.reader = null;
+        this.buffer = buffer;
+        this.inicioProximaLinha = inicio;
+        this.limite = fim;
+        this.fimOrigem = true;
+    }
+
+    /**
+     * Avança para a próxima linha não vazia.
+     *
+     * @return true se existir uma próxima linha, false se já não existirem linhas
+     * @throws IOException se ocorrer um erro a ler da origem
+     */
+    public boolean proximaLinha() throws IOException {
+        while (true) {
+            int inicio = inicioProximaLinha;
+            int fim = procurarFimLinha(inicio);
+
+            while (fim < 0 && !fimOrigem) {
+                inicio = lerMais(inicio);
+                fim = procurarFimLinha(inicio);
+            }
+
+            if (fim < 0) {
+                // Última linha sem '\n'
+                if (inicio >= limite) return false;
+                fim = limite;
+                inicioProximaLinha = limite;
+            } else {
+                inicioProximaLinha = fim + 1;
+            }
+
+            numLinha++;
+
+            if (fim > inicio && buffer[fim - 1] == '\r') fim--;
+            if (fim == inicio) continue; // Ignora linhas vazias
+
+            posicao = inicio;
+            fimLinha = fim;
+            return true;
+        }
+    }
+
+    /**
+     * Verifica se a linha atual ainda tem campos por ler.
+     *
+     * @return true se ainda existirem campos na linha atual
+     */
+    public boolean temCampos() {
+        return posicao < fimLinha;
+    }
+
+    /**
+     * Verifica se o próximo campo da linha atual começa pelo caractere indicado, sem avançar.
+     *
+     * @param caractere caractere a comparar
+     * @return true se ainda existirem campos e o próximo começar pelo caractere
+     */
+    public boolean comecaPor(char caractere) {
+        return posicao < fimLinha && buffer[posicao] == caractere;
+    }
+
+    /**
+     * Retorna o número da linha atual.
+     *
+     * @return o número da linha atual, a começar em 1
+     */
+    public int getNumLinha() {
+        return numLinha;
+    }
+
+    /**
+     * Lê o próximo campo como texto.
+     *
+     * @return o texto do campo
+     * @throws IOException se a linha já não tiver campos
+     */
+    public String lerString() throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+        return new String(buffer, inicio, fim - inicio);
+    }
+
+    /**
+     * Lê o próximo campo como texto, sem criar uma nova string se o campo for igual ao texto indicado.
+     *
+     * @param conhecido texto que é retornado se o campo for igual (pode ser null)
+     * @return o texto indicado, se o campo for igual, ou o texto do campo
+     * @throws IOException se a linha já não tiver campos
+     */
+    public String lerString(String conhecido) throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+        return conhecido != null && igual(inicio, fim, conhecido) ? conhecido : new String(buffer, inicio, fim - inicio);
+    }
+
+    /**
+     * Lê o próximo campo como um número inteiro, sem criar strings intermédias.
+     *
+     * @return o número lido
+     * @throws IOException se a linha já não tiver campos ou o campo não for um número inteiro válido
+     */
+    public int lerInt() throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+        return parseInt(inicio, fim);
+    }
+
+    /**
+     * Lê o próximo campo como uma data no formato ISO-8601 (aaaa-MM-dd).
+     *
+     * @return a data lida
+     * @throws IOException se a linha já não tiver campos ou o campo não for uma data válida
+     */
+    public LocalDate lerData() throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+
+        long dia = CodecData.diaIso(buffer, inicio, fim);
+        if (dia == CodecData.INVALIDA) throw erro("data inválida", inicio, fim);
+
+        return LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Lê o próximo campo como uma data e hora no formato ISO-8601 (aaaa-MM-ddTHH:mm, com segundos opcionais),
+     * tal como é produzido por {@link LocalDateTime#toString()}.
+     *
+     * @return a data e hora lidas
+     * @throws IOException se a linha já não tiver campos ou o campo não for uma data e hora válida
+     */
+    public LocalDateTime lerDataHora() throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+
+        LocalDateTime dataHora = CodecData.dataHoraIso(buffer, inicio, fim);
+        if (dataHora == null) throw erro("data e hora inválidas", inicio, fim);
+
+        return dataHora;
+    }
+
+    /**
+     * Lê o próximo campo como uma constante de um enum, comparando diretamente com os nomes das constantes.
+     *
+     * @param valores as constantes do enum (normalmente o resultado de values())
+     * @param <E>     o tipo do enum
+     * @return a constante cujo nome é igual ao campo
+     * @throws IOException se a linha já não tiver campos ou o campo não corresponder a nenhuma constante
+     */
+    public <E extends Enum<E>> E lerEnum(E[] valores) throws IOException {
+        int inicio = posicao;
+        int fim = fimCampo();
+
+        for (E valor : valores) {
+            if (igual(inicio, fim, valor.name())) return valor;
+        }
+
+        throw erro("valor inválido", inicio, fim);
+    }
+
+    /**
+     * Se o próximo campo for igual ao texto indicado, avança para o campo seguinte.
+     *
+     * @param texto texto a comparar
+     * @return true se o campo era igual ao texto (e foi consumido), false caso contrário
+     */
+    public boolean consumirSe(String texto) {
+        if (!temCampos()) return false;
+
+        int fim = procurarSeparador();
+        if (!igual(posicao, fim, texto)) return false;
+
+        posicao = fim < fimLinha ? fim + 1 : fimLinha;
+        return true;
+    }
+
+    /**
+     * Avança os campos indicados sem os interpretar.
+     *
+     * @param numCampos número de campos a ignorar
+     * @throws IOException se a linha não tiver campos suficientes
+     */
+    public void ignorarCampos(int numCampos) throws IOException {
+        for (int i = 0; i < numCampos; i++) {
+            fimCampo();
+        }
+    }
+
+    /**
+     * Ignora o resto da linha atual.
+     */
+    public void ignorarLinha() {
+        posicao = fimLinha;
+    }
+
+    /**
+     * Retorna a posição do fim do campo atual e avança para o campo seguinte.
+     */
+    private int fimCampo() throws IOException {
+        if (!temCampos()) {
+            throw new IOException("Linha " + numLinha + ": campo em falta.");
+        }
+
+        int fim = procurarSeparador();
+        posicao = fim < fimLinha ? fim + 1 : fimLinha;
+        return fim;
+    }
+
+    /**
+     * Procura o separador que termina o campo atual, ou o fim da linha.
+     */
+    private int procurarSeparador() {
+        for (int i = posicao; i < fimLinha; i++) {
+            if (buffer[i] == SEPARADOR) return i;
+        }
+        return fimLinha;
+    }
+
+    /**
+     * Procura o '\n' que termina a linha que começa na posição indicada.
+     *
+     * @return a posição do '\n', ou -1 se não estiver no buffer
+     */
+    private int procurarFimLinha(int inicio) {
+        for (int i = inicio; i < limite; i++) {
+            if (buffer[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Move a linha incompleta para o início do buffer (aumentando-o se estiver cheio) e lê mais caracteres da origem.
+     *
+     * @param inicio posição do início da linha incompleta
+     * @return a nova posição do início da linha incompleta
+     */
+    private int lerMais(int inicio) throws IOException {
+        int restantes = limite - inicio;
+
+        if (inicio == 0 && restantes == buffer.length) {
+            char[] maior = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, maior, 0, restantes);
+            buffer = maior;
+        } else if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, restantes);
+        }
+
+        limite = restantes;
+        inicioProximaLinha = 0;
+
+        int lidos = reader.read(buffer, limite, buffer.length - limite);
+        if (lidos < 0) {
+            fimOrigem = true;
+        } else {
+            limite += lidos;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Converte os caracteres no intervalo indicado num número inteiro.
+     */
+    private int parseInt(int inicio, int fim) throws IOException {
+        if (inicio >= fim) throw erro("número inválido", inicio, fim);
+
+        boolean negativo = buffer[inicio] == '-';
+        int i = negativo || buffer[inicio] == '+' ? inicio + 1 : inicio;
+        if (i >= fim) throw erro("número inválido", inicio, fim);
+
+        long valor = 0;
+        for (; i < fim; i++) {
+            int digito = buffer[i] - '0';
+            if (digito < 0 || digito > 9) throw erro("número inválido", inicio, fim);
+
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) throw erro("número inválido", inicio, fim);
+        }
+
+        if (negativo) valor = -valor;
+        if (valor > Integer.MAX_VALUE) throw erro("número inválido", inicio, fim);
+
+        return (int) valor;
+    }
+
+    /**
+     * Compara os caracteres no intervalo indicado com um texto.
+     */
+    private boolean igual(int inicio, int fim, String texto) {
+        if (fim - inicio != texto.length()) return false;
+
+        for (int i = 0; i < texto.length(); i++) {
+            if (buffer[inicio + i] != texto.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cria a exceção para um campo inválido, indicando a linha e o conteúdo do campo.
+     */
+    private IOException erro(String mensagem, int inicio, int fim) {
+        return new IOException("Linha " + numLinha + ": " + mensagem + " (" + new String(buffer, inicio, fim - inicio) + ").");
+    }
+}
@@ -0,0 +1,282 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.Aeroporto;
+import org.companhiaaerea.MapaLugares;
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Tripulante;
+import org.companhiaaerea.Voo;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Classe com as regras de validação dos campos dos voos, usadas na consola, nos ficheiros de voos e nas importações.
+ * <p>
+ * Cada regra tem a sua expressão regular compilada uma única vez. Como um {@link Matcher} não pode ser usado por várias
+ * threads, cada thread reutiliza o seu próprio {@link Matcher} de cada regra, por isso validar um campo não cria
+ * objetos, mesmo ao validar milhões de registos lidos em paralelo. As expressões regulares passadas à consola que não
+ * correspondem a uma regra são compiladas uma vez e guardadas em cache.
+ *
+ * @author Ricardo Pereira
+ */
+public class Validacao {
+    /**
+     * Número máximo de voos inválidos apresentados ao ler um ficheiro.
+     */
+    private static final int MAX_AVISOS = 20;
+
+    /**
+     * Regras de validação dos campos.
+     */
+    public enum Regra {
+        /**
+         * Número de voo no formato VXXX.
+         */
+        NUM_VOO("[Vv]\\d{3}"),
+
+        /**
+         * Número de registo do avião no formato AA-AAA.
+         */
+        REGISTO_AVIAO("[A-Za-z]{2}-[A-Za-z]{3}"),
+
+        /**
+         * Marca e modelo do avião, separados por uma vírgula.
+         */
+        MARCA_MODELO("[A-Za-z]+, [A-Za-z0-9]+"),
+
+        /**
+         * Sigla do aeroporto: 3 letras.
+         */
+        SIGLA("[A-Za-z]{3}"),
+
+        /**
+         * País ou cidade: letras e espaços.
+         */
+        LOCALIDADE("[A-Za-z ]+"),
+
+        /**
+         * Lugar no formato AXX: uma letra maiúscula seguida de 2 dígitos.
+         */
+        LUGAR("[A-Z][0-9]{2}"),
+
+        /**
+         * Número de telefone: 9 dígitos.
+         */
+        TELEFONE("[0-9]{9}"),
+
+        /**
+         * Email: texto, "@" e texto sem espaços (sem grupos de captura, que tornam a validação mais lenta).
+         */
+        EMAIL(".+@\\S+"),
+
+        /**
+         * Número inteiro não negativo.
+         */
+        NUMERO("[0-9]+"),
+
+        /**
+         * Número de identificação de uma pessoa: até 9 dígitos.
+         */
+        NUM_IDENTIFICACAO("[0-9]{1,9}");
+
+        /**
+         * Expressão regular compilada.
+         */
+        private final Pattern padrao;
+
+        /**
+         * {@link Matcher} de cada thread.
+         */
+        private final ThreadLocal<Matcher> matcher;
+
+        /**
+         * Cria uma regra.
+         */
+        Regra(String regex) {
+            padrao = Pattern.compile(regex);
+            matcher = ThreadLocal.withInitial(() -> padrao.matcher(""));
+        }
+
+        /**
+         * Retorna a expressão regular compilada da regra.
+         *
+         * @return a expressão regular
+         */
+        public Pattern getPadrao() {
+            return padrao;
+        }
+
+        /**
+         * Verifica se um valor cumpre a regra.
+         *
+         * @param valor valor a validar
+         * @return true se o valor cumprir a regra, false se não cumprir ou for null
+         */
+        public boolean valida(CharSequence valor) {
+            return valor != null && matcher.get().reset(valor).matches();
+        }
+    }
+
+    /**
+     * Expressões regulares já compiladas, pelo texto da expressão.
+     */
+    private static final ConcurrentHashMap<String, Pattern> padroes = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna uma expressão regular compilada, compilando-a apenas da primeira vez.
+     *
+     * @param regex texto da expressão regular
+     * @return a expressão regular compilada
+     */
+    public static Pattern padrao(String regex) {
+        return padroes.computeIfAbsent(regex, Pattern::compile);
+    }
+
+    /**
+     * Verifica se um número de telefone tem no máximo 9 dígitos (os zeros à esquerda não são guardados).
+     *
+     * @param telefone número de telefone
+     * @return true se o número for válido
+     */
+    public static boolean isTelefone(int telefone) {
+        return telefone >= 0 && telefone <= 999_999_999;
+    }
+
+    /**
+     * Valida os campos de um voo, incluindo os dos seus passageiros e tripulantes.
+     *
+     * @param voo voo a validar
+     * @return o motivo pelo qual o voo é inválido, ou null se for válido
+     */
+    public static String motivo(Voo voo) {
+        if (!Regra.NUM_VOO.valida(voo.getNumVoo())) return "número de voo inválido (" + voo.getNumVoo() + ")";
+        if (voo.getDataHoraPartida() == null || voo.getDataHoraChegada() == null) return "datas em falta";
+
+        if (voo.getAviao() == null || !Regra.REGISTO_AVIAO.valida(voo.getAviao().getNumRegisto())) {
+            return "número de registo do avião inválido (" + (voo.getAviao() != null ? voo.getAviao().getNumRegisto() : null) + ")";
+        }
+
+        String motivo = motivo(voo.getAeroportoOrigem());
+        if (motivo == null) motivo = motivo(voo.getAeroportoDestino());
+        if (motivo != null) return motivo;
+
+        for (Passageiro passageiro : voo.getPassageiros()) {
+            motivo = motivo(passageiro);
+            if (motivo != null) return "passageiro " + passageiro.getNumIdentificacao() + ": " + motivo;
+        }
+
+        for (Tripulante tripulante : voo.getTripulacao()) {
+            motivo = motivo(tripulante);
+            if (motivo != null) return "tripulante " + tripulante.getNumIdentificacao() + ": " + motivo;
+        }
+
+        return null;
+    }
+
+    /**
+     * Valida os campos de um passageiro: número de identificação, telefone, data de nascimento, email, tipo de bilhete
+     * e lugar.
+     *
+     * @param passageiro passageiro a validar
+     * @return o motivo pelo qual o passageiro é inválido, ou null se for válido
+     */
+    public static String motivo(Passageiro passageiro) {
+        if (passageiro.getNumIdentificacao() <= 0) return "número de identificação inválido";
+        if (!isTelefone(passageiro.getTelefone())) return "telefone inválido (" + passageiro.getTelefone() + ")";
+        if (passageiro.getDataNascimento() == null) return "data de nascimento em falta";
+        if (!Regra.EMAIL.valida(passageiro.getEmail())) return "email inválido (" + passageiro.getEmail() + ")";
+        if (passageiro.getTipoBilhete() == null) return "tipo de bilhete em falta";
+        if (!Regra.LUGAR.valida(passageiro.getLugarReservado())) return "lugar inválido (" + passageiro.getLugarReservado() + ")";
+        return null;
+    }
+
+    /**
+     * Valida os campos de um tripulante: número de identificação, telefone, data de nascimento, licença e categoria.
+     *
+     * @param tripulante tripulante a validar
+     * @return o motivo pelo qual o tripulante é inválido, ou null se for válido
+     */
+    public static String motivo(Tripulante tripulante) {
+        if (tripulante.getNumIdentificacao() <= 0) return "número de identificação inválido";
+        if (!isTelefone(tripulante.getTelefone())) return "telefone inválido (" + tripulante.getTelefone() + ")";
+        if (tripulante.getDataNascimento() == null) return "data de nascimento em falta";
+        if (tripulante.getNumLicensa() < 0) return "número da licença inválido (" + tripulante.getNumLicensa() + ")";
+        if (tripulante.getDataValidadeLicensa() == null) return "data de validade da licença em falta";
+        if (tripulante.getCategoria() == null) return "categoria em falta";
+        return null;
+    }
+
+    /**
+     * Valida a sigla de um aeroporto.
+     */
+    private static String motivo(Aeroporto aeroporto) {
+        if (aeroporto == null || !Regra.SIGLA.valida(aeroporto.getSigla())) {
+            return "sigla de aeroporto inválida (" + (aeroporto != null ? aeroporto.getSigla() : null) + ")";
+        }
+        return null;
+    }
+
+    /**
+     * Remove de uma lista os voos inválidos, avisando o utilizador. Os voos são validados em paralelo e a lista é
+     * compactada numa única passagem, mantendo a ordem dos voos válidos.
+     *
+     * @param voos lista de voos lida de um ficheiro
+     * @return o número de voos removidos
+     */
+    public static int removerInvalidos(List<Voo> voos) {
+        String[] motivos = new String[voos.size()];
+        IntStream.range(0, motivos.length).parallel().forEach(i -> motivos[i] = motivo(voos.get(i)));
+
+        // Cada voo válido é copiado para a primeira posição livre, e os voos a mais no fim são removidos de uma vez
+        int escrita = 0;
+        for (int i = 0; i < motivos.length; i++) {
+            Voo voo = voos.get(i);
+
+            if (motivos[i] == null) {
+                if (escrita != i) voos.set(escrita, voo);
+                escrita++;
+            } else if (i - escrita < MAX_AVISOS) {
+                System.out.println("Voo " + voo.getNumVoo() + " de " + voo.getDataHoraPartida() + " ignorado: " + motivos[i] + ".");
+            }
+        }
+
+        int removidos = motivos.length - escrita;
+        voos.subList(escrita, motivos.length).clear();
+
+        if (removidos > MAX_AVISOS) System.out.println("... e mais " + (removidos - MAX_AVISOS) + " voos inválidos ignorados.");
+        return removidos;
+    }
+
+    /**
+     * Avisa o utilizador dos voos com passageiros em lugares que não seguem a disposição de {@link MapaLugares} (lugar
+     * inexistente no avião, repetido ou de outra classe), por exemplo de ficheiros gravados por versões anteriores.
+     * Os voos são mantidos: a disposição só é imposta às novas reservas ({@link Voo#reservar}). Os mapas de lugares dos
+     * voos são criados em paralelo.
+     *
+     * @param voos lista de voos lida de um ficheiro
+     * @return o número de voos com lugares em conflito
+     */
+    public static int avisarConflitos(List<Voo> voos) {
+        int[] conflitos = new int[voos.size()];
+        IntStream.range(0, conflitos.length).parallel()
+                .forEach(i -> conflitos[i] = voos.get(i).getMapaLugares().getConflitos());
+
+        int comConflitos = 0;
+        for (int i = 0; i < conflitos.length; i++) {
+            if (conflitos[i] == 0) continue;
+
+            if (comConflitos < MAX_AVISOS) {
+                Voo voo = voos.get(i);
+                System.out.println("Aviso: voo " + voo.getNumVoo() + " de " + voo.getDataHoraPartida() + " tem "
+                        + conflitos[i] + " passageiros em lugares inexistentes, repetidos ou de outra classe.");
+            }
+            comConflitos++;
+        }
+
+        if (comConflitos > MAX_AVISOS) System.out.println("... e mais " + (comConflitos - MAX_AVISOS) + " voos com lugares em conflito.");
+        return comConflitos;
+    }
+}
@@ -0,0 +1,100 @@
+package org.companhiaaerea.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes da {@link ArvoreFenwick}, comparando as somas com as de um array percorrido posição a posição.
+ *
+ * @author Ricardo Pereira
+ */
+class ArvoreFenwickTest {
+    /**
+     * Primeira posição dos valores de referência.
+     */
+    private static final int INICIO = -5_000;
+
+    /**
+     * Número de posições dos valores de referência (mais do que a capacidade inicial, para a árvore aumentar).
+     */
+    private static final int TAMANHO = 10_000;
+
+    @Test
+    void arvoreVaziaSomaZero() {
+        ArvoreFenwick arvore = new ArvoreFenwick();
+
+        assertEquals(0, arvore.somaAte(0));
+        assertEquals(0, arvore.soma(-10, 10));
+    }
+
+    @Test
+    void intervaloVazioSomaZero() {
+        ArvoreFenwick arvore = new ArvoreFenwick();
+        arvore.somar(5, 7);
+
+        assertEquals(0, arvore.soma(6, 5));
+        assertEquals(0, arvore.soma(5, 4));
+    }
+
+    @Test
+    void somaDeUmaPosicao() {
+        ArvoreFenwick arvore = new ArvoreFenwick();
+        arvore.somar(100, 3);
+        arvore.somar(101, 4);
+        arvore.somar(100, -1);
+
+        assertEquals(2, arvore.soma(100, 100));
+        assertEquals(4, arvore.soma(101, 101));
+        assertEquals(0, arvore.soma(99, 99));
+    }
+
+    @Test
+    void somasIguaisAsDoArray() {
+        Random random = new Random(1);
+        ArvoreFenwick arvore = new ArvoreFenwick();
+        long[] valores = new long[TAMANHO];
+
+        // Começa no meio, para a árvore aumentar para os dois lados; os valores negativos simulam remoções
+        for (int i = 0; i < 20_000; i++) {
+            int indice = i == 0 ? TAMANHO / 2 : random.nextInt(TAMANHO);
+            long valor = random.nextInt(21) - 10;
+
+            arvore.somar(INICIO + indice, valor);
+            valores[indice] += valor;
+
+            if (i % 100 == 0) verificarIntervalos(arvore, valores, random);
+        }
+
+        verificarIntervalos(arvore, valores, random);
+    }
+
+    @Test
+    void limparRemoveTodosOsValores() {
+        ArvoreFenwick arvore = new ArvoreFenwick();
+        arvore.somar(10, 5);
+        arvore.limpar();
+
+        assertEquals(0, arvore.soma(0, 20));
+
+        arvore.somar(50_000, 2);
+        assertEquals(2, arvore.soma(0, 100_000));
+    }
+
+    /**
+     * Compara com o array as somas de intervalos aleatórios, incluindo intervalos fora das posições alteradas.
+     */
+    private static void verificarIntervalos(ArvoreFenwick arvore, long[] valores, Random random) {
+        for (int i = 0; i < 50; i++) {
+            int de = random.nextInt(TAMANHO + 200) - 100;
+            int ate = de + random.nextInt(TAMANHO / 4);
+
+            long esperado = 0;
+            for (int j = Math.max(de, 0); j <= Math.min(ate, TAMANHO - 1); j++) esperado += valores[j];
+
+            assertEquals(esperado, arvore.soma(INICIO + de, INICIO + ate), "soma de " + de + " a " + ate);
+        }
+    }
+}
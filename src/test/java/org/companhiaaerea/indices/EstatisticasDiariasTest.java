@@ -0,0 +1,182 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.GeradorHorarios;
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes das {@link EstatisticasDiarias}, comparando os totais e as médias com os de uma pesquisa em todos os voos de
+ * um horário gerado ({@link GeradorHorarios}).
+ *
+ * @author Ricardo Pereira
+ */
+class EstatisticasDiariasTest {
+    /**
+     * Primeiro dia do horário gerado.
+     */
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Voos indexados.
+     */
+    private ArrayList<Voo> voos;
+
+    /**
+     * Índice temporal usado pelas estatísticas.
+     */
+    private LinhaTemporal linhaTemporal;
+
+    /**
+     * Estatísticas a testar.
+     */
+    private EstatisticasDiarias estatisticas;
+
+    @BeforeEach
+    void criarIndices() {
+        voos = new GeradorHorarios(3, PRIMEIRO_DIA, 40, GeradorHorarios.OCUPACAO_VARIAVEL).gerar(2_000);
+
+        // Alguns voos muito longos, que atravessam intervalos inteiros
+        for (int i = 0; i < voos.size(); i += 150) {
+            Voo voo = voos.get(i);
+            voo.setDataHoraChegada(voo.getDataHoraPartida().plusDays(1 + i % 4));
+        }
+
+        linhaTemporal = new LinhaTemporal();
+        estatisticas = new EstatisticasDiarias(linhaTemporal);
+        for (Voo voo : voos) adicionar(voo);
+    }
+
+    @Test
+    void intervaloVazio() {
+        LocalDate dia = PRIMEIRO_DIA.plusDays(10);
+
+        assertEquals(0, estatisticas.totalVoos(dia, dia.minusDays(1)));
+        assertEquals(0, estatisticas.totalPassageiros(dia, dia.minusDays(1)));
+        assertTrue(Double.isNaN(estatisticas.mediaPassageiros(dia, dia.minusDays(1))));
+    }
+
+    @Test
+    void intervaloSemVoos() {
+        LocalDate antes = PRIMEIRO_DIA.minusDays(30);
+
+        assertEquals(0, estatisticas.totalVoos(antes, antes.plusDays(5)));
+        assertEquals(0, estatisticas.totalPassageiros(antes, antes.plusDays(5)));
+        assertTrue(Double.isNaN(estatisticas.mediaPassageiros(antes, antes.plusDays(5))));
+    }
+
+    @Test
+    void cadaDiaIgualAPesquisaCompleta() {
+        for (LocalDate dia = PRIMEIRO_DIA.minusDays(2); !dia.isAfter(ultimoDia().plusDays(2)); dia = dia.plusDays(1)) {
+            verificar(dia, dia);
+        }
+    }
+
+    @Test
+    void intervalosIguaisAPesquisaCompleta() {
+        verificarIntervalosAleatorios(new Random(1));
+        verificar(PRIMEIRO_DIA.minusDays(1), ultimoDia().plusDays(5));
+    }
+
+    @Test
+    void remocoesIguaisAPesquisaCompleta() {
+        Random random = new Random(2);
+
+        // Remove um terço dos voos e um passageiro de outros voos
+        ArrayList<Voo> restantes = new ArrayList<>();
+        for (int i = 0; i < voos.size(); i++) {
+            Voo voo = voos.get(i);
+
+            if (i % 3 == 0) {
+                linhaTemporal.remover(voo);
+                estatisticas.remover(voo);
+                continue;
+            }
+
+            if (i % 3 == 1 && !voo.getPassageiros().isEmpty()) {
+                Passageiro passageiro = voo.getPassageiros().get(random.nextInt(voo.getPassageiros().size()));
+                assertTrue(voo.cancelarReserva(passageiro));
+                estatisticas.removerPassageiro(voo, passageiro);
+            }
+            restantes.add(voo);
+        }
+        voos = restantes;
+
+        for (LocalDate dia = PRIMEIRO_DIA; !dia.isAfter(ultimoDia()); dia = dia.plusDays(1)) verificar(dia, dia);
+        verificarIntervalosAleatorios(random);
+    }
+
+    @Test
+    void limparRemoveTodosOsVoos() {
+        linhaTemporal.limpar();
+        estatisticas.limpar();
+
+        assertEquals(0, estatisticas.totalVoos(PRIMEIRO_DIA, ultimoDia()));
+        assertEquals(0, estatisticas.totalPassageiros(PRIMEIRO_DIA, ultimoDia()));
+    }
+
+    /**
+     * Adiciona um voo aos índices, pela mesma ordem do repositório.
+     */
+    private void adicionar(Voo voo) {
+        linhaTemporal.adicionar(voo);
+        estatisticas.adicionar(voo);
+    }
+
+    /**
+     * Compara os resultados de intervalos aleatórios com a pesquisa completa.
+     */
+    private void verificarIntervalosAleatorios(Random random) {
+        int numDias = (int) (ultimoDia().toEpochDay() - PRIMEIRO_DIA.toEpochDay()) + 1;
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate inicio = PRIMEIRO_DIA.plusDays(random.nextInt(numDias + 4) - 2);
+            verificar(inicio, inicio.plusDays(random.nextInt(numDias / 2)));
+        }
+    }
+
+    /**
+     * Compara os resultados de um intervalo com os de uma pesquisa em todos os voos.
+     */
+    private void verificar(LocalDate inicio, LocalDate fim) {
+        List<Voo> noIntervalo = voos.stream()
+                .filter(voo -> !voo.getDataHoraPartida().toLocalDate().isBefore(inicio))
+                .filter(voo -> !voo.getDataHoraChegada().toLocalDate().isAfter(fim))
+                .toList();
+
+        long passageiros = 0;
+        for (Voo voo : noIntervalo) passageiros += voo.getPassageiros().size();
+
+        String intervalo = inicio + " a " + fim;
+        assertEquals(noIntervalo.size(), estatisticas.totalVoos(inicio, fim), "voos de " + intervalo);
+        assertEquals(passageiros, estatisticas.totalPassageiros(inicio, fim), "passageiros de " + intervalo);
+
+        double media = estatisticas.mediaPassageiros(inicio, fim);
+        if (noIntervalo.isEmpty()) {
+            assertTrue(Double.isNaN(media), "média de " + intervalo);
+        } else {
+            assertEquals((double) passageiros / noIntervalo.size(), media, 1e-9, "média de " + intervalo);
+        }
+    }
+
+    /**
+     * Retorna o último dia de chegada dos voos.
+     */
+    private LocalDate ultimoDia() {
+        LocalDate ultimo = PRIMEIRO_DIA;
+        for (Voo voo : voos) {
+            LocalDate chegada = voo.getDataHoraChegada().toLocalDate();
+            if (chegada.isAfter(ultimo)) ultimo = chegada;
+        }
+        return ultimo;
+    }
+}
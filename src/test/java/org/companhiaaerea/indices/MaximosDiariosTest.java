@@ -0,0 +1,189 @@
+package org.companhiaaerea.indices;
+
+import org.companhiaaerea.GeradorHorarios;
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes dos {@link MaximosDiarios}, comparando os K voos com mais passageiros com os de uma ordenação de todos os voos
+ * de um horário gerado ({@link GeradorHorarios}).
+ * <p>
+ * Voos com o mesmo número de passageiros e a mesma data e hora de partida podem vir por qualquer ordem, por isso são
+ * comparados o número de passageiros e a partida de cada voo do resultado.
+ *
+ * @author Ricardo Pereira
+ */
+class MaximosDiariosTest {
+    /**
+     * Primeiro dia do horário gerado.
+     */
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Número de dias do horário gerado (aproximado, os últimos voos podem chegar depois).
+     */
+    private static final int NUM_DIAS = 50;
+
+    /**
+     * Ordem esperada: mais passageiros primeiro e, com o mesmo número, pela data e hora de partida.
+     */
+    private static final Comparator<Voo> ORDEM = Comparator
+            .comparingInt((Voo voo) -> voo.getPassageiros().size()).reversed()
+            .thenComparing(Voo::getDataHoraPartida);
+
+    /**
+     * Voos indexados.
+     */
+    private ArrayList<Voo> voos;
+
+    /**
+     * Índice a testar.
+     */
+    private MaximosDiarios maximos;
+
+    @BeforeEach
+    void criarIndice() {
+        voos = new GeradorHorarios(5, PRIMEIRO_DIA, 40, GeradorHorarios.OCUPACAO_VARIAVEL).gerar(40 * NUM_DIAS);
+
+        maximos = new MaximosDiarios();
+        for (Voo voo : voos) maximos.adicionar(voo);
+    }
+
+    @Test
+    void intervaloVazio() {
+        LocalDate dia = PRIMEIRO_DIA.plusDays(10);
+
+        assertTrue(maximos.maisPassageiros(dia, dia.minusDays(1), 10).isEmpty());
+        assertNull(maximos.maisPassageiros(dia, dia.minusDays(1)));
+    }
+
+    @Test
+    void intervaloSemVoos() {
+        LocalDate antes = PRIMEIRO_DIA.minusDays(30);
+
+        assertTrue(maximos.maisPassageiros(antes, antes.plusDays(5), 10).isEmpty());
+        assertNull(maximos.maisPassageiros(antes, antes.plusDays(5)));
+        assertTrue(new MaximosDiarios().maisPassageiros(PRIMEIRO_DIA, PRIMEIRO_DIA, 10).isEmpty());
+    }
+
+    @Test
+    void kNuloOuNegativo() {
+        assertTrue(maximos.maisPassageiros(PRIMEIRO_DIA, PRIMEIRO_DIA.plusDays(NUM_DIAS), 0).isEmpty());
+        assertTrue(maximos.maisPassageiros(PRIMEIRO_DIA, PRIMEIRO_DIA.plusDays(NUM_DIAS), -1).isEmpty());
+    }
+
+    @Test
+    void cadaDiaIgualAOrdenacaoCompleta() {
+        for (LocalDate dia = PRIMEIRO_DIA.minusDays(1); !dia.isAfter(PRIMEIRO_DIA.plusDays(NUM_DIAS + 1)); dia = dia.plusDays(1)) {
+            verificar(dia, dia, 1);
+            verificar(dia, dia, 5);
+        }
+    }
+
+    @Test
+    void kMaiorQueNumeroDeVoos() {
+        LocalDate dia = PRIMEIRO_DIA.plusDays(3);
+        verificar(dia, dia, 1_000);
+        verificar(PRIMEIRO_DIA.minusDays(1), PRIMEIRO_DIA.plusDays(NUM_DIAS + 1), voos.size() + 10);
+    }
+
+    @Test
+    void intervalosIguaisAOrdenacaoCompleta() {
+        verificarIntervalosAleatorios(new Random(1));
+    }
+
+    @Test
+    void alteracoesIguaisAOrdenacaoCompleta() {
+        Random random = new Random(2);
+
+        // Remove um terço dos voos, retira um passageiro de outros voos e volta a adicionar alguns
+        ArrayList<Voo> restantes = new ArrayList<>();
+        for (int i = 0; i < voos.size(); i++) {
+            Voo voo = voos.get(i);
+
+            if (i % 3 == 0) {
+                maximos.remover(voo);
+                continue;
+            }
+
+            if (i % 3 == 1 && !voo.getPassageiros().isEmpty()) {
+                Passageiro passageiro = voo.getPassageiros().get(random.nextInt(voo.getPassageiros().size()));
+                assertTrue(voo.cancelarReserva(passageiro));
+                maximos.removerPassageiro(voo, passageiro);
+
+                if (i % 2 == 0) {
+                    assertTrue(voo.reservar(passageiro));
+                    maximos.adicionarPassageiro(voo, passageiro);
+                }
+            }
+            restantes.add(voo);
+        }
+        voos = restantes;
+
+        for (LocalDate dia = PRIMEIRO_DIA; !dia.isAfter(PRIMEIRO_DIA.plusDays(NUM_DIAS)); dia = dia.plusDays(1)) {
+            verificar(dia, dia, 3);
+        }
+        verificarIntervalosAleatorios(random);
+    }
+
+    @Test
+    void limparRemoveTodosOsVoos() {
+        maximos.limpar();
+
+        assertTrue(maximos.maisPassageiros(PRIMEIRO_DIA, PRIMEIRO_DIA.plusDays(NUM_DIAS), 10).isEmpty());
+    }
+
+    /**
+     * Compara os resultados de intervalos e valores de K aleatórios com a ordenação completa.
+     */
+    private void verificarIntervalosAleatorios(Random random) {
+        for (int i = 0; i < 200; i++) {
+            LocalDate inicio = PRIMEIRO_DIA.plusDays(random.nextInt(NUM_DIAS + 4) - 2);
+            verificar(inicio, inicio.plusDays(random.nextInt(NUM_DIAS / 2)), 1 + random.nextInt(50));
+        }
+    }
+
+    /**
+     * Compara os K voos com mais passageiros de um intervalo com os da ordenação de todos os voos do intervalo.
+     */
+    private void verificar(LocalDate inicio, LocalDate fim, int k) {
+        LocalDateTime limiteChegada = fim.plusDays(1).atStartOfDay();
+
+        List<String> esperado = voos.stream()
+                .filter(voo -> !voo.getDataHoraPartida().toLocalDate().isBefore(inicio))
+                .filter(voo -> voo.getDataHoraChegada().isBefore(limiteChegada))
+                .sorted(ORDEM)
+                .limit(k)
+                .map(MaximosDiariosTest::descrever)
+                .toList();
+
+        List<String> obtido = maximos.maisPassageiros(inicio, fim, k).stream()
+                .map(MaximosDiariosTest::descrever)
+                .toList();
+
+        assertEquals(esperado, obtido, "K = " + k + " de " + inicio + " a " + fim);
+
+        Voo maior = maximos.maisPassageiros(inicio, fim);
+        assertEquals(esperado.isEmpty() ? null : esperado.get(0), maior == null ? null : descrever(maior));
+    }
+
+    /**
+     * Descreve um voo pelo número de passageiros e pela data e hora de partida.
+     */
+    private static String descrever(Voo voo) {
+        return voo.getPassageiros().size() + " passageiros, partida " + voo.getDataHoraPartida();
+    }
+}
@@ -0,0 +1,196 @@
+package org.companhiaaerea.utils;
+
+import org.companhiaaerea.GeradorHorarios;
+import org.companhiaaerea.MapaLugares;
+import org.companhiaaerea.Passageiro;
+import org.companhiaaerea.Voo;
+import org.companhiaaerea.repositorio.RepositorioVoos;
+import org.companhiaaerea.repositorio.RepositorioVoosConcorrente;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do {@link Diario}: as alterações feitas a um repositório e registadas no diário, aplicadas ao ficheiro de voos
+ * guardado antes das alterações, têm de reproduzir exatamente o estado do repositório.
+ *
+ * @author Ricardo Pereira
+ */
+class DiarioTest {
+    /**
+     * Nome (sem extensão) do ficheiro de voos usado nos testes.
+     */
+    private static final String NOME_FICHEIRO = "teste-diario";
+
+    /**
+     * Primeiro dia do horário gerado.
+     */
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 1, 1);
+
+    /**
+     * Primeiro número de identificação dos passageiros novos, fora dos números do horário gerado.
+     */
+    private static final int PRIMEIRO_NUM_IDENTIFICACAO = 900_000_000;
+
+    /**
+     * Número de identificação do próximo passageiro novo.
+     */
+    private int proximoNumIdentificacao = PRIMEIRO_NUM_IDENTIFICACAO;
+
+    @BeforeEach
+    @AfterEach
+    void apagarFicheiros() throws IOException {
+        GravadorFicheiros.aguardar();
+        Files.deleteIfExists(Path.of(File.PATH_PASTA, NOME_FICHEIRO + File.EXTENSAO));
+        Files.deleteIfExists(Diario.pathDiario(NOME_FICHEIRO));
+        Files.deleteIfExists(Diario.pathDiarioAnterior(NOME_FICHEIRO));
+    }
+
+    @Test
+    void reproduzirIgualAoRepositorio() throws IOException {
+        ArrayList<Voo> voos = new GeradorHorarios(5, PRIMEIRO_DIA, 20, 30).gerar(60);
+        Files.createDirectories(Path.of(File.PATH_PASTA));
+        GravadorFicheiros.escrever(voos, Path.of(File.PATH_PASTA, NOME_FICHEIRO + File.EXTENSAO), false);
+
+        Diario diario = Diario.abrir(NOME_FICHEIRO);
+        RepositorioVoos repositorio = new RepositorioVoosConcorrente(List.of(), registo(diario));
+        repositorio.substituir(voos);
+
+        Random random = new Random(7);
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                alterar(repositorio, voos.get(random.nextInt(voos.size())), random);
+            }
+
+            assertTrue(repositorio.remover(voos.get(0)));
+            assertTrue(repositorio.adicionar(new GeradorHorarios(6, PRIMEIRO_DIA.plusYears(1), 20, 30).proximoVoo()));
+        } finally {
+            diario.fechar();
+        }
+
+        assertEquals(descrever(repositorio.voos()), descrever(File.readVooListFromFile(NOME_FICHEIRO + File.EXTENSAO)));
+    }
+
+    @Test
+    void numeroRepetidoNaoReservaLugar() {
+        Voo voo = new GeradorHorarios(5, PRIMEIRO_DIA, 20, 10).proximoVoo();
+        Passageiro existente = voo.getPassageiros().get(0);
+        MapaLugares mapa = voo.getMapaLugares();
+        int livres = mapa.lugaresLivres(Passageiro.TipoBilhete.TURISTICA);
+
+        Passageiro repetido = novoPassageiro(existente.getNumIdentificacao(), Passageiro.TipoBilhete.TURISTICA);
+        assertFalse(voo.reservar(repetido));
+        assertEquals(livres, mapa.lugaresLivres(Passageiro.TipoBilhete.TURISTICA));
+        assertNull(repetido.getLugarReservado());
+        assertEquals(existente, voo.procurarPassageiro(existente.getNumIdentificacao()));
+    }
+
+    /**
+     * Faz uma alteração aleatória aos passageiros de um voo: adicionar um passageiro novo, adicionar um passageiro com
+     * o número de um passageiro do voo (que tem de ser recusado), remover um passageiro, ou remover um passageiro e
+     * voltar a adicioná-lo com outro lugar.
+     */
+    private void alterar(RepositorioVoos repositorio, Voo voo, Random random) {
+        List<Passageiro> passageiros = voo.getPassageiros();
+        int operacao = passageiros.isEmpty() ? 0 : random.nextInt(4);
+
+        switch (operacao) {
+            case 0 -> repositorio.adicionarPassageiro(voo, novoPassageiro(proximoNumIdentificacao, tipo(proximoNumIdentificacao++)));
+            case 1 -> {
+                Passageiro existente = passageiros.get(random.nextInt(passageiros.size()));
+                assertFalse(repositorio.adicionarPassageiro(voo, novoPassageiro(existente.getNumIdentificacao(), tipo(existente.getNumIdentificacao()))));
+            }
+            case 2 -> assertTrue(repositorio.removerPassageiro(voo, passageiros.get(random.nextInt(passageiros.size()))));
+            default -> {
+                Passageiro existente = passageiros.get(random.nextInt(passageiros.size()));
+                assertTrue(repositorio.removerPassageiro(voo, existente));
+                repositorio.adicionarPassageiro(voo, novoPassageiro(existente.getNumIdentificacao(), tipo(existente.getNumIdentificacao())));
+            }
+        }
+    }
+
+    /**
+     * Retorna o tipo de bilhete de um passageiro novo.
+     */
+    private static Passageiro.TipoBilhete tipo(int numIdentificacao) {
+        return numIdentificacao % 5 == 0 ? Passageiro.TipoBilhete.EXECUTIVA : Passageiro.TipoBilhete.TURISTICA;
+    }
+
+    /**
+     * Cria um passageiro sem lugar, a quem a reserva atribui o primeiro lugar livre da classe do bilhete.
+     */
+    private static Passageiro novoPassageiro(int numIdentificacao, Passageiro.TipoBilhete tipoBilhete) {
+        return new Passageiro(numIdentificacao, "Passageiro " + numIdentificacao, "Portugal", "Rua do Teste, 1",
+                912345678, LocalDate.of(1990, 1, 1), "teste@exemplo.pt", tipoBilhete, null);
+    }
+
+    /**
+     * Descreve os passageiros (número de identificação e lugar, pela ordem da lista) de cada voo, por número de voo e
+     * data e hora de partida.
+     */
+    private static Map<String, List<String>> descrever(List<Voo> voos) {
+        TreeMap<String, List<String>> descricao = new TreeMap<>();
+        for (Voo voo : voos) {
+            List<String> passageiros = new ArrayList<>();
+            for (Passageiro passageiro : voo.getPassageiros()) {
+                passageiros.add(passageiro.getNumIdentificacao() + ":" + passageiro.getLugarReservado());
+            }
+            descricao.put(voo.getNumVoo() + ";" + voo.getDataHoraPartida(), passageiros);
+        }
+        return descricao;
+    }
+
+    /**
+     * Registo de alterações que escreve no diário indicado, como o do programa.
+     */
+    private static RepositorioVoos.RegistoAlteracoes registo(Diario diario) {
+        return new RepositorioVoos.RegistoAlteracoes() {
+            @Override
+            public void vooAdicionado(Voo voo) {
+                registar(diario, d -> d.registarAdicaoVoo(voo));
+            }
+
+            @Override
+            public void vooRemovido(Voo voo) {
+                registar(diario, d -> d.registarRemocaoVoo(voo));
+            }
+
+            @Override
+            public void passageiroAdicionado(Voo voo, Passageiro passageiro) {
+                registar(diario, d -> d.registarAdicaoPassageiro(voo, passageiro));
+            }
+
+            @Override
+            public void passageiroRemovido(Voo voo, Passageiro passageiro) {
+                registar(diario, d -> d.registarRemocaoPassageiro(voo, passageiro));
+            }
+        };
+    }
+
+    /**
+     * Regista uma alteração no diário, lançando os erros como exceções não verificadas.
+     */
+    private static void registar(Diario diario, Diario.Alteracao alteracao) {
+        try {
+            alteracao.registar(diario);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}